@@ -0,0 +1,95 @@
+package com.example.tasklistapp.loadgen;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free log-linear histogram of latencies in microseconds. Each power of two is split into
+ * 32 linear buckets, so any recorded value is reported with at most ~3% relative error while the
+ * whole range from 1us to several hours fits in about a thousand counters.
+ */
+public class LatencyHistogram {
+    
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_MAGNITUDE = 40;
+    private static final int BUCKETS = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalMicros = new LongAdder();
+    private final AtomicLong maxMicros = new AtomicLong();
+    
+    public void recordMicros(long micros) {
+        long value = Math.max(0, micros);
+        counts.incrementAndGet(indexOf(value));
+        totalCount.increment();
+        totalMicros.add(value);
+        maxMicros.accumulateAndGet(value, Math::max);
+    }
+    
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = other.counts.get(i);
+            if (count > 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        totalCount.add(other.getCount());
+        totalMicros.add(other.totalMicros.sum());
+        maxMicros.accumulateAndGet(other.getMaxMicros(), Math::max);
+    }
+    
+    public long getCount() {
+        return totalCount.sum();
+    }
+    
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+    
+    public double getMeanMicros() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) totalMicros.sum() / count;
+    }
+    
+    /**
+     * Returns the upper bound of the bucket holding the value at the given quantile (0..1), capped
+     * at the recorded maximum, so percentiles are never reported lower than they were.
+     */
+    public long getValueAtQuantile(double quantile) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundOf(i), getMaxMicros());
+            }
+        }
+        return getMaxMicros();
+    }
+    
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS * 2) {
+            return (int) value;
+        }
+        int magnitude = Math.min(MAX_MAGNITUDE, 63 - Long.numberOfLeadingZeros(value));
+        int shift = magnitude - SUB_BUCKET_BITS;
+        int subBucket = (int) Math.min(SUB_BUCKETS - 1, (value >> shift) - SUB_BUCKETS);
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+    
+    static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS * 2) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowerBound = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+}
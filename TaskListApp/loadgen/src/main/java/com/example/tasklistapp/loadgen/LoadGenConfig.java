@@ -0,0 +1,103 @@
+package com.example.tasklistapp.loadgen;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line options. Every option has a default, so {@code java -jar loadgen.jar} runs a short
+ * smoke load against a local instance.
+ */
+public record LoadGenConfig(
+        URI baseUrl,
+        int users,
+        Duration rampUp,
+        Duration warmup,
+        Duration duration,
+        Duration thinkTime,
+        Duration requestTimeout,
+        double keepRatio,
+        int statusToggles,
+        String password,
+        String reportPath) {
+    
+    static final String USAGE = """
+            Usage: java -jar loadgen.jar [options]
+              --base-url=URL        application under test (default http://localhost:8080)
+              --users=N             concurrent virtual users (default 20)
+              --ramp-up=DURATION    time over which users start (default 10s)
+              --warmup=DURATION     initial period excluded from the report (default 10s)
+              --duration=DURATION   measured period after warmup (default 60s)
+              --think-time=DURATION mean pause between steps, exponentially distributed; 0 disables (default 1s)
+              --timeout=DURATION    per-request timeout (default 10s)
+              --keep-ratio=R        share of created tasks that are not deleted again (default 0.3)
+              --status-toggles=N    extra status changes sent back to back after each edit (default 0)
+              --report=PATH         JSON report file (default loadgen-report-<timestamp>.json)
+            Durations accept ms, s and m suffixes; a bare number means seconds.
+            """;
+    
+    static LoadGenConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int equals = arg.indexOf('=');
+            if (equals > 0) {
+                options.put(arg.substring(2, equals), arg.substring(equals + 1));
+            } else if (arg.equals("--help")) {
+                options.put("help", "true");
+            } else if (i + 1 < args.length) {
+                options.put(arg.substring(2), args[++i]);
+            } else {
+                throw new IllegalArgumentException("Missing value for " + arg);
+            }
+        }
+        if (options.containsKey("help")) {
+            return null;
+        }
+        
+        String baseUrl = options.getOrDefault("base-url", "http://localhost:8080");
+        LoadGenConfig config = new LoadGenConfig(
+                URI.create(baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl),
+                Integer.parseInt(options.getOrDefault("users", "20")),
+                parseDuration(options.getOrDefault("ramp-up", "10s")),
+                parseDuration(options.getOrDefault("warmup", "10s")),
+                parseDuration(options.getOrDefault("duration", "60s")),
+                parseDuration(options.getOrDefault("think-time", "1s")),
+                parseDuration(options.getOrDefault("timeout", "10s")),
+                Double.parseDouble(options.getOrDefault("keep-ratio", "0.3")),
+                Integer.parseInt(options.getOrDefault("status-toggles", "0")),
+                options.getOrDefault("password", "LoadTest-123"),
+                options.getOrDefault("report", "loadgen-report-" + System.currentTimeMillis() + ".json"));
+        options.keySet().removeAll(Set.of("base-url", "users", "ramp-up", "warmup", "duration",
+                "think-time", "timeout", "keep-ratio", "status-toggles", "password", "report"));
+        if (!options.isEmpty()) {
+            throw new IllegalArgumentException("Unknown option(s): " + options.keySet());
+        }
+        if (config.users < 1) {
+            throw new IllegalArgumentException("--users must be at least 1");
+        }
+        if (config.statusToggles < 0) {
+            throw new IllegalArgumentException("--status-toggles must not be negative");
+        }
+        return config;
+    }
+    
+    static Duration parseDuration(String value) {
+        String trimmed = value.trim().toLowerCase();
+        if (trimmed.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(trimmed.substring(0, trimmed.length() - 2)));
+        }
+        if (trimmed.endsWith("s")) {
+            return Duration.ofMillis((long) (Double.parseDouble(trimmed.substring(0, trimmed.length() - 1)) * 1000));
+        }
+        if (trimmed.endsWith("m")) {
+            return Duration.ofSeconds((long) (Double.parseDouble(trimmed.substring(0, trimmed.length() - 1)) * 60));
+        }
+        return Duration.ofMillis((long) (Double.parseDouble(trimmed) * 1000));
+    }
+}
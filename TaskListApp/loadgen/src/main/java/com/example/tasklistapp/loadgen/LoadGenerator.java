@@ -0,0 +1,102 @@
+package com.example.tasklistapp.loadgen;
+
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Closed-model load generator: a fixed number of virtual users, each waiting for its response and
+ * then thinking before the next step. Latency is measured per request from send to full body.
+ * Prints a summary table and writes a JSON report for comparing runs.
+ */
+public class LoadGenerator {
+    
+    public static void main(String[] args) throws Exception {
+        LoadGenConfig config;
+        try {
+            config = LoadGenConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadGenConfig.USAGE);
+            System.exit(2);
+            return;
+        }
+        if (config == null) {
+            System.out.print(LoadGenConfig.USAGE);
+            return;
+        }
+        
+        Instant startedAt = Instant.now();
+        Map<Operation, OperationStats> stats = run(config);
+        Report report = new Report(config, startedAt, stats);
+        System.out.print(report.toTable());
+        Files.writeString(Path.of(config.reportPath()), report.toJson());
+        System.out.println("Report written to " + config.reportPath());
+    }
+    
+    static Map<Operation, OperationStats> run(LoadGenConfig config) throws InterruptedException {
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(
+                Math.max(4, Runtime.getRuntime().availableProcessors()));
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(clientExecutor)
+                    .build();
+            return run(config, client);
+        } finally {
+            clientExecutor.shutdownNow();
+        }
+    }
+    
+    private static Map<Operation, OperationStats> run(LoadGenConfig config, HttpClient client)
+            throws InterruptedException {
+        
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        long startNanos = System.nanoTime();
+        LoadRun run = new LoadRun(startNanos, config);
+        long rampStepNanos = config.rampUp().toNanos() / config.users();
+        
+        System.out.printf("Running %d users against %s: ramp-up %ss, warmup %ss, measuring %ss%n",
+                config.users(), config.baseUrl(), config.rampUp().toSeconds(), config.warmup().toSeconds(),
+                config.duration().toSeconds());
+        
+        // Shared by all users; the histograms are lock-free
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+        
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < config.users(); i++) {
+            long startAt = startNanos + i * rampStepNanos;
+            long delayMillis = (startAt - System.nanoTime()) / 1_000_000;
+            if (delayMillis > 0) {
+                run.sleepUntilFinished(delayMillis);
+            }
+            VirtualUser user = new VirtualUser(config, client, run, stats, "lg-" + runId + "-" + i);
+            Thread thread = new Thread(user, "virtual-user-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        
+        long remainingMillis = (run.getEndNanos() - System.nanoTime()) / 1_000_000;
+        if (remainingMillis > 0) {
+            Thread.sleep(remainingMillis);
+        }
+        run.finish();
+        for (Thread thread : threads) {
+            thread.join(config.requestTimeout().toMillis() + 1000);
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.tasklistapp.loadgen;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timeline of a run: results are recorded between the end of the warmup and the end of the
+ * measured duration, and every virtual user stops at the end.
+ */
+class LoadRun {
+    
+    private final long recordFromNanos;
+    private final long endNanos;
+    private final CountDownLatch finished = new CountDownLatch(1);
+    
+    LoadRun(long startNanos, LoadGenConfig config) {
+        this.recordFromNanos = startNanos + config.warmup().toNanos();
+        this.endNanos = recordFromNanos + config.duration().toNanos();
+    }
+    
+    boolean isRecording() {
+        long now = System.nanoTime();
+        return now >= recordFromNanos && now < endNanos;
+    }
+    
+    boolean isFinished() {
+        return finished.getCount() == 0 || System.nanoTime() >= endNanos;
+    }
+    
+    long getEndNanos() {
+        return endNanos;
+    }
+    
+    void finish() {
+        finished.countDown();
+    }
+    
+    /**
+     * Sleeps for the given time, waking early when the run finishes.
+     */
+    void sleepUntilFinished(long millis) throws InterruptedException {
+        finished.await(millis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.tasklistapp.loadgen;
+
+/**
+ * Steps of the scripted user journey, each reported separately. One-shot steps run once per user
+ * while users ramp up, so they are recorded regardless of the warmup and left out of throughput.
+ */
+public enum Operation {
+    SIGNUP(true),
+    LOGIN(true),
+    TASKLIST_PAGE(true),
+    LIST_TASKS(false),
+    CREATE_TASK(false),
+    UPDATE_TASK(false),
+    TOGGLE_STATUS(false),
+    DELETE_TASK(false);
+    
+    private final boolean oneShot;
+    
+    Operation(boolean oneShot) {
+        this.oneShot = oneShot;
+    }
+    
+    public boolean isOneShot() {
+        return oneShot;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.tasklistapp.loadgen;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram plus error and status code counts for one {@link Operation}.
+ */
+public class OperationStats {
+    
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    
+    /**
+     * @param outcome the HTTP status code, or the exception name when no response was received
+     */
+    public void record(long micros, String outcome, boolean success) {
+        histogram.recordMicros(micros);
+        if (!success) {
+            errors.increment();
+        }
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+    }
+    
+    public void add(OperationStats other) {
+        histogram.add(other.histogram);
+        errors.add(other.getErrors());
+        other.outcomes.forEach((outcome, count) ->
+                outcomes.computeIfAbsent(outcome, key -> new LongAdder()).add(count.sum()));
+    }
+    
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+    
+    public long getErrors() {
+        return errors.sum();
+    }
+    
+    public Map<String, Long> getOutcomes() {
+        Map<String, Long> sorted = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> sorted.put(outcome, count.sum()));
+        return sorted;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.tasklistapp.loadgen;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Summary of a run as a console table and as JSON. Latencies are in milliseconds; throughput counts
+ * successful requests per second of the measured period. The JSON is written by hand to keep the module dependency-free.
+ */
+class Report {
+    
+    private static final double[] QUANTILES = {0.5, 0.95, 0.99, 0.999};
+    private static final String[] QUANTILE_NAMES = {"p50", "p95", "p99", "p999"};
+    
+    private final LoadGenConfig config;
+    private final Instant startedAt;
+    private final Map<Operation, OperationStats> stats;
+    private final OperationStats overall = new OperationStats();
+    private final double measuredSeconds;
+    
+    Report(LoadGenConfig config, Instant startedAt, Map<Operation, OperationStats> stats) {
+        this.config = config;
+        this.startedAt = startedAt;
+        this.stats = stats;
+        this.measuredSeconds = config.duration().toMillis() / 1000.0;
+        stats.forEach((operation, operationStats) -> {
+            if (!operation.isOneShot()) {
+                overall.add(operationStats);
+            }
+        });
+    }
+    
+    String toTable() {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format(Locale.ROOT, "%n%-14s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "ok/s", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms"));
+        stats.forEach((operation, operationStats) -> appendRow(table, operation.name(), operationStats,
+                operation.isOneShot()));
+        appendRow(table, "ALL (steady)", overall, false);
+        stats.forEach((operation, operationStats) -> {
+            if (operationStats.getErrors() > 0) {
+                table.append(operation).append(" outcomes: ").append(operationStats.getOutcomes()).append('\n');
+            }
+        });
+        return table.toString();
+    }
+    
+    private void appendRow(StringBuilder table, String name, OperationStats operationStats, boolean oneShot) {
+        LatencyHistogram histogram = operationStats.getHistogram();
+        table.append(String.format(Locale.ROOT, "%-14s %8d %7d %9s", name, histogram.getCount(),
+                operationStats.getErrors(), oneShot ? "-" : String.format(Locale.ROOT, "%.1f", throughput(operationStats))));
+        for (double quantile : QUANTILES) {
+            table.append(String.format(Locale.ROOT, " %9.1f", histogram.getValueAtQuantile(quantile) / 1000.0));
+        }
+        table.append(String.format(Locale.ROOT, " %9.1f%n", histogram.getMaxMicros() / 1000.0));
+    }
+    
+    String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"startedAt\": \"").append(startedAt).append("\",\n");
+        json.append("  \"config\": {\n");
+        json.append("    \"baseUrl\": \"").append(config.baseUrl()).append("\",\n");
+        json.append("    \"users\": ").append(config.users()).append(",\n");
+        json.append("    \"rampUpSeconds\": ").append(seconds(config.rampUp().toMillis())).append(",\n");
+        json.append("    \"warmupSeconds\": ").append(seconds(config.warmup().toMillis())).append(",\n");
+        json.append("    \"durationSeconds\": ").append(seconds(config.duration().toMillis())).append(",\n");
+        json.append("    \"thinkTimeMillis\": ").append(config.thinkTime().toMillis()).append(",\n");
+        json.append("    \"keepRatio\": ").append(config.keepRatio()).append(",\n");
+        json.append("    \"statusToggles\": ").append(config.statusToggles()).append("\n");
+        json.append("  },\n");
+        json.append("  \"overall\": ");
+        appendStats(json, overall, false, "  ");
+        json.append(",\n  \"operations\": {");
+        String separator = "\n";
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            json.append(separator).append("    \"").append(entry.getKey()).append("\": ");
+            appendStats(json, entry.getValue(), entry.getKey().isOneShot(), "    ");
+            separator = ",\n";
+        }
+        json.append("\n  }\n}\n");
+        return json.toString();
+    }
+    
+    private void appendStats(StringBuilder json, OperationStats operationStats, boolean oneShot, String indent) {
+        LatencyHistogram histogram = operationStats.getHistogram();
+        json.append("{\n");
+        json.append(indent).append("  \"count\": ").append(histogram.getCount()).append(",\n");
+        json.append(indent).append("  \"errors\": ").append(operationStats.getErrors()).append(",\n");
+        json.append(indent).append("  \"throughputPerSecond\": ")
+                .append(oneShot ? "null" : format(throughput(operationStats))).append(",\n");
+        json.append(indent).append("  \"latencyMillis\": {");
+        json.append("\"mean\": ").append(format(histogram.getMeanMicros() / 1000.0));
+        for (int i = 0; i < QUANTILES.length; i++) {
+            json.append(", \"").append(QUANTILE_NAMES[i]).append("\": ")
+                    .append(format(histogram.getValueAtQuantile(QUANTILES[i]) / 1000.0));
+        }
+        json.append(", \"max\": ").append(format(histogram.getMaxMicros() / 1000.0)).append("},\n");
+        json.append(indent).append("  \"outcomes\": {");
+        String separator = "";
+        for (Map.Entry<String, Long> outcome : operationStats.getOutcomes().entrySet()) {
+            json.append(separator).append('"').append(escape(outcome.getKey())).append("\": ").append(outcome.getValue());
+            separator = ", ";
+        }
+        json.append("}\n").append(indent).append('}');
+    }
+    
+    private double throughput(OperationStats operationStats) {
+        return (operationStats.getHistogram().getCount() - operationStats.getErrors()) / measuredSeconds;
+    }
+    
+    private static String seconds(long millis) {
+        return format(millis / 1000.0);
+    }
+    
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+    
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.tasklistapp.loadgen;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One simulated person: signs up, logs in through the form, opens the task list page and then
+ * repeatedly lists, creates, updates (optionally followed by a burst of status toggles) and
+ * (mostly) deletes tasks with think time between steps, until the run ends. The session cookie is tracked by hand so all users can share one client.
+ */
+class VirtualUser implements Runnable {
+    
+    private static final Pattern ID_PATTERN = Pattern.compile("\"id\"\\s*:\\s*\"([^\"]+)\"");
+    private static final String[] STATUSES = {"TODO", "IN_PROGRESS", "DONE"};
+    // Signup and login are retried like a person would after a 503, the steady-state steps are not
+    private static final int MAX_ATTEMPTS = 5;
+    
+    private final LoadGenConfig config;
+    private final HttpClient client;
+    private final Map<Operation, OperationStats> stats;
+    private final LoadRun run;
+    private final String username;
+    private String sessionCookie;
+    
+    VirtualUser(LoadGenConfig config, HttpClient client, LoadRun run, Map<Operation, OperationStats> stats,
+                String username) {
+        this.config = config;
+        this.client = client;
+        this.run = run;
+        this.stats = stats;
+        this.username = username;
+    }
+    
+    @Override
+    public void run() {
+        try {
+            if (!signUp() || !logIn()) {
+                return;
+            }
+            send(Operation.TASKLIST_PAGE, request("/tasklist").GET(), 200);
+            
+            int iteration = 0;
+            while (!run.isFinished()) {
+                think();
+                send(Operation.LIST_TASKS, request("/tasks").GET(), 200);
+                
+                think();
+                HttpResponse<String> created = send(Operation.CREATE_TASK, jsonRequest("/tasks", "POST",
+                        taskJson("Load task " + iteration, "TODO")), 201);
+                String taskId = created == null ? null : extractId(created.body());
+                if (taskId == null) {
+                    continue;
+                }
+                
+                think();
+                String edited = "Load task " + iteration + " (edited)";
+                send(Operation.UPDATE_TASK, jsonRequest("/tasks/" + taskId, "PUT",
+                        taskJson(edited, STATUSES[iteration % STATUSES.length])), 200);
+                // Someone clicking through the status toggle: no think time in between
+                for (int toggle = 1; toggle <= config.statusToggles() && !run.isFinished(); toggle++) {
+                    send(Operation.TOGGLE_STATUS, jsonRequest("/tasks/" + taskId, "PATCH",
+                            "{\"status\":\"" + STATUSES[(iteration + toggle) % STATUSES.length] + "\"}"), 200);
+                }
+                
+                think();
+                // Kept tasks make the lists grow over the run, as they do for real users
+                if (ThreadLocalRandom.current().nextDouble() >= config.keepRatio()) {
+                    send(Operation.DELETE_TASK, request("/tasks/" + taskId).DELETE(), 200);
+                }
+                iteration++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private boolean signUp() throws InterruptedException {
+        String body = String.format("{\"username\":\"%s\",\"email\":\"%s@loadgen.example\",\"password\":\"%s\"}",
+                username, username, config.password());
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS && !run.isFinished(); attempt++) {
+            if (send(Operation.SIGNUP, jsonRequest("/req/signup", "POST", body), 200) != null) {
+                return true;
+            }
+            backOff(attempt);
+        }
+        return false;
+    }
+    
+    private boolean logIn() throws InterruptedException {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS && !run.isFinished(); attempt++) {
+            if (tryLogIn()) {
+                return true;
+            }
+            backOff(attempt);
+        }
+        return false;
+    }
+    
+    private boolean tryLogIn() throws InterruptedException {
+        String form = "username=" + URLEncoder.encode(username, StandardCharsets.UTF_8)
+                + "&password=" + URLEncoder.encode(config.password(), StandardCharsets.UTF_8);
+        HttpRequest.Builder builder = request("/req/login")
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form));
+        
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+            String location = response.headers().firstValue("Location").orElse("");
+            boolean success = response.statusCode() == 302 && !location.contains("error");
+            if (success) {
+                rememberSessionCookie(response);
+            }
+            String outcome = response.statusCode() == 302 && !success ? "302 login error" : String.valueOf(response.statusCode());
+            record(Operation.LOGIN, start, outcome, success);
+            return success;
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            record(Operation.LOGIN, start, e.getClass().getSimpleName(), false);
+            return false;
+        }
+    }
+    
+    /**
+     * Returns the response if it had the expected status, otherwise records an error and returns null.
+     */
+    private HttpResponse<String> send(Operation operation, HttpRequest.Builder builder, int expectedStatus)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+            boolean success = response.statusCode() == expectedStatus;
+            record(operation, start, String.valueOf(response.statusCode()), success);
+            return success ? response : null;
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            record(operation, start, e.getClass().getSimpleName(), false);
+            return null;
+        }
+    }
+    
+    private void record(Operation operation, long startNanos, String outcome, boolean success) {
+        if (operation.isOneShot() || run.isRecording()) {
+            stats.get(operation).record((System.nanoTime() - startNanos) / 1000, outcome, success);
+        }
+    }
+    
+    private HttpRequest.Builder request(String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(config.baseUrl() + path))
+                .timeout(config.requestTimeout());
+        if (sessionCookie != null) {
+            builder.header("Cookie", sessionCookie);
+        }
+        return builder;
+    }
+    
+    private HttpRequest.Builder jsonRequest(String path, String method, String body) {
+        return request(path)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body));
+    }
+    
+    private void rememberSessionCookie(HttpResponse<?> response) {
+        for (String setCookie : response.headers().allValues("Set-Cookie")) {
+            if (setCookie.startsWith("JSESSIONID=")) {
+                sessionCookie = setCookie.substring(0, setCookie.indexOf(';') > 0 ? setCookie.indexOf(';') : setCookie.length());
+            }
+        }
+    }
+    
+    // Linear backoff with jitter, starting at the one second the app sends in Retry-After
+    private void backOff(int attempt) throws InterruptedException {
+        run.sleepUntilFinished(1000L * attempt + ThreadLocalRandom.current().nextLong(1000));
+    }
+    
+    private void think() throws InterruptedException {
+        long meanMillis = config.thinkTime().toMillis();
+        if (meanMillis <= 0) {
+            return;
+        }
+        double pause = -Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanMillis;
+        run.sleepUntilFinished((long) Math.min(pause, meanMillis * 10.0));
+    }
+    
+    private static String taskJson(String title, String status) {
+        return String.format("{\"shortDescription\":\"%s\",\"longDescription\":\"%s\",\"status\":\"%s\"}",
+                title, "Generated by the load generator. ".repeat(1 + ThreadLocalRandom.current().nextInt(8)), status);
+    }
+    
+    private static String extractId(String body) {
+        Matcher matcher = ID_PATTERN.matcher(body);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+}
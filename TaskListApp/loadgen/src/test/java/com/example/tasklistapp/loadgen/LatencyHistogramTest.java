@@ -0,0 +1,64 @@
+package com.example.tasklistapp.loadgen;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Latency Histogram Tests")
+class LatencyHistogramTest {
+    
+    @Test
+    @DisplayName("Should report percentiles within the bucket precision")
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 100_000; micros++) {
+            histogram.recordMicros(micros);
+        }
+        
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000, histogram.getMaxMicros());
+        assertEquals(50_000, histogram.getValueAtQuantile(0.5), 50_000 * 0.035);
+        assertEquals(99_000, histogram.getValueAtQuantile(0.99), 99_000 * 0.035);
+        assertTrue(histogram.getValueAtQuantile(0.99) >= 99_000, "percentiles must not be under-reported");
+        assertEquals(100_000, histogram.getValueAtQuantile(1.0));
+    }
+    
+    @Test
+    @DisplayName("Should map every value into a bucket whose upper bound covers it")
+    void testBucketBounds() {
+        for (long value : new long[] {0, 1, 31, 63, 64, 65, 127, 128, 1_000, 123_456, 10_000_000_000L}) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.upperBoundOf(index) >= value, "bucket too small for " + value);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.upperBoundOf(index - 1) < value, "bucket too large for " + value);
+            }
+        }
+    }
+    
+    @Test
+    @DisplayName("Should merge histograms")
+    void testAdd() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        first.recordMicros(1_000);
+        second.recordMicros(3_000);
+        
+        first.add(second);
+        
+        assertEquals(2, first.getCount());
+        assertEquals(2_000, first.getMeanMicros(), 0.001);
+        assertEquals(3_000, first.getMaxMicros());
+    }
+    
+    @Test
+    @DisplayName("Should parse durations with and without units")
+    void testParseDuration() {
+        assertEquals(Duration.ofMillis(250), LoadGenConfig.parseDuration("250ms"));
+        assertEquals(Duration.ofSeconds(30), LoadGenConfig.parseDuration("30s"));
+        assertEquals(Duration.ofMinutes(2), LoadGenConfig.parseDuration("2m"));
+        assertEquals(Duration.ofMillis(1500), LoadGenConfig.parseDuration("1.5"));
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.tasklistapp.Config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Registers CBOR ({@code application/cbor}) and Smile ({@code application/x-jackson-smile})
+ * message converters so API clients can negotiate a binary encoding of the same payloads.
+ * 
+ * The converters are built from Spring Boot's auto-configured {@link Jackson2ObjectMapperBuilder},
+ * so dates, enums and inclusion rules match the JSON representation exactly. Spring Boot swaps
+ * these beans in for the default converters of the same type, so JSON stays the default for
+ * clients that accept any media type.
+ */
+@Configuration
+public class BinaryFormatConfig {
+    
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+    
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.tasklistapp.Config;
+
+import com.example.tasklistapp.service.TaskIdCache;
+import com.example.tasklistapp.service.TaskListResponseCache;
+import com.example.tasklistapp.service.TaskSearchIndex;
+import com.example.tasklistapp.service.TaskSuggestIndex;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.spi.entry.CacheEntry;
+import org.hibernate.cache.spi.support.AbstractReadWriteAccess;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.FactoryBuilder;
+import java.io.Serializable;
+import java.net.URI;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache regions, backed by Caffeine (W-TinyLFU eviction) through JCache.
+ * Each region is bounded by an estimate of its heap size rather than an entry count, since a task
+ * with a long description costs far more than one without.
+ */
+@Configuration
+public class CacheConfig {
+    
+    static final String TASKS_REGION = "tasks";
+    static final String USERS_REGION = "users";
+    static final String USERNAMES_REGION = "users-by-username";
+    
+    @Value("${app.cache.tasks.max-size:64MB}")
+    private DataSize tasksMaxSize;
+    
+    @Value("${app.cache.users.max-size:8MB}")
+    private DataSize usersMaxSize;
+    
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        // A URI of its own per application context: tests run several contexts against different databases
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("tasklistapp-" + UUID.randomUUID()), getClass().getClassLoader());
+        cacheManager.createCache(TASKS_REGION, regionConfiguration(tasksMaxSize));
+        cacheManager.createCache(USERS_REGION, regionConfiguration(usersMaxSize));
+        cacheManager.createCache(USERNAMES_REGION, regionConfiguration(usersMaxSize));
+        return cacheManager;
+    }
+    
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+    }
+    
+    @Bean
+    public MeterBinder cacheMetrics(CacheManager hibernateCacheManager, TaskIdCache taskIdCache,
+                                    TaskListResponseCache taskListResponseCache, TaskSearchIndex taskSearchIndex,
+                                    TaskSuggestIndex taskSuggestIndex) {
+        return registry -> {
+            for (String region : new String[]{TASKS_REGION, USERS_REGION, USERNAMES_REGION}) {
+                bind(registry, region, hibernateCacheManager.getCache(region).unwrap(Cache.class));
+            }
+            bind(registry, "task-ids", taskIdCache.getCache());
+            bind(registry, "task-list-responses", taskListResponseCache.getCache());
+            bind(registry, "task-search-index", taskSearchIndex.getCache());
+            bind(registry, "task-suggest-index", taskSuggestIndex.getCache());
+        };
+    }
+    
+    // Hits, misses, puts, evictions and size from Caffeine, plus the ratio, the estimated heap size and its budget
+    private static void bind(MeterRegistry registry, String name, Cache<?, ?> cache) {
+        CaffeineCacheMetrics.monitor(registry, cache, name);
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of lookups served from the cache since startup")
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.memory", cache, c -> c.policy().eviction()
+                        .map(eviction -> eviction.weightedSize().orElse(0))
+                        .orElse(0L))
+                .description("Estimated heap used by the cached entries")
+                .baseUnit("bytes")
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.memory.max", cache, c -> c.policy().eviction()
+                        .map(eviction -> eviction.getMaximum())
+                        .orElse(0L))
+                .description("Heap budget the cache is evicted down to")
+                .baseUnit("bytes")
+                .tag("cache", name)
+                .register(registry);
+    }
+    
+    private static CaffeineConfiguration<Object, Object> regionConfiguration(DataSize maxSize) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumWeight(OptionalLong.of(maxSize.toBytes()));
+        configuration.setWeigherFactory(Optional.of(FactoryBuilder.factoryOf(new EntryWeigher())));
+        // Hibernate caches disassembled state and never mutates it, so copying on every access buys nothing
+        configuration.setStoreByValue(false);
+        configuration.setNativeStatisticsEnabled(true);
+        return configuration;
+    }
+    
+    /**
+     * Estimates an entry's heap size from the strings and byte arrays in its cached state. Coarse, but
+     * it tracks description length, which is what makes one task entry cost more than another.
+     */
+    static final class EntryWeigher implements Weigher<Object, Object>, Serializable {
+        
+        private static final int ENTRY_BYTES = 128;
+        private static final int STRING_BYTES = 40;
+        private static final int VALUE_BYTES = 16;
+        
+        @Override
+        public int weigh(Object key, Object value) {
+            Object entry = value instanceof AbstractReadWriteAccess.Item item ? item.getValue() : value;
+            if (!(entry instanceof CacheEntry cacheEntry)) {
+                return ENTRY_BYTES;
+            }
+            int bytes = ENTRY_BYTES;
+            for (Serializable field : cacheEntry.getDisassembledState()) {
+                bytes += field instanceof String text ? STRING_BYTES + text.length()
+                        : field instanceof byte[] array ? STRING_BYTES + array.length : VALUE_BYTES;
+            }
+            return bytes;
+        }
+    }
+}
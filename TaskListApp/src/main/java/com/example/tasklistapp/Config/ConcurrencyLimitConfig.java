@@ -0,0 +1,87 @@
+package com.example.tasklistapp.Config;
+
+import com.example.tasklistapp.filter.AdaptiveConcurrencyLimit;
+import com.example.tasklistapp.filter.ConcurrencyLimitFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+@ConditionalOnProperty(prefix = "app.concurrency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+    
+    @Bean
+    public AdaptiveConcurrencyLimit taskConcurrencyLimit(ConcurrencyLimitProperties properties) {
+        return createLimit(properties.getTasks());
+    }
+    
+    @Bean
+    public AdaptiveConcurrencyLimit searchConcurrencyLimit(ConcurrencyLimitProperties properties) {
+        return createLimit(properties.getSearch());
+    }
+    
+    @Bean
+    public AdaptiveConcurrencyLimit authConcurrencyLimit(ConcurrencyLimitProperties properties) {
+        return createLimit(properties.getAuth());
+    }
+    
+    @Bean
+    public AdaptiveConcurrencyLimit staticConcurrencyLimit(ConcurrencyLimitProperties properties) {
+        return createLimit(properties.getStaticResources());
+    }
+    
+    /**
+     * Registered ahead of the Spring Security filter chain so excess requests are shed
+     * before any session lookup or authentication work is done for them.
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            AdaptiveConcurrencyLimit taskConcurrencyLimit,
+            AdaptiveConcurrencyLimit searchConcurrencyLimit,
+            AdaptiveConcurrencyLimit authConcurrencyLimit,
+            AdaptiveConcurrencyLimit staticConcurrencyLimit,
+            ConcurrencyLimitProperties properties,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        
+        Map.of("tasks", taskConcurrencyLimit, "search", searchConcurrencyLimit, "auth", authConcurrencyLimit,
+                        "static", staticConcurrencyLimit)
+                .forEach((group, limit) -> bindMetrics(meterRegistry, group, limit));
+        
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(taskConcurrencyLimit, searchConcurrencyLimit,
+                authConcurrencyLimit, staticConcurrencyLimit, properties.getRetryAfterSeconds(), objectMapper);
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 10);
+        return registration;
+    }
+    
+    private AdaptiveConcurrencyLimit createLimit(ConcurrencyLimitProperties.Group group) {
+        return new AdaptiveConcurrencyLimit(group.getInitialLimit(), group.getMinLimit(), group.getMaxLimit(),
+                group.getLatencyThreshold().toNanos(), group.getBackoffRatio());
+    }
+    
+    private void bindMetrics(MeterRegistry registry, String group, AdaptiveConcurrencyLimit limit) {
+        Gauge.builder("http.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current adaptive concurrency limit")
+                .tag("group", group)
+                .register(registry);
+        Gauge.builder("http.concurrency.inflight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Requests currently holding a concurrency slot")
+                .tag("group", group)
+                .register(registry);
+        FunctionCounter.builder("http.concurrency.rejected", limit, AdaptiveConcurrencyLimit::getRejected)
+                .description("Requests shed with 503 because the concurrency limit was reached")
+                .tag("group", group)
+                .register(registry);
+    }
+}
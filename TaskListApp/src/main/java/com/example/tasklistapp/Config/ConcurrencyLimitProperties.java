@@ -0,0 +1,49 @@
+package com.example.tasklistapp.Config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the adaptive concurrency limits applied by
+ * {@link com.example.tasklistapp.filter.ConcurrencyLimitFilter}.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.concurrency")
+public class ConcurrencyLimitProperties {
+    
+    private boolean enabled = true;
+    
+    private long retryAfterSeconds = 1;
+    
+    private Group tasks = new Group(20, 4, 200, Duration.ofMillis(250));
+    
+    // Search and suggestions may wait for an index build (app.cache.*-index.build-wait) before answering
+    private Group search = new Group(10, 2, 100, Duration.ofSeconds(1));
+    
+    // BCrypt makes login and signup slow by design, so the threshold is much higher
+    private Group auth = new Group(8, 2, 64, Duration.ofSeconds(1));
+    
+    private Group staticResources = new Group(50, 10, 500, Duration.ofMillis(100));
+    
+    @Data
+    public static class Group {
+        
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+        private Duration latencyThreshold;
+        private double backoffRatio = 0.9;
+        
+        public Group() {
+        }
+        
+        public Group(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.latencyThreshold = latencyThreshold;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.tasklistapp.Config;
+
+import com.example.tasklistapp.Model.MyAppUser;
+import com.example.tasklistapp.Model.MyAppUserRepository;
+import com.example.tasklistapp.Model.Task;
+import com.example.tasklistapp.service.TaskBatchWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fills the database with synthetic users and tasks for benchmarking. Only active with the
+ * {@code seed} profile; see application-seed.yml for the knobs.
+ * <p>
+ * Tasks per user follow a Zipf distribution over the user index, so {@code seed-user-0} owns the
+ * most tasks and the tail owns a handful each. Generation is deterministic for a given random seed.
+ */
+@Slf4j
+@Component
+@Profile("seed")
+public class DataSeeder implements CommandLineRunner {
+    
+    private static final String[] VERBS = {"Review", "Fix", "Write", "Plan", "Update", "Call", "Prepare",
+            "Clean up", "Schedule", "Test", "Refactor", "Order", "Book", "Draft", "Check"};
+    private static final String[] NOUNS = {"quarterly report", "login bug", "release notes", "team offsite",
+            "invoice", "dentist appointment", "onboarding docs", "backup script", "grocery list", "budget",
+            "pull request", "conference talk", "garage", "database migration", "travel plans"};
+    private static final String[] WORDS = ("the a to and of for with on before after this that it we need "
+            + "should check make sure customer deadline meeting notes draft follow up review budget team "
+            + "ticket estimate data report update email call schedule friday monday next week owner "
+            + "blocked waiting feedback priority small large change fix test deploy release plan").split(" ");
+    private static final int MAX_DESCRIPTION_LENGTH = 2000;
+    
+    @Autowired
+    private MyAppUserRepository userRepository;
+    
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    
+    @Autowired
+    private TaskBatchWriter taskBatchWriter;
+    
+    @Value("${app.seed.users:1000}")
+    private int userCount;
+    
+    @Value("${app.seed.tasks:100000}")
+    private int taskCount;
+    
+    @Value("${app.seed.zipf-exponent:1.0}")
+    private double zipfExponent;
+    
+    @Value("${app.seed.batch-size:1000}")
+    private int batchSize;
+    
+    @Value("${app.seed.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int threads;
+    
+    @Value("${app.seed.username-prefix:seed-user-}")
+    private String usernamePrefix;
+    
+    @Value("${app.seed.password:password}")
+    private String password;
+    
+    @Value("${app.seed.random-seed:42}")
+    private long randomSeed;
+    
+    @Override
+    public void run(String... args) throws Exception {
+        if (userRepository.findByUsername(usernamePrefix + 0).isPresent()) {
+            log.info("Seed data already present, skipping");
+            return;
+        }
+        long start = System.nanoTime();
+        List<Long> userIds = insertUsers();
+        long usersDone = System.nanoTime();
+        insertTasks(userIds, taskCounts(userCount, taskCount, zipfExponent));
+        long tasksDone = System.nanoTime();
+        
+        log.info("Seeded {} users in {} ms and {} tasks in {} ms ({} tasks/s)",
+                userCount, (usersDone - start) / 1_000_000,
+                taskCount, (tasksDone - usersDone) / 1_000_000,
+                Math.round(taskCount / ((tasksDone - usersDone) / 1e9)));
+    }
+    
+    private List<Long> insertUsers() {
+        // BCrypt is deliberately slow; every seed user shares one hash
+        String passwordHash = passwordEncoder.encode(password);
+        List<Long> ids = new ArrayList<>(userCount);
+        List<MyAppUser> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < userCount; i++) {
+            MyAppUser user = new MyAppUser();
+            user.setUsername(usernamePrefix + i);
+            user.setEmail(usernamePrefix + i + "@seed.local");
+            user.setPassword(passwordHash);
+            user.setVerified(true);
+            batch.add(user);
+            if (batch.size() == batchSize || i == userCount - 1) {
+                // Through JPA so the ids come from the same sequence Hibernate allocates from later
+                userRepository.saveAll(batch).forEach(saved -> ids.add(saved.getId()));
+                batch.clear();
+            }
+        }
+        return ids;
+    }
+    
+    /**
+     * Splits {@code total} tasks over {@code users} users with weights {@code 1 / (rank + 1)^exponent},
+     * handing the rounding remainder to the heaviest users so the counts add up exactly.
+     */
+    static int[] taskCounts(int users, int total, double exponent) {
+        double[] weights = new double[users];
+        double weightSum = 0;
+        for (int i = 0; i < users; i++) {
+            weights[i] = 1 / Math.pow(i + 1, exponent);
+            weightSum += weights[i];
+        }
+        int[] counts = new int[users];
+        int assigned = 0;
+        for (int i = 0; i < users; i++) {
+            counts[i] = (int) (total * weights[i] / weightSum);
+            assigned += counts[i];
+        }
+        for (int i = 0; assigned < total; i = (i + 1) % users) {
+            counts[i]++;
+            assigned++;
+        }
+        return counts;
+    }
+    
+    private void insertTasks(List<Long> userIds, int[] counts) throws Exception {
+        // Work items are slices of one user's tasks, so the heavy head of the distribution is spread over all workers
+        int sliceSize = batchSize * 10;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int user = 0; user < counts.length; user++) {
+                for (int slice = 0; slice * sliceSize < counts[user]; slice++) {
+                    int rows = Math.min(sliceSize, counts[user] - slice * sliceSize);
+                    // One generator per slice keeps the output independent of thread scheduling
+                    Random random = new Random(randomSeed * 31 + user * 1_000_003L + slice);
+                    Long userId = userIds.get(user);
+                    futures.add(executor.submit(() -> insertTasks(userId, rows, random)));
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    private void insertTasks(Long userId, int rows, Random random) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<Task> batch = new ArrayList<>(Math.min(batchSize, rows));
+        for (int n = 0; n < rows; n++) {
+            batch.add(randomTask(random, now));
+            if (batch.size() == batchSize || n == rows - 1) {
+                taskBatchWriter.insert(userId, batch);
+                batch.clear();
+            }
+        }
+    }
+    
+    private static Task randomTask(Random random, LocalDateTime now) {
+        Task task = new Task();
+        task.setShortDescription(VERBS[random.nextInt(VERBS.length)] + " " + NOUNS[random.nextInt(NOUNS.length)]);
+        task.setLongDescription(randomDescription(random));
+        task.setStatus(Task.TaskStatus.values()[random.nextInt(Task.TaskStatus.values().length)]);
+        LocalDateTime createdAt = now.minusSeconds(random.nextInt(365 * 24 * 3600)).minusNanos(random.nextInt(1_000_000) * 1000L);
+        LocalDateTime updatedAt = createdAt.plusSeconds(random.nextInt(30 * 24 * 3600));
+        task.setCreatedAt(createdAt);
+        task.setUpdatedAt(updatedAt.isAfter(now) ? now : updatedAt);
+        return task;
+    }
+    
+    // Roughly a quarter without a description, most a sentence or two, and a long tail up to the cap
+    private static String randomDescription(Random random) {
+        if (random.nextInt(4) == 0) {
+            return null;
+        }
+        int length = (int) Math.min(MAX_DESCRIPTION_LENGTH, Math.exp(4.5 + random.nextGaussian()));
+        StringBuilder description = new StringBuilder(length + 16);
+        while (description.length() < length) {
+            if (!description.isEmpty()) {
+                description.append(' ');
+            }
+            description.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        description.setLength(Math.min(description.length(), MAX_DESCRIPTION_LENGTH));
+        return description.toString();
+    }
+}
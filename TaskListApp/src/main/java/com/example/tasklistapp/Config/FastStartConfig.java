@@ -0,0 +1,26 @@
+package com.example.tasklistapp.Config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+
+@Configuration
+@Profile("faststart")
+public class FastStartConfig {
+    
+    /**
+     * Keeps controllers, and through them the services and repositories they need, eager under
+     * lazy initialization, so the first request does not pay for building them. Everything else
+     * (actuator endpoints, metrics binders, SSE dispatcher) is created on first use.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter requestPathExcludeFilter() {
+        return (beanName, beanDefinition, beanType) ->
+                AnnotatedElementUtils.hasAnnotation(beanType, Controller.class)
+                        || AnnotatedElementUtils.hasAnnotation(beanType, ControllerAdvice.class);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.tasklistapp.Config;
+
+import com.example.tasklistapp.service.TaskService;
+import com.example.tasklistapp.service.TaskWriteBehind;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+    
+    /**
+     * Enables {@code @Timed} on service methods. Timers are tagged by class, method and exception
+     * only, so cardinality does not grow with users or tasks.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+    
+    @Bean
+    public MeterBinder taskReadCoalescingMetrics(TaskService taskService) {
+        return registry -> {
+            FunctionCounter.builder("tasks.reads", taskService, TaskService::getTaskListReadExecutions)
+                    .description("Task list reads by whether they ran a query or joined one already in flight")
+                    .tag("result", "executed")
+                    .register(registry);
+            FunctionCounter.builder("tasks.reads", taskService, TaskService::getTaskListReadJoins)
+                    .description("Task list reads by whether they ran a query or joined one already in flight")
+                    .tag("result", "coalesced")
+                    .register(registry);
+            Gauge.builder("tasks.reads.coalescing.ratio", taskService, TaskService::getTaskListReadCoalescingRatio)
+                    .description("Share of task list reads served by an in-flight query")
+                    .register(registry);
+        };
+    }
+    
+    @Bean
+    public MeterBinder taskWriteBehindMetrics(TaskWriteBehind writeBehind) {
+        return registry -> {
+            FunctionCounter.builder("tasks.write.behind.updates", writeBehind, TaskWriteBehind::getBufferedCount)
+                    .description("Task updates accepted into the write-behind buffer")
+                    .register(registry);
+            FunctionCounter.builder("tasks.write.behind.coalesced", writeBehind, TaskWriteBehind::getCoalescedCount)
+                    .description("Buffered task updates replaced by a later update before they were written")
+                    .register(registry);
+            FunctionCounter.builder("tasks.write.behind.written", writeBehind, TaskWriteBehind::getWrittenCount)
+                    .description("Task rows written by write-behind flushes")
+                    .register(registry);
+            FunctionCounter.builder("tasks.write.behind.flushes", writeBehind, TaskWriteBehind::getFlushCount)
+                    .description("Write-behind flush transactions")
+                    .register(registry);
+            Gauge.builder("tasks.write.behind.pending", writeBehind, TaskWriteBehind::getPendingCount)
+                    .description("Task updates buffered and not yet written")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.tasklistapp.Config;
+
+import com.example.tasklistapp.filter.RepositoryTimingListener;
+import com.example.tasklistapp.filter.ServerTimingFilter;
+import com.example.tasklistapp.filter.ServerTimingInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "app.timing", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ServerTimingConfig implements WebMvcConfigurer {
+    
+    @Value("${app.timing.slow-request-threshold:1s}")
+    private Duration slowRequestThreshold;
+    
+    @Value("${app.timing.response-buffer:64KB}")
+    private DataSize responseBuffer;
+    
+    /**
+     * Registered outside the concurrency limit and Spring Security so both count towards {@code auth}.
+     */
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter() {
+        FilterRegistrationBean<ServerTimingFilter> registration = new FilterRegistrationBean<>(
+                new ServerTimingFilter(slowRequestThreshold.toNanos(), (int) responseBuffer.toBytes()));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 20);
+        return registration;
+    }
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ServerTimingInterceptor());
+    }
+    
+    @Bean
+    public static BeanPostProcessor repositoryTimingListenerPostProcessor() {
+        RepositoryTimingListener listener = new RepositoryTimingListener();
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(listener));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.tasklistapp.Config;
+
+import com.example.tasklistapp.jdbc.ProfilingDataSource;
+import com.example.tasklistapp.jdbc.RepositorySqlMetrics;
+import com.example.tasklistapp.jdbc.SqlStatementStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import javax.sql.DataSource;
+
+/**
+ * Replaces {@code show-sql} with statement counts, rows and timings: the pool is wrapped in a
+ * {@link ProfilingDataSource} and every repository gets a {@link RepositorySqlMetrics} advice.
+ * Commits and written rows are published application-wide, as most writes are flushed outside
+ * any repository call.
+ */
+@Configuration
+public class SqlProfilingConfig {
+    
+    @Bean
+    public static BeanPostProcessor sqlProfilingPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, information) -> proxyFactory.addAdvice(
+                                    new RepositorySqlMetrics(information.getRepositoryInterface(), meterRegistry::getObject))));
+                }
+                return bean;
+            }
+            
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProfilingDataSource)) {
+                    return new ProfilingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+    
+    @Bean
+    public MeterBinder sqlTransactionMetrics() {
+        return registry -> {
+            FunctionCounter.builder("sql.commits", SqlStatementStats.class, stats -> SqlStatementStats.getWriteCommits())
+                    .description("Committed JDBC transactions by whether they wrote any row")
+                    .tag("type", "write")
+                    .register(registry);
+            FunctionCounter.builder("sql.commits", SqlStatementStats.class,
+                            stats -> SqlStatementStats.getCommits() - SqlStatementStats.getWriteCommits())
+                    .description("Committed JDBC transactions by whether they wrote any row")
+                    .tag("type", "read")
+                    .register(registry);
+            FunctionCounter.builder("sql.rows.written", SqlStatementStats.class, stats -> SqlStatementStats.getRowsWritten())
+                    .description("Rows inserted, updated or deleted")
+                    .register(registry);
+        };
+    }
+}
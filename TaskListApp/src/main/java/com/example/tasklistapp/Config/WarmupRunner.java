@@ -0,0 +1,166 @@
+package com.example.tasklistapp.Config;
+
+import com.example.tasklistapp.Model.MyAppUserRepository;
+import com.example.tasklistapp.Model.TaskRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Drives the real HTTP stack (security, controllers, Jackson, validation, Hibernate) with a
+ * scratch user before the application reports ready. Runners complete before Spring Boot
+ * publishes {@code ACCEPTING_TRAFFIC}, so {@code /actuator/health/readiness} stays
+ * {@code OUT_OF_SERVICE} until the JIT has seen the hot paths. Liveness is up the whole time.
+ * <p>
+ * Skipped when there is no embedded server, e.g. in MockMvc tests. Failures are logged and never
+ * keep the node out of rotation.
+ */
+@Slf4j
+@Component
+public class WarmupRunner implements ApplicationRunner {
+    
+    private static final String USERNAME_PREFIX = "warmup-";
+    private static final String[] STATUSES = {"TODO", "IN_PROGRESS", "DONE"};
+    
+    @Autowired
+    private ApplicationContext applicationContext;
+    
+    @Autowired
+    private MyAppUserRepository userRepository;
+    
+    @Autowired
+    private TaskRepository taskRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${app.warmup.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.warmup.iterations:200}")
+    private int iterations;
+    
+    @Value("${app.warmup.max-duration:60s}")
+    private Duration maxDuration;
+    
+    private HttpClient client;
+    private String baseUrl;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled || !(applicationContext instanceof WebServerApplicationContext context)
+                || context.getWebServer() == null || context.getWebServer().getPort() <= 0) {
+            return;
+        }
+        baseUrl = "http://localhost:" + context.getWebServer().getPort();
+        client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        
+        String username = USERNAME_PREFIX + UUID.randomUUID().toString().substring(0, 8);
+        long start = System.nanoTime();
+        long deadline = start + maxDuration.toNanos();
+        int completed = 0;
+        try {
+            signUpAndLogIn(username);
+            while (completed < iterations && System.nanoTime() < deadline) {
+                runIteration(completed);
+                completed++;
+            }
+            log.info("Warm-up finished {} iterations in {} ms", completed, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Warm-up stopped after {} iterations: {}", completed, e.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            removeScratchUser(username);
+        }
+    }
+    
+    private void signUpAndLogIn(String username) throws IOException, InterruptedException {
+        String password = UUID.randomUUID().toString();
+        expect(200, send("POST", "/req/signup", Map.of(
+                "username", username, "email", username + "@warmup.local", "password", password)));
+        
+        String form = "username=" + URLEncoder.encode(username, StandardCharsets.UTF_8)
+                + "&password=" + URLEncoder.encode(password, StandardCharsets.UTF_8);
+        expect(302, client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/req/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build(), HttpResponse.BodyHandlers.ofString()));
+    }
+    
+    private void runIteration(int iteration) throws IOException, InterruptedException {
+        HttpResponse<String> created = expect(201, send("POST", "/tasks", Map.of(
+                "shortDescription", "Warm-up task " + iteration,
+                "longDescription", "Exercises the create, read, update and delete paths before readiness.",
+                "status", STATUSES[iteration % STATUSES.length])));
+        String id = objectMapper.readTree(created.body()).get("id").asText();
+        
+        expect(200, send("GET", "/tasks", null));
+        expect(200, send("GET", "/tasks/" + id, null));
+        expect(200, send("PUT", "/tasks/" + id, Map.of(
+                "shortDescription", "Warm-up task " + iteration + " (edited)",
+                "status", STATUSES[(iteration + 1) % STATUSES.length])));
+        expect(200, send("GET", "/tasks?after=" + id, null));
+        expect(200, send("GET", "/tasklist", null));
+        
+        // Error paths: bean validation and a missing task
+        expect(400, send("POST", "/req/signup", Map.of("username", "x", "email", "not-an-email", "password", "")));
+        expect(404, send("GET", "/tasks/" + UUID.randomUUID(), null));
+        
+        expect(200, send("DELETE", "/tasks/" + id, null));
+    }
+    
+    private HttpResponse<String> send(String method, String path, Map<String, String> body)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(10));
+        if (body == null) {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        } else {
+            request.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+    
+    private static HttpResponse<String> expect(int status, HttpResponse<String> response) {
+        if (response.statusCode() != status) {
+            throw new IllegalStateException(response.request().method() + " " + response.request().uri().getPath()
+                    + " returned " + response.statusCode() + ", expected " + status);
+        }
+        return response;
+    }
+    
+    private void removeScratchUser(String username) {
+        try {
+            userRepository.findByUsername(username).ifPresent(user -> {
+                taskRepository.deleteAllByUserId(user.getId());
+                userRepository.delete(user);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not remove warm-up user {}: {}", username, e.toString());
+        }
+    }
+}
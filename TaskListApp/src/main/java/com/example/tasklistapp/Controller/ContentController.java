@@ -1,15 +1,41 @@
 package com.example.tasklistapp.Controller;
 
+import com.example.tasklistapp.Model.MyAppUser;
+import com.example.tasklistapp.Model.MyAppUserRepository;
+import com.example.tasklistapp.dto.TaskSummary;
+import com.example.tasklistapp.exception.ResourceNotFoundException;
 import com.example.tasklistapp.exception.UnauthorizedException;
+import com.example.tasklistapp.filter.RequestTimings;
+import com.example.tasklistapp.service.TaskService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Controller
 public class ContentController {
     
+    @Autowired
+    private TaskService taskService;
+    
+    @Autowired
+    private MyAppUserRepository userRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${app.tasklist.first-page-size:50}")
+    private int firstPageSize;
+    
     @GetMapping("/req/login")
     public String login(){
         return "login";
@@ -21,7 +47,7 @@ public class ContentController {
     }
     
     @GetMapping("/tasklist")
-    public String tasklist(Model model){
+    public String tasklist(Model model) throws JsonProcessingException {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         
         if (authentication == null || !authentication.isAuthenticated()) {
@@ -29,8 +55,36 @@ public class ContentController {
         }
         
         String username = authentication.getName();
+        long userLookupStart = System.nanoTime();
+        MyAppUser user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+        RequestTimings.recordSince(RequestTimings.Phase.USER, userLookupStart);
+        
+        // Render the first page into the HTML so the grid paints without waiting for GET /tasks
+        List<TaskSummary> tasks = taskService.getFirstTasksForUser(user.getId(), firstPageSize).stream()
+                .map(TaskSummary::from)
+                .toList();
+        long total = tasks.size() < firstPageSize ? tasks.size() : taskService.countTasksForUser(user.getId());
+        
+        Map<String, Object> bootstrap = new LinkedHashMap<>();
+        bootstrap.put("tasks", tasks);
+        bootstrap.put("total", total);
+        
         model.addAttribute("username", username);
+        model.addAttribute("tasks", tasks);
+        model.addAttribute("tasksBootstrap", toScriptSafeJson(bootstrap));
         return "tasklist";
     }
     
+    /**
+     * Serializes the value for embedding in a script element; escaping the HTML-significant
+     * characters keeps user text such as "&lt;/script&gt;" from terminating the element.
+     */
+    private String toScriptSafeJson(Object value) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(value)
+                .replace("<", "\\u003c")
+                .replace(">", "\\u003e")
+                .replace("&", "\\u0026");
+    }
+    
 }
@@ -1,60 +1,214 @@
 package com.example.tasklistapp.Controller;
 
+import com.example.tasklistapp.Model.ArchivedTask;
 import com.example.tasklistapp.Model.MyAppUser;
 import com.example.tasklistapp.Model.MyAppUserRepository;
 import com.example.tasklistapp.Model.Task;
+import com.example.tasklistapp.dto.TaskPatch;
+import com.example.tasklistapp.dto.TaskSearchResults;
+import com.example.tasklistapp.exception.InvalidRequestException;
 import com.example.tasklistapp.exception.ResourceNotFoundException;
 import com.example.tasklistapp.exception.UnauthorizedException;
+import com.example.tasklistapp.filter.RequestTimings;
+import com.example.tasklistapp.service.TaskArchiver;
+import com.example.tasklistapp.service.TaskEventDispatcher;
+import com.example.tasklistapp.service.TaskListResponseCache;
 import com.example.tasklistapp.service.TaskService;
+import com.example.tasklistapp.service.TaskTransfer;
+import com.example.tasklistapp.service.VersionedTask;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 @Controller
 @RequestMapping("/tasks")
 public class TaskController {
     
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_RESULTS = 10_000;
+    private static final int MAX_SUGGESTIONS = 20;
+    private static final int MAX_PREFIX_LENGTH = 255;
+    private static final int MAX_ARCHIVE_PAGE_SIZE = 100;
+    
     @Autowired
     private TaskService taskService;
     
     @Autowired
     private MyAppUserRepository userRepository;
     
+    @Autowired
+    private TaskEventDispatcher taskEventDispatcher;
+    
+    @Autowired
+    private TaskListResponseCache taskListResponseCache;
+    
+    @Autowired
+    private TaskTransfer taskTransfer;
+    
+    @Autowired
+    private TaskArchiver taskArchiver;
+    
     private MyAppUser getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+        long start = System.nanoTime();
+        try {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            String username = authentication.getName();
+            return userRepository.findByUsername(username)
+                    .orElseThrow(() -> new ResourceNotFoundException("User", "username", username));
+        } finally {
+            RequestTimings.recordSince(RequestTimings.Phase.USER, start);
+        }
     }
     
+    /**
+     * Served from {@link TaskListResponseCache} as encoded bytes for JSON, CBOR and Smile, so
+     * a repeated read touches no task at all; other media types go through the converters.
+     */
     @GetMapping
     @ResponseBody
-    public ResponseEntity<List<Task>> getAllTasks() {
+    public ResponseEntity<?> getAllTasks(@RequestParam(value = "after", required = false) String after,
+                                         @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                         @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        MyAppUser currentUser = getCurrentUser();
+        Supplier<List<Task>> tasks = () -> after == null
+                ? taskService.getAllTasksForUser(currentUser.getId())
+                : taskService.getTasksAfter(after, currentUser.getId());
+        
+        Optional<TaskListResponseCache.Shape> shape = taskListResponseCache.shapeFor(after, accept, acceptEncoding);
+        if (shape.isEmpty()) {
+            return ResponseEntity.ok(tasks.get());
+        }
+        TaskListResponseCache.Body body = taskListResponseCache.get(currentUser.getId(), shape.get(), tasks);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(shape.get().mediaType())
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (body.gzipped()) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body.bytes());
+    }
+    
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ResponseBody
+    public SseEmitter streamTaskEvents(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        MyAppUser currentUser = getCurrentUser();
+        return taskEventDispatcher.subscribe(currentUser.getId(), lastEventId);
+    }
+    
+    /**
+     * Full-text search over titles and descriptions: the tasks containing every word of {@code q},
+     * best match first, {@code size} per page.
+     */
+    @GetMapping("/search")
+    @ResponseBody
+    public ResponseEntity<TaskSearchResults> searchTasks(@RequestParam("q") String query,
+                                                         @RequestParam(value = "page", defaultValue = "0") int page,
+                                                         @RequestParam(value = "size", defaultValue = "20") int size) {
+        if (query.isBlank()) {
+            throw new InvalidRequestException("The search query must not be empty");
+        }
+        if (size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            throw new InvalidRequestException("The page size must be between 1 and " + MAX_SEARCH_PAGE_SIZE);
+        }
+        if (page < 0 || (long) (page + 1) * size > MAX_SEARCH_RESULTS) {
+            throw new InvalidRequestException("Only the first " + MAX_SEARCH_RESULTS + " matches can be paged through");
+        }
+        MyAppUser currentUser = getCurrentUser();
+        return ResponseEntity.ok(taskService.searchTasks(currentUser.getId(), query, page, size));
+    }
+    
+    /**
+     * Type-ahead: up to {@code limit} distinct titles of the user's tasks with a word starting with
+     * {@code prefix}, served from memory.
+     */
+    @GetMapping("/suggest")
+    @ResponseBody
+    public ResponseEntity<List<String>> suggestTitles(@RequestParam("prefix") String prefix,
+                                                      @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        if (prefix.isBlank() || prefix.length() > MAX_PREFIX_LENGTH) {
+            throw new InvalidRequestException("The prefix must have between 1 and " + MAX_PREFIX_LENGTH + " characters");
+        }
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new InvalidRequestException("The limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        MyAppUser currentUser = getCurrentUser();
+        return ResponseEntity.ok(taskService.suggestTitles(currentUser.getId(), prefix, limit));
+    }
+    
+    /**
+     * The user's archived tasks, the most recently completed first, {@code size} per page.
+     */
+    @GetMapping("/archive")
+    @ResponseBody
+    public ResponseEntity<List<ArchivedTask>> getArchivedTasks(@RequestParam(value = "page", defaultValue = "0") int page,
+                                                               @RequestParam(value = "size", defaultValue = "50") int size) {
+        if (page < 0 || size < 1 || size > MAX_ARCHIVE_PAGE_SIZE) {
+            throw new InvalidRequestException("The page must not be negative and the page size must be between 1 and "
+                    + MAX_ARCHIVE_PAGE_SIZE);
+        }
+        MyAppUser currentUser = getCurrentUser();
+        return ResponseEntity.ok(taskArchiver.getArchivedTasks(currentUser.getId(), page, size));
+    }
+    
+    /**
+     * Streams all of the user's tasks as NDJSON, one task per line in list order, as the response
+     * is written rather than after loading them.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportTasks(HttpServletResponse response) throws IOException {
+        MyAppUser currentUser = getCurrentUser();
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("tasks.ndjson").build().toString());
+        taskTransfer.export(currentUser.getId(), response.getOutputStream());
+    }
+    
+    /**
+     * Adds the tasks in an NDJSON body, such as an export, as new tasks. If a line is invalid, the
+     * tasks before it are imported and the error says how many.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<Map<String, Long>> importTasks(InputStream body) throws IOException {
         MyAppUser currentUser = getCurrentUser();
-        List<Task> tasks = taskService.getAllTasksForUser(currentUser.getId());
-        return ResponseEntity.ok(tasks);
+        long imported = taskTransfer.importTasks(currentUser.getId(), body);
+        return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("imported", imported));
     }
     
+    /**
+     * The ETag is the task's version tag, to be sent back in {@code If-Match} by a later
+     * {@code PUT} or {@code PATCH} that should only apply to this version.
+     */
     @GetMapping("/{id}")
     @ResponseBody
     public ResponseEntity<Task> getTaskById(@PathVariable String id) {
         MyAppUser currentUser = getCurrentUser();
-        Task task = taskService.getTaskById(id)
+        VersionedTask task = taskService.getVersionedTaskById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Task", "id", id));
         
         if (!taskService.isTaskOwnedByUser(id, currentUser.getId())) {
             throw new UnauthorizedException("You are not authorized to access this task");
         }
         
-        return ResponseEntity.ok(task);
+        return versioned(task);
     }
     
     @PostMapping
@@ -67,10 +221,66 @@ public class TaskController {
     
     @PutMapping("/{id}")
     @ResponseBody
-    public ResponseEntity<Task> updateTask(@PathVariable String id, @RequestBody Task task) {
+    public ResponseEntity<Task> updateTask(@PathVariable String id, @RequestBody Task task,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        MyAppUser currentUser = getCurrentUser();
+        return versioned(taskService.updateTask(id, task, currentUser.getId(), expectedVersions(ifMatch)));
+    }
+    
+    /**
+     * Changes only the fields present in the body ({@code application/json} or
+     * {@code application/merge-patch+json}), so toggling the status neither sends nor rewrites the
+     * description.
+     */
+    @PatchMapping("/{id}")
+    @ResponseBody
+    public ResponseEntity<Task> patchTask(@PathVariable String id, @RequestBody TaskPatch patch,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        MyAppUser currentUser = getCurrentUser();
+        return versioned(taskService.patchTask(id, patch, currentUser.getId(), expectedVersions(ifMatch)));
+    }
+    
+    private static ResponseEntity<Task> versioned(VersionedTask task) {
+        return ResponseEntity.ok().eTag(task.versionTag()).body(task.task());
+    }
+    
+    // The strong tags listed in If-Match; null for none or "*", which any existing task matches
+    private static List<String> expectedVersions(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        // Weak tags never match in If-Match, and an empty list fails the precondition
+        return Arrays.stream(ifMatch.split(","))
+                .map(String::trim)
+                .filter(tag -> tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\""))
+                .map(tag -> tag.substring(1, tag.length() - 1))
+                .toList();
+    }
+    
+    /**
+     * Moves all of the user's tasks with the given status to the one in the body, e.g.
+     * {@code PATCH /tasks?status=IN_PROGRESS} with {@code {"status":"DONE"}}, in one statement.
+     */
+    @PatchMapping(params = "status")
+    @ResponseBody
+    public ResponseEntity<Map<String, Integer>> patchTasksByStatus(@RequestParam Task.TaskStatus status,
+                                                                   @RequestBody TaskPatch patch) {
+        if (!patch.hasStatus() || patch.getStatus() == null || patch.hasShortDescription() || patch.hasLongDescription()) {
+            throw new InvalidRequestException("Only the status can be changed for several tasks at once");
+        }
+        MyAppUser currentUser = getCurrentUser();
+        int updated = taskService.updateStatusForUser(currentUser.getId(), status, patch.getStatus());
+        return ResponseEntity.ok(Map.of("updated", updated));
+    }
+    
+    /**
+     * Deletes all of the user's tasks with the given status in one statement.
+     */
+    @DeleteMapping(params = "status")
+    @ResponseBody
+    public ResponseEntity<Map<String, Integer>> deleteTasksByStatus(@RequestParam Task.TaskStatus status) {
         MyAppUser currentUser = getCurrentUser();
-        Task updatedTask = taskService.updateTask(id, task, currentUser.getId());
-        return ResponseEntity.ok(updatedTask);
+        return ResponseEntity.ok(Map.of("deleted", taskService.deleteTasksByStatus(currentUser.getId(), status)));
     }
     
     @DeleteMapping("/{id}")
@@ -83,4 +293,14 @@ public class TaskController {
         response.put("message", "Task deleted successfully");
         return ResponseEntity.ok(response);
     }
+    
+    /**
+     * Brings back a task deleted within the undo window ({@code app.soft-delete.undo-window}).
+     */
+    @PostMapping("/{id}/restore")
+    @ResponseBody
+    public ResponseEntity<Task> restoreTask(@PathVariable String id) {
+        MyAppUser currentUser = getCurrentUser();
+        return versioned(taskService.restoreTask(id, currentUser.getId()));
+    }
 }
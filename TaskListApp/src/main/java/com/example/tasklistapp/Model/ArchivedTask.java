@@ -0,0 +1,82 @@
+package com.example.tasklistapp.Model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * A completed task moved out of {@code tasks} by the archival job. The archive is read-only and
+ * only ever paged through by user, newest first, so it has just the one index for that besides the
+ * primary key, no foreign key, and the description is stored compressed.
+ */
+@Entity
+@Immutable
+@Table(name = "archived_tasks",
+        indexes = @Index(name = "idx_archived_tasks_user_updated", columnList = "user_id, updated_at"))
+public class ArchivedTask {
+    
+    @Id
+    private String id;
+    
+    @JsonIgnore
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+    
+    @Column(nullable = false)
+    private String shortDescription;
+    
+    // Decompressed on each read, see getLongDescription
+    @JsonIgnore
+    @Lob
+    @Column(name = "long_description")
+    private byte[] compressedLongDescription;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    // When the task was completed, or last changed after that
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+    
+    public String getId() {
+        return id;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public String getShortDescription() {
+        return shortDescription;
+    }
+    
+    public String getLongDescription() {
+        return CompressedText.decompress(compressedLongDescription);
+    }
+    
+    public byte[] getCompressedLongDescription() {
+        return compressedLongDescription;
+    }
+    
+    // Only completed tasks are archived
+    public Task.TaskStatus getStatus() {
+        return Task.TaskStatus.DONE;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.tasklistapp.Model;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ArchivedTaskRepository extends JpaRepository<ArchivedTask, String> {
+    
+    List<ArchivedTask> findByUserIdOrderByUpdatedAtDescIdDesc(Long userId, Pageable pageable);
+    
+    long countByUserId(Long userId);
+}
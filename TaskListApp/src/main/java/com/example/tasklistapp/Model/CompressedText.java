@@ -0,0 +1,81 @@
+package com.example.tasklistapp.Model;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Deflate-compressed UTF-8 text, for descriptions that are stored but rarely read in full.
+ */
+public final class CompressedText {
+    
+    private CompressedText() {
+    }
+    
+    public static byte[] compress(String text) {
+        if (text == null) {
+            return null;
+        }
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(text.getBytes(StandardCharsets.UTF_8));
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(16, text.length() / 2));
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+    
+    /**
+     * The compressed form of {@code text} if it has at least {@code minLength} characters and
+     * compresses to fewer bytes than it has characters, otherwise null.
+     */
+    public static byte[] compressIfSmaller(String text, int minLength) {
+        if (text == null || text.length() < minLength) {
+            return null;
+        }
+        byte[] compressed = compress(text);
+        return compressed.length < text.length() ? compressed : null;
+    }
+    
+    public static String decompress(byte[] compressed) {
+        return decompress(compressed, Integer.MAX_VALUE);
+    }
+    
+    /**
+     * At most the first {@code maxLength} characters of the text, inflating little more of it than that.
+     */
+    public static String decompress(byte[] compressed, int maxLength) {
+        if (compressed == null) {
+            return null;
+        }
+        // A character takes at most four bytes, and the last one read may be cut short
+        long maxBytes = maxLength * 4L + 3;
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(compressed.length * 3L, maxBytes));
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished() && out.size() < maxBytes) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalStateException("Truncated compressed text");
+                }
+                out.write(buffer, 0, inflated);
+            }
+            String text = out.toString(StandardCharsets.UTF_8);
+            return text.length() > maxLength ? text.substring(0, maxLength) : text;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt compressed text", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -1,13 +1,9 @@
 package com.example.tasklistapp.Model;
 
-import java.util.Optional;
-
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface MyAppUserRepository extends JpaRepository<MyAppUser, Long>{
+public interface MyAppUserRepository extends JpaRepository<MyAppUser, Long>, MyAppUserRepositoryCustom {
     
-    Optional<MyAppUser> findByUsername(String username);
-        
 }
@@ -0,0 +1,12 @@
+package com.example.tasklistapp.Model;
+
+import java.util.Optional;
+
+public interface MyAppUserRepositoryCustom {
+    
+    /**
+     * Resolves the user through the natural-id cache instead of a query, so the lookup every
+     * authenticated request does is served from memory once the user has been seen.
+     */
+    Optional<MyAppUser> findByUsername(String username);
+}
@@ -1,27 +1,56 @@
 package com.example.tasklistapp.Model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.UUID;
 
+/**
+ * Updates are written with only the columns that changed, so a status change leaves the
+ * description alone, and are checked against {@link #getVersion() the version} they were read at.
+ * Deleting a task only sets {@link #getDeletedAt() deletedAt}; every query leaves such rows out,
+ * through the index on it, until {@code TaskPurger} removes them.
+ * <p>
+ * A long description of at least {@link #COMPRESSION_MIN_LENGTH} characters is stored compressed in
+ * {@code compressed_long_description} instead of {@code long_description}, and only inflated when read.
+ */
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = @Index(name = "idx_tasks_deleted_user", columnList = "deleted_at, user_id"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tasks")
+@DynamicUpdate
 public class Task {
     
+    public static final int COMPRESSION_MIN_LENGTH = 1024;
+    
     @Id
     private String id;
     
     @Column(nullable = false)
     private String shortDescription;
     
+    // At most one of the two is set, see setLongDescription
     @Lob
     @Column(columnDefinition = "TEXT")
     private String longDescription;
     
+    @JsonIgnore
+    @Lob
+    private byte[] compressedLongDescription;
+    
+    // The text last inflated, kept for as long as it is still the text of compressedLongDescription
+    @Transient
+    private Inflated inflated;
+    
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private TaskStatus status;
     
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private MyAppUser user;
@@ -32,16 +61,36 @@ public class Task {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
     
+    @JsonIgnore
+    private LocalDateTime deletedAt;
+    
+    // Sent as the ETag rather than in the body, and never taken from a request body
+    @JsonIgnore
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     public Task() {
         this.id = UUID.randomUUID().toString();
         this.status = TaskStatus.TODO;
-        this.createdAt = LocalDateTime.now();
-        this.updatedAt = LocalDateTime.now();
+        this.createdAt = now();
+        this.updatedAt = this.createdAt;
+    }
+    
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = this.createdAt.truncatedTo(ChronoUnit.MICROS);
+        this.updatedAt = this.updatedAt.truncatedTo(ChronoUnit.MICROS);
     }
     
     @PreUpdate
     protected void onUpdate() {
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = now();
+    }
+    
+    // Match the column precision so in-memory timestamps compare equal to the stored ones
+    private static LocalDateTime now() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
     }
     
     // Getters and Setters
@@ -62,11 +111,48 @@ public class Task {
     }
     
     public String getLongDescription() {
-        return longDescription;
+        if (compressedLongDescription == null) {
+            return longDescription;
+        }
+        Inflated current = inflated;
+        if (current == null || current.compressed() != compressedLongDescription) {
+            current = new Inflated(compressedLongDescription, CompressedText.decompress(compressedLongDescription));
+            inflated = current;
+        }
+        return current.text();
     }
     
     public void setLongDescription(String longDescription) {
-        this.longDescription = longDescription;
+        byte[] compressed = CompressedText.compressIfSmaller(longDescription, COMPRESSION_MIN_LENGTH);
+        this.longDescription = compressed == null ? longDescription : null;
+        this.compressedLongDescription = compressed;
+        this.inflated = compressed == null ? null : new Inflated(compressed, longDescription);
+    }
+    
+    /**
+     * Takes over the other task's long description as it is stored, without inflating or
+     * compressing it again.
+     */
+    public void copyLongDescriptionFrom(Task other) {
+        this.longDescription = other.longDescription;
+        this.compressedLongDescription = other.compressedLongDescription;
+        this.inflated = other.inflated;
+    }
+    
+    /**
+     * At most the first {@code maxLength} characters of the long description, without inflating
+     * the rest of it.
+     */
+    public String getLongDescriptionPrefix(int maxLength) {
+        Inflated current = inflated;
+        String text = compressedLongDescription == null ? longDescription
+                : current != null && current.compressed() == compressedLongDescription ? current.text()
+                : CompressedText.decompress(compressedLongDescription, maxLength);
+        return text == null || text.length() <= maxLength ? text : text.substring(0, maxLength);
+    }
+    
+    public byte[] getCompressedLongDescription() {
+        return compressedLongDescription;
     }
     
     public TaskStatus getStatus() {
@@ -101,6 +187,31 @@ public class Task {
         this.updatedAt = updatedAt;
     }
     
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+    
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+    
+    @JsonIgnore
+    public boolean isDeleted() {
+        return deletedAt != null;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
+    // Immutable, so a task read from several threads never pairs bytes with the wrong text
+    private record Inflated(byte[] compressed, String text) {
+    }
+    
     public enum TaskStatus {
         TODO("To Do"),
         IN_PROGRESS("In Progress"),
@@ -1,15 +1,75 @@
 package com.example.tasklistapp.Model;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface TaskRepository extends JpaRepository<Task, String> {
+public interface TaskRepository extends JpaRepository<Task, String>, TaskRepositoryCustom {
     
-    List<Task> findByUserIdOrderByCreatedAtDesc(Long userId);
+    @Query("select t from Task t where t.user.id = :userId and t.deletedAt is null and t.status = :status")
+    List<Task> findByUserIdAndStatus(@Param("userId") Long userId, @Param("status") Task.TaskStatus status);
     
-    List<Task> findByUserIdAndStatus(Long userId, Task.TaskStatus status);
+    @Query("select count(t) from Task t where t.user.id = :userId and t.deletedAt is null")
+    long countByUserId(@Param("userId") Long userId);
+    
+    /**
+     * A user's task ids in list order; the tasks themselves come from {@link #findAllInOrder}.
+     */
+    @Query("select t.id from Task t where t.user.id = :userId and t.deletedAt is null "
+            + "order by t.createdAt desc, t.id desc")
+    List<String> findIdsByUserId(@Param("userId") Long userId);
+    
+    @Query("select t from Task t where t.user.id = :userId and t.deletedAt is null "
+            + "order by t.createdAt desc, t.id desc")
+    List<Task> findFirstPageByUserId(@Param("userId") Long userId, Pageable pageable);
+    
+    /**
+     * Keyset continuation of {@link #findFirstPageByUserId}: every task that sorts after the given one.
+     */
+    @Query("select t from Task t where t.user.id = :userId and t.deletedAt is null "
+            + "and (t.createdAt < :createdAt or (t.createdAt = :createdAt and t.id < :id)) "
+            + "order by t.createdAt desc, t.id desc")
+    List<Task> findByUserIdSortedAfter(@Param("userId") Long userId,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") String id);
+    
+    /**
+     * Locks the rows until the transaction ends, so they cannot be deleted between being read and
+     * written; ids without a row, or of deleted tasks, are left out.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t from Task t where t.id in :ids and t.deletedAt is null order by t.id")
+    List<Task> findAllByIdForUpdate(@Param("ids") Collection<String> ids);
+    
+    /**
+     * Locks the user's tasks in the given status until the transaction ends and returns their ids,
+     * for a bulk change of exactly those tasks that nothing else can change in the meantime.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t.id from Task t where t.user.id = :userId and t.deletedAt is null and t.status = :status "
+            + "order by t.id")
+    List<String> findIdsByUserIdAndStatusForUpdate(@Param("userId") Long userId, @Param("status") Task.TaskStatus status);
+    
+    /**
+     * Deletes every row of the user's tasks, deleted ones included, with a single statement, for
+     * removing the user altogether; all other queries leave out deleted tasks. Runs in a
+     * transaction of its own when called outside one, and drops the {@code tasks} cache region like
+     * the other bulk statements.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Task t where t.user.id = :userId")
+    int deleteAllByUserId(@Param("userId") Long userId);
     
 }
@@ -0,0 +1,65 @@
+package com.example.tasklistapp.Model;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public interface TaskRepositoryCustom {
+    
+    /**
+     * Loads the tasks with the given ids in the given order, taking them from the persistence
+     * context or the second-level cache where possible and fetching only the rest in one query.
+     * Ids whose task no longer exists or is deleted are skipped.
+     */
+    List<Task> findAllInOrder(List<String> ids);
+    
+    /**
+     * Streams the user's tasks in list order from a JDBC cursor, {@code fetchSize} rows per round
+     * trip. The tasks stay in the persistence context, which the caller should clear as it goes, and
+     * the stream must be consumed and closed within the caller's transaction.
+     */
+    Stream<Task> streamByUserId(Long userId, int fetchSize);
+    
+    /**
+     * Reads the text of each of the user's tasks, in no particular order, from a JDBC cursor with
+     * {@code fetchSize} rows per round trip, without loading the tasks as entities.
+     */
+    void forEachTaskText(Long userId, int fetchSize, Consumer<TaskText> action);
+    
+    /**
+     * Like {@link #forEachTaskText} for the titles alone, leaving the description column unread.
+     */
+    void forEachTaskTitle(Long userId, int fetchSize, Consumer<TaskText> action);
+    
+    /**
+     * Like {@link #forEachTaskText} for the given tasks, of which deleted ones and ids without a row
+     * are left out.
+     */
+    void forEachTaskText(Collection<String> ids, Consumer<TaskText> action);
+    
+    /**
+     * Like {@link #forEachTaskTitle} for the given tasks, of which deleted ones and ids without a row
+     * are left out.
+     */
+    void forEachTaskTitle(Collection<String> ids, Consumer<TaskText> action);
+    
+    /**
+     * Moves the given tasks that are still in status {@code from} to {@code to}, with one UPDATE
+     * per few hundred ids, in the caller's transaction. Bulk statements bypass the persistence
+     * context, which is flushed before and cleared after, and make Hibernate drop the whole
+     * {@code tasks} cache region.
+     *
+     * @return the number of tasks moved
+     */
+    int updateStatusByIds(Collection<String> ids, Task.TaskStatus from, Task.TaskStatus to, LocalDateTime now);
+    
+    /**
+     * Marks the given tasks that are still in the given status as deleted, under the same terms as
+     * {@link #updateStatusByIds}.
+     *
+     * @return the number of tasks deleted
+     */
+    int softDeleteByIds(Collection<String> ids, Task.TaskStatus status, LocalDateTime now);
+}
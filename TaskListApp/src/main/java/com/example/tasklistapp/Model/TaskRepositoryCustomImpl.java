@@ -0,0 +1,143 @@
+package com.example.tasklistapp.Model;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+    
+    private static final int ID_CHUNK_SIZE = 500;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<Task> findAllInOrder(List<String> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(Task.class)
+                .with(CacheMode.NORMAL)
+                .enableSessionCheck(true)
+                .multiLoad(ids)
+                .stream()
+                .filter(task -> task != null && !task.isDeleted())
+                .toList();
+    }
+    
+    @Override
+    public Stream<Task> streamByUserId(Long userId, int fetchSize) {
+        return entityManager.createQuery(
+                        "select t from Task t where t.user.id = :userId and t.deletedAt is null "
+                                + "order by t.createdAt desc, t.id desc", Task.class)
+                .setParameter("userId", userId)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachTaskText(Long userId, int fetchSize, Consumer<TaskText> action) {
+        try (Stream<TaskText> texts = entityManager.createQuery(
+                        "select new com.example.tasklistapp.Model.TaskText(t.id, t.shortDescription, t.longDescription, "
+                                + "t.compressedLongDescription, t.version, t.updatedAt) "
+                                + "from Task t where t.user.id = :userId and t.deletedAt is null",
+                        TaskText.class)
+                .setParameter("userId", userId)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream()) {
+            texts.forEach(action);
+        }
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachTaskTitle(Long userId, int fetchSize, Consumer<TaskText> action) {
+        try (Stream<TaskText> titles = entityManager.createQuery(
+                        "select new com.example.tasklistapp.Model.TaskText(t.id, t.shortDescription, t.version, t.updatedAt) "
+                                + "from Task t where t.user.id = :userId and t.deletedAt is null", TaskText.class)
+                .setParameter("userId", userId)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream()) {
+            titles.forEach(action);
+        }
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachTaskText(Collection<String> ids, Consumer<TaskText> action) {
+        forEachChunk(ids, chunk -> entityManager.createQuery(
+                        "select new com.example.tasklistapp.Model.TaskText(t.id, t.shortDescription, t.longDescription, "
+                                + "t.compressedLongDescription, t.version, t.updatedAt) "
+                                + "from Task t where t.id in :ids and t.deletedAt is null", TaskText.class)
+                .setParameter("ids", chunk)
+                .getResultList()
+                .forEach(action));
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachTaskTitle(Collection<String> ids, Consumer<TaskText> action) {
+        forEachChunk(ids, chunk -> entityManager.createQuery(
+                        "select new com.example.tasklistapp.Model.TaskText(t.id, t.shortDescription, t.version, t.updatedAt) "
+                                + "from Task t where t.id in :ids and t.deletedAt is null", TaskText.class)
+                .setParameter("ids", chunk)
+                .getResultList()
+                .forEach(action));
+    }
+    
+    @Override
+    public int updateStatusByIds(Collection<String> ids, Task.TaskStatus from, Task.TaskStatus to, LocalDateTime now) {
+        return updateEachChunk(ids, chunk -> entityManager.createQuery(
+                        "update Task t set t.status = :to, t.updatedAt = :now, t.version = t.version + 1 "
+                                + "where t.id in :ids and t.deletedAt is null and t.status = :from")
+                .setParameter("ids", chunk)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setParameter("now", now)
+                .executeUpdate());
+    }
+    
+    @Override
+    public int softDeleteByIds(Collection<String> ids, Task.TaskStatus status, LocalDateTime now) {
+        return updateEachChunk(ids, chunk -> entityManager.createQuery(
+                        "update Task t set t.deletedAt = :now, t.updatedAt = :now, t.version = t.version + 1 "
+                                + "where t.id in :ids and t.deletedAt is null and t.status = :status")
+                .setParameter("ids", chunk)
+                .setParameter("status", status)
+                .setParameter("now", now)
+                .executeUpdate());
+    }
+    
+    private int updateEachChunk(Collection<String> ids, ToIntFunction<List<String>> update) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        entityManager.flush();
+        int[] rows = new int[1];
+        forEachChunk(ids, chunk -> rows[0] += update.applyAsInt(chunk));
+        entityManager.clear();
+        return rows[0];
+    }
+    
+    // Keeps each IN list, and the rows read for it, to a bounded size
+    private static void forEachChunk(Collection<String> ids, Consumer<List<String>> action) {
+        List<String> list = List.copyOf(ids);
+        for (int from = 0; from < list.size(); from += ID_CHUNK_SIZE) {
+            action.accept(list.subList(from, Math.min(from + ID_CHUNK_SIZE, list.size())));
+        }
+    }
+}
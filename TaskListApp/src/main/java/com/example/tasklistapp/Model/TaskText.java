@@ -0,0 +1,27 @@
+package com.example.tasklistapp.Model;
+
+import java.time.LocalDateTime;
+
+/**
+ * The searchable text of a task, with the version and update time of the state it was read from.
+ * A title read on its own has no long description.
+ */
+public record TaskText(String id, String shortDescription, String longDescription, Long version,
+                       LocalDateTime updatedAt) {
+    
+    public TaskText(String id, String shortDescription, Long version, LocalDateTime updatedAt) {
+        this(id, shortDescription, null, version, updatedAt);
+    }
+    
+    // Both description columns as stored, of which at most one is set
+    public TaskText(String id, String shortDescription, String longDescription, byte[] compressedLongDescription,
+                    Long version, LocalDateTime updatedAt) {
+        this(id, shortDescription, compressedLongDescription == null ? longDescription
+                : CompressedText.decompress(compressedLongDescription), version, updatedAt);
+    }
+    
+    public static TaskText of(Task task) {
+        return new TaskText(task.getId(), task.getShortDescription(), task.getLongDescription(),
+                task.getVersion(), task.getUpdatedAt());
+    }
+}
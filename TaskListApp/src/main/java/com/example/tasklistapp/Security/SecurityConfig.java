@@ -1,20 +1,30 @@
 package com.example.tasklistapp.Security;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 
 import com.example.tasklistapp.Model.MyAppUserService;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 import lombok.AllArgsConstructor;
 
 @Configuration
@@ -22,6 +32,8 @@ import lombok.AllArgsConstructor;
 @EnableWebSecurity
 public class SecurityConfig {
     
+    private static final String METRICS_ROLE = "METRICS";
+    
     @Autowired
     private final MyAppUserService appUserService;
     
@@ -32,16 +44,48 @@ public class SecurityConfig {
     }
     
     @Bean
-    public AuthenticationProvider authenticationProvider(){
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder){
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
         provider.setUserDetailsService(appUserService);
-        provider.setPasswordEncoder(passwordEncoder());
+        provider.setPasswordEncoder(passwordEncoder);
         return provider;
     }
     
     @Bean
-    public PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry){
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
+    }
+    
+    /**
+     * The actuator endpoints, apart from the health probes, are only served to the scrape account
+     * configured with {@code app.metrics.username} and {@code app.metrics.password} over HTTP Basic,
+     * never to users who signed up. Without a password nobody can read them.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity httpSecurity,
+                                                   @Value("${app.metrics.username:prometheus}") String username,
+                                                   @Value("${app.metrics.password:}") String password) throws Exception{
+        InMemoryUserDetailsManager scrapeUsers = new InMemoryUserDetailsManager();
+        if (!password.isEmpty()) {
+            scrapeUsers.createUser(User.withUsername(username).password(password).roles(METRICS_ROLE).build());
+        }
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(scrapeUsers);
+        // The password is given with its encoding, "{bcrypt}..." or "{noop}..."
+        provider.setPasswordEncoder(PasswordEncoderFactories.createDelegatingPasswordEncoder());
+        return httpSecurity
+            .securityMatcher("/actuator/**")
+            .csrf(AbstractHttpConfigurer::disable)
+            .authorizeHttpRequests(registry ->{
+                // Probes for the orchestrator, which reveal no more than up or down
+                registry.requestMatchers("/actuator/health/**").permitAll();
+                registry.anyRequest().hasRole(METRICS_ROLE);
+            })
+            .httpBasic(Customizer.withDefaults())
+            .authenticationManager(new ProviderManager(provider))
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .build();
     }
     
     @Bean
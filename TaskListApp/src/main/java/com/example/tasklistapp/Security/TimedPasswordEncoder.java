@@ -0,0 +1,55 @@
+package com.example.tasklistapp.Security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long hashing and verifying passwords takes. BCrypt is deliberately slow, so this
+ * is usually the largest share of login and signup latency.
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+    
+    private final PasswordEncoder delegate;
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Timer mismatchTimer;
+    
+    public TimedPasswordEncoder(PasswordEncoder delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.encodeTimer = timer(registry, "encode", "success");
+        this.matchTimer = timer(registry, "matches", "match");
+        this.mismatchTimer = timer(registry, "matches", "mismatch");
+    }
+    
+    private static Timer timer(MeterRegistry registry, String operation, String outcome) {
+        return Timer.builder("security.password.encoder")
+                .description("Time spent hashing and verifying passwords")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+    
+    @Override
+    public String encode(CharSequence rawPassword) {
+        long start = System.nanoTime();
+        String encoded = delegate.encode(rawPassword);
+        encodeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return encoded;
+    }
+    
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        (matches ? matchTimer : mismatchTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return matches;
+    }
+    
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.tasklistapp.dto;
+
+import com.example.tasklistapp.Model.Task;
+
+/**
+ * The fields a {@code PATCH /tasks/{id}} changes, as in a JSON merge patch: a field that is absent
+ * keeps its value, one that is present replaces it, and {@code "longDescription": null} clears the
+ * description. Presence is tracked through the setters, which Jackson only calls for fields in the body.
+ */
+public class TaskPatch {
+    
+    private String shortDescription;
+    private String longDescription;
+    private Task.TaskStatus status;
+    
+    private boolean shortDescriptionSet;
+    private boolean longDescriptionSet;
+    private boolean statusSet;
+    
+    public TaskPatch() {
+    }
+    
+    /**
+     * A patch that sets every field to the given task's value, as a {@code PUT} does.
+     */
+    public static TaskPatch replacing(Task task) {
+        TaskPatch patch = new TaskPatch();
+        patch.setShortDescription(task.getShortDescription());
+        patch.setLongDescription(task.getLongDescription());
+        patch.setStatus(task.getStatus());
+        return patch;
+    }
+    
+    /**
+     * This patch followed by a later one: the later patch wins for the fields it sets.
+     */
+    public TaskPatch then(TaskPatch later) {
+        TaskPatch merged = new TaskPatch();
+        merged.shortDescription = later.shortDescriptionSet ? later.shortDescription : shortDescription;
+        merged.shortDescriptionSet = shortDescriptionSet || later.shortDescriptionSet;
+        merged.longDescription = later.longDescriptionSet ? later.longDescription : longDescription;
+        merged.longDescriptionSet = longDescriptionSet || later.longDescriptionSet;
+        merged.status = later.statusSet ? later.status : status;
+        merged.statusSet = statusSet || later.statusSet;
+        return merged;
+    }
+    
+    /**
+     * Sets the fields this patch changes. On a managed task only the columns whose value actually
+     * differs are written.
+     */
+    public void applyTo(Task task) {
+        if (shortDescriptionSet) {
+            task.setShortDescription(shortDescription);
+        }
+        if (longDescriptionSet) {
+            task.setLongDescription(longDescription);
+        }
+        if (statusSet) {
+            task.setStatus(status);
+        }
+    }
+    
+    public boolean isEmpty() {
+        return !shortDescriptionSet && !longDescriptionSet && !statusSet;
+    }
+    
+    public String getShortDescription() {
+        return shortDescription;
+    }
+    
+    public void setShortDescription(String shortDescription) {
+        this.shortDescription = shortDescription;
+        this.shortDescriptionSet = true;
+    }
+    
+    public boolean hasShortDescription() {
+        return shortDescriptionSet;
+    }
+    
+    public String getLongDescription() {
+        return longDescription;
+    }
+    
+    public void setLongDescription(String longDescription) {
+        this.longDescription = longDescription;
+        this.longDescriptionSet = true;
+    }
+    
+    public boolean hasLongDescription() {
+        return longDescriptionSet;
+    }
+    
+    public Task.TaskStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Task.TaskStatus status) {
+        this.status = status;
+        this.statusSet = true;
+    }
+    
+    public boolean hasStatus() {
+        return statusSet;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.tasklistapp.dto;
+
+import com.example.tasklistapp.Model.Task;
+
+import java.util.List;
+
+/**
+ * One page of the tasks matching a search, best match first, and how many match in total.
+ */
+public class TaskSearchResults {
+    
+    private long total;
+    private int page;
+    private int size;
+    private List<Task> tasks;
+    
+    public TaskSearchResults() {
+    }
+    
+    public TaskSearchResults(long total, int page, int size, List<Task> tasks) {
+        this.total = total;
+        this.page = page;
+        this.size = size;
+        this.tasks = tasks;
+    }
+    
+    public long getTotal() {
+        return total;
+    }
+    
+    public int getPage() {
+        return page;
+    }
+    
+    public int getSize() {
+        return size;
+    }
+    
+    public List<Task> getTasks() {
+        return tasks;
+    }
+}
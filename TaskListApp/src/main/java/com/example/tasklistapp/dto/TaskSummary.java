@@ -0,0 +1,70 @@
+package com.example.tasklistapp.dto;
+
+import com.example.tasklistapp.Model.Task;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight view of a task used for the server-rendered first page of the task list.
+ * Carries only the description excerpt shown on a task card instead of the full text.
+ */
+public class TaskSummary {
+    
+    public static final int EXCERPT_LENGTH = 100;
+    
+    private String id;
+    private String shortDescription;
+    private String excerpt;
+    private boolean descriptionTruncated;
+    private Task.TaskStatus status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    
+    public TaskSummary() {
+    }
+    
+    public static TaskSummary from(Task task) {
+        TaskSummary summary = new TaskSummary();
+        summary.id = task.getId();
+        summary.shortDescription = task.getShortDescription();
+        summary.status = task.getStatus();
+        summary.createdAt = task.getCreatedAt();
+        summary.updatedAt = task.getUpdatedAt();
+        
+        // One character more than the excerpt tells whether it was cut, without inflating a long description
+        String description = task.getLongDescriptionPrefix(EXCERPT_LENGTH + 1);
+        if (description != null && !description.isEmpty()) {
+            summary.descriptionTruncated = description.length() > EXCERPT_LENGTH;
+            summary.excerpt = summary.descriptionTruncated ? description.substring(0, EXCERPT_LENGTH) : description;
+        }
+        return summary;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public String getShortDescription() {
+        return shortDescription;
+    }
+    
+    public String getExcerpt() {
+        return excerpt;
+    }
+    
+    public boolean isDescriptionTruncated() {
+        return descriptionTruncated;
+    }
+    
+    public Task.TaskStatus getStatus() {
+        return status;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.tasklistapp.exception;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs 4xx errors handled by {@link GlobalExceptionHandler} without letting a misbehaving
+ * client flood the log. Every error is counted in {@code http.client.errors}, but only one in
+ * {@code app.errors.log-sample-rate} is a candidate for logging and at most
+ * {@code app.errors.log-per-second} lines are written per exception type; the next line that is
+ * written reports how many were skipped. The logger itself is routed to an async appender in
+ * {@code logback-spring.xml}.
+ */
+@Slf4j
+@Component
+public class ClientErrorLogger {
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${app.errors.log-sample-rate:1}")
+    private int sampleRate;
+    
+    @Value("${app.errors.log-per-second:10}")
+    private int logsPerSecond;
+    
+    private final Map<String, ErrorTypeState> states = new ConcurrentHashMap<>();
+    
+    public void log(int status, Exception ex, HttpServletRequest request) {
+        String type = ex.getClass().getSimpleName();
+        ErrorTypeState state = states.computeIfAbsent(status + ":" + type, key -> new ErrorTypeState(
+                Counter.builder("http.client.errors")
+                        .description("Client errors handled by the global exception handler")
+                        .tag("exception", type)
+                        .tag("status", String.valueOf(status))
+                        .register(meterRegistry)));
+        state.counter.increment();
+        
+        long skipped = state.tryAcquireLogSlot(System.nanoTime());
+        if (skipped < 0 || !log.isWarnEnabled()) {
+            return;
+        }
+        if (skipped == 0) {
+            log.warn("{} {} {} -> {}: {}", request.getMethod(), request.getRequestURI(), status,
+                    type, ex.getMessage());
+        } else {
+            log.warn("{} {} {} -> {}: {} ({} similar errors not logged)", request.getMethod(),
+                    request.getRequestURI(), status, type, ex.getMessage(), skipped);
+        }
+    }
+    
+    long getCount(int status, Class<? extends Exception> type) {
+        ErrorTypeState state = states.get(status + ":" + type.getSimpleName());
+        return state == null ? 0 : (long) state.counter.count();
+    }
+    
+    private final class ErrorTypeState {
+        
+        private final Counter counter;
+        private long occurrences;
+        private long windowStart;
+        private int loggedInWindow;
+        private long skipped;
+        
+        ErrorTypeState(Counter counter) {
+            this.counter = counter;
+            this.windowStart = System.nanoTime() - TimeUnit.SECONDS.toNanos(1);
+        }
+        
+        /**
+         * Returns -1 if this occurrence should not be logged, otherwise the number of occurrences
+         * skipped since the last line that was written.
+         */
+        synchronized long tryAcquireLogSlot(long nowNanos) {
+            occurrences++;
+            if (sampleRate > 1 && occurrences % sampleRate != 0) {
+                skipped++;
+                return -1;
+            }
+            if (nowNanos - windowStart >= TimeUnit.SECONDS.toNanos(1)) {
+                windowStart = nowNanos;
+                loggedInWindow = 0;
+            }
+            if (loggedInWindow >= logsPerSecond) {
+                skipped++;
+                return -1;
+            }
+            loggedInWindow++;
+            long result = skipped;
+            skipped = 0;
+            return result;
+        }
+    }
+}
@@ -3,10 +3,10 @@ package com.example.tasklistapp.exception;
 public class DuplicateResourceException extends RuntimeException {
     
     public DuplicateResourceException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
     
     public DuplicateResourceException(String resource, String field, Object value) {
-        super(String.format("%s already exists with %s: '%s'", resource, field, value));
+        super(String.format("%s already exists with %s: '%s'", resource, field, value), null, false, false);
     }
 }
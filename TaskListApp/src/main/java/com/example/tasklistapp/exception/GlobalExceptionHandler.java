@@ -1,6 +1,9 @@
 package com.example.tasklistapp.exception;
 
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -20,12 +23,15 @@ import lombok.extern.slf4j.Slf4j;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
     
+    @Autowired
+    private ClientErrorLogger clientErrorLogger;
+    
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleResourceNotFoundException(
             ResourceNotFoundException ex, 
             HttpServletRequest request) {
         
-        log.error("Resource not found: {}", ex.getMessage());
+        clientErrorLogger.log(HttpStatus.NOT_FOUND.value(), ex, request);
         
         ErrorResponse errorResponse = new ErrorResponse(
             HttpStatus.NOT_FOUND.value(),
@@ -42,7 +48,7 @@ public class GlobalExceptionHandler {
             DuplicateResourceException ex, 
             HttpServletRequest request) {
         
-        log.error("Duplicate resource: {}", ex.getMessage());
+        clientErrorLogger.log(HttpStatus.CONFLICT.value(), ex, request);
         
         // Return plain text message for better frontend parsing
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
@@ -53,7 +59,7 @@ public class GlobalExceptionHandler {
             UnauthorizedException ex, 
             HttpServletRequest request) {
         
-        log.error("Unauthorized access: {}", ex.getMessage());
+        clientErrorLogger.log(HttpStatus.FORBIDDEN.value(), ex, request);
         
         ErrorResponse errorResponse = new ErrorResponse(
             HttpStatus.FORBIDDEN.value(),
@@ -70,7 +76,7 @@ public class GlobalExceptionHandler {
             InvalidRequestException ex, 
             HttpServletRequest request) {
         
-        log.error("Invalid request: {}", ex.getMessage());
+        clientErrorLogger.log(HttpStatus.BAD_REQUEST.value(), ex, request);
         
         ErrorResponse errorResponse = new ErrorResponse(
             HttpStatus.BAD_REQUEST.value(),
@@ -82,12 +88,69 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
     
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handlePreconditionFailedException(
+            PreconditionFailedException ex, 
+            HttpServletRequest request) {
+        
+        clientErrorLogger.log(HttpStatus.PRECONDITION_FAILED.value(), ex, request);
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+            HttpStatus.PRECONDITION_FAILED.value(),
+            "Precondition Failed",
+            ex.getMessage(),
+            request.getRequestURI()
+        );
+        
+        return new ResponseEntity<>(errorResponse, HttpStatus.PRECONDITION_FAILED);
+    }
+    
+    // Another write to the same row committed first: the precondition failed if the client stated
+    // one, otherwise it is a conflict the client can retry
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex, 
+            HttpServletRequest request) {
+        
+        HttpStatus status = request.getHeader(HttpHeaders.IF_MATCH) != null
+                ? HttpStatus.PRECONDITION_FAILED
+                : HttpStatus.CONFLICT;
+        clientErrorLogger.log(status.value(), ex, request);
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+            status.value(),
+            status.getReasonPhrase(),
+            "The task was changed by another request at the same time",
+            request.getRequestURI()
+        );
+        
+        return new ResponseEntity<>(errorResponse, status);
+    }
+    
+    // Expected while a per-user index is being built, so it is not logged as a client error
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleServiceUnavailableException(
+            ServiceUnavailableException ex, 
+            HttpServletRequest request) {
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            "Service Unavailable",
+            ex.getMessage(),
+            request.getRequestURI()
+        );
+        
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+    
     @ExceptionHandler(UsernameNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleUsernameNotFoundException(
             UsernameNotFoundException ex, 
             HttpServletRequest request) {
         
-        log.error("Username not found: {}", ex.getMessage());
+        clientErrorLogger.log(HttpStatus.NOT_FOUND.value(), ex, request);
         
         ErrorResponse errorResponse = new ErrorResponse(
             HttpStatus.NOT_FOUND.value(),
@@ -110,7 +173,7 @@ Unexpected runtime errors  */
             AuthenticationException ex, 
             HttpServletRequest request) {
         
-        log.error("Authentication failed: {}", ex.getMessage());
+        clientErrorLogger.log(HttpStatus.UNAUTHORIZED.value(), ex, request);
         
         ErrorResponse errorResponse = new ErrorResponse(
             HttpStatus.UNAUTHORIZED.value(),
@@ -127,7 +190,7 @@ Unexpected runtime errors  */
             AccessDeniedException ex, 
             HttpServletRequest request) {
         
-        log.error("Access denied: {}", ex.getMessage());
+        clientErrorLogger.log(HttpStatus.FORBIDDEN.value(), ex, request);
         
         ErrorResponse errorResponse = new ErrorResponse(
             HttpStatus.FORBIDDEN.value(),
@@ -144,7 +207,7 @@ Unexpected runtime errors  */
             MethodArgumentNotValidException ex, 
             HttpServletRequest request) {
         
-        log.error("Validation failed: {}", ex.getMessage());
+        clientErrorLogger.log(HttpStatus.BAD_REQUEST.value(), ex, request);
         
         // Collect all validation error messages
         StringBuilder errorMessage = new StringBuilder();
@@ -164,7 +227,7 @@ Unexpected runtime errors  */
             MethodArgumentTypeMismatchException ex, 
             HttpServletRequest request) {
         
-        log.error("Type mismatch: {}", ex.getMessage());
+        clientErrorLogger.log(HttpStatus.BAD_REQUEST.value(), ex, request);
         
         ErrorResponse errorResponse = new ErrorResponse(
             HttpStatus.BAD_REQUEST.value(),
@@ -181,7 +244,7 @@ Unexpected runtime errors  */
             IllegalArgumentException ex, 
             HttpServletRequest request) {
         
-        log.error("Illegal argument: {}", ex.getMessage());
+        clientErrorLogger.log(HttpStatus.BAD_REQUEST.value(), ex, request);
         
         ErrorResponse errorResponse = new ErrorResponse(
             HttpStatus.BAD_REQUEST.value(),
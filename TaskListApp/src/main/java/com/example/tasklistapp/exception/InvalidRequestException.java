@@ -3,6 +3,6 @@ package com.example.tasklistapp.exception;
 public class InvalidRequestException extends RuntimeException {
     
     public InvalidRequestException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -0,0 +1,8 @@
+package com.example.tasklistapp.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+    
+    public PreconditionFailedException(String message) {
+        super(message, null, false, false);
+    }
+}
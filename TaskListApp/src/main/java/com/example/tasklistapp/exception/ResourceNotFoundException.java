@@ -1,12 +1,16 @@
 package com.example.tasklistapp.exception;
 
+/**
+ * Expected client error, so it is created without a stack trace or suppression support;
+ * {@link GlobalExceptionHandler} only needs the message.
+ */
 public class ResourceNotFoundException extends RuntimeException {
     
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
     
     public ResourceNotFoundException(String resource, String field, Object value) {
-        super(String.format("%s not found with %s: '%s'", resource, field, value));
+        super(String.format("%s not found with %s: '%s'", resource, field, value), null, false, false);
     }
 }
@@ -0,0 +1,18 @@
+package com.example.tasklistapp.exception;
+
+/**
+ * The request cannot be answered yet, but can be retried after {@link #getRetryAfterSeconds()}.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+    
+    private final long retryAfterSeconds;
+    
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message, null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -3,10 +3,10 @@ package com.example.tasklistapp.exception;
 public class UnauthorizedException extends RuntimeException {
     
     public UnauthorizedException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
     
     public UnauthorizedException() {
-        super("You are not authorized to perform this action");
+        super("You are not authorized to perform this action", null, false, false);
     }
 }
@@ -0,0 +1,87 @@
+package com.example.tasklistapp.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit that adapts to observed latency using AIMD: every request that completes
+ * within the latency threshold while the limit is in use raises the limit by 1/limit (about
+ * one per round of requests), and a request over the threshold multiplies it by the backoff
+ * ratio, at most once per threshold interval so a burst of slow responses counts as one signal.
+ */
+public class AdaptiveConcurrencyLimit {
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    
+    private volatile double limit;
+    private long lastDecreaseNanos;
+    private boolean decreased;
+    
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit,
+                                    long latencyThresholdNanos, double backoffRatio) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+        this.backoffRatio = backoffRatio;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+    
+    /**
+     * Claims a slot, or returns {@code false} (and counts a rejection) when the limit is reached.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * Returns a slot claimed by {@link #tryAcquire()} and feeds the request latency into the limit.
+     */
+    public void release(long latencyNanos, long nowNanos) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        onSample(latencyNanos, nowNanos, inFlightAtCompletion);
+    }
+    
+    private synchronized void onSample(long latencyNanos, long nowNanos, int inFlightAtCompletion) {
+        double current = limit;
+        if (latencyNanos > latencyThresholdNanos) {
+            if (!decreased || nowNanos - lastDecreaseNanos >= latencyThresholdNanos) {
+                limit = Math.max(minLimit, current * backoffRatio);
+                lastDecreaseNanos = nowNanos;
+                decreased = true;
+            }
+        } else if (inFlightAtCompletion >= current / 2) {
+            // Only grow while the limit is actually being used, otherwise idle periods inflate it
+            limit = Math.min(maxLimit, current + 1.0 / current);
+        }
+    }
+    
+    public int getLimit() {
+        return (int) limit;
+    }
+    
+    public int getInFlight() {
+        return inFlight.get();
+    }
+    
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
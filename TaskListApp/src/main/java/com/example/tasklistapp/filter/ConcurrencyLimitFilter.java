@@ -0,0 +1,151 @@
+package com.example.tasklistapp.filter;
+
+import com.example.tasklistapp.dto.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Sheds load before it queues up in Tomcat and the connection pool. Task API traffic, search
+ * and suggestions, login and signup, and static assets each get their own
+ * {@link AdaptiveConcurrencyLimit}; requests over the limit are answered immediately with 503 and
+ * {@code Retry-After}. Search and suggestions may wait for their user's index to be built, which
+ * would otherwise read as overload of the task API.
+ * 
+ * The event stream and actuator endpoints are never limited: the former is long-lived by
+ * design and the latter must keep answering health checks under overload. Neither are task
+ * exports and imports, which take as long as the data does and would otherwise read as overload.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    
+    private final AdaptiveConcurrencyLimit taskLimit;
+    private final AdaptiveConcurrencyLimit searchLimit;
+    private final AdaptiveConcurrencyLimit authLimit;
+    private final AdaptiveConcurrencyLimit staticLimit;
+    private final long retryAfterSeconds;
+    private final ObjectMapper objectMapper;
+    
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimit taskLimit, AdaptiveConcurrencyLimit searchLimit,
+                                  AdaptiveConcurrencyLimit authLimit, AdaptiveConcurrencyLimit staticLimit,
+                                  long retryAfterSeconds, ObjectMapper objectMapper) {
+        this.taskLimit = taskLimit;
+        this.searchLimit = searchLimit;
+        this.authLimit = authLimit;
+        this.staticLimit = staticLimit;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.objectMapper = objectMapper;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        AdaptiveConcurrencyLimit limit = resolveLimit(request);
+        if (limit == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        
+        if (!limit.tryAcquire()) {
+            reject(request, response);
+            return;
+        }
+        
+        long start = System.nanoTime();
+        boolean releaseOnAsyncCompletion = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleasingAsyncListener(limit, start));
+                releaseOnAsyncCompletion = true;
+            }
+        } finally {
+            if (!releaseOnAsyncCompletion) {
+                long now = System.nanoTime();
+                limit.release(now - start, now);
+            }
+        }
+    }
+    
+    private AdaptiveConcurrencyLimit resolveLimit(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        
+        if (path.startsWith("/tasks/events") || path.startsWith("/actuator")
+                || path.equals("/tasks/export") || path.equals("/tasks/import")) {
+            return null;
+        }
+        if (path.equals("/tasks/search") || path.equals("/tasks/suggest")) {
+            return searchLimit;
+        }
+        if (path.startsWith("/tasks") || path.equals("/tasklist")) {
+            return taskLimit;
+        }
+        if (path.equals("/login") || path.equals("/logout") || path.startsWith("/req/")) {
+            return authLimit;
+        }
+        if (path.startsWith("/css/") || path.startsWith("/js/") || path.startsWith("/bench/")
+                || path.equals("/favicon.ico")) {
+            return staticLimit;
+        }
+        return null;
+    }
+    
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ErrorResponse errorResponse = new ErrorResponse(
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            "Service Unavailable",
+            "The server is busy, please retry shortly",
+            request.getRequestURI()
+        );
+        
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+    
+    private static final class ReleasingAsyncListener implements AsyncListener {
+        
+        private final AdaptiveConcurrencyLimit limit;
+        private final long start;
+        private boolean released;
+        
+        ReleasingAsyncListener(AdaptiveConcurrencyLimit limit, long start) {
+            this.limit = limit;
+            this.start = start;
+        }
+        
+        @Override
+        public synchronized void onComplete(AsyncEvent event) {
+            if (!released) {
+                released = true;
+                long now = System.nanoTime();
+                limit.release(now - start, now);
+            }
+        }
+        
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            onComplete(event);
+        }
+        
+        @Override
+        public void onError(AsyncEvent event) {
+            onComplete(event);
+        }
+        
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.tasklistapp.filter;
+
+import com.example.tasklistapp.jdbc.SqlStatementStats;
+
+import java.util.Locale;
+
+/**
+ * Per-request phase durations, bound to the request thread by {@link ServerTimingFilter}.
+ * Recording is a couple of {@code System.nanoTime()} calls and array updates, so it stays on
+ * in production; code running outside a timed request simply records nothing.
+ */
+public final class RequestTimings {
+    
+    public enum Phase {
+        AUTH("auth", "Filters and authentication"),
+        USER("user", "Current user lookup"),
+        DB("db", "Repository calls"),
+        SERIALIZE("serialize", "Response serialization");
+        
+        private final String metricName;
+        private final String description;
+        
+        Phase(String metricName, String description) {
+            this.metricName = metricName;
+            this.description = description;
+        }
+    }
+    
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+    
+    private final long startNanos;
+    private final SqlStatementStats.Snapshot sqlAtStart = SqlStatementStats.snapshot();
+    private final long[] durations = new long[Phase.values().length];
+    private final int[] counts = new int[Phase.values().length];
+    private long serializationStartNanos;
+    
+    private RequestTimings(long startNanos) {
+        this.startNanos = startNanos;
+    }
+    
+    static RequestTimings start() {
+        RequestTimings timings = new RequestTimings(System.nanoTime());
+        CURRENT.set(timings);
+        return timings;
+    }
+    
+    static void clear() {
+        CURRENT.remove();
+    }
+    
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+    
+    /**
+     * Adds the time elapsed since {@code startNanos} to the phase of the current request, if any.
+     */
+    public static void recordSince(Phase phase, long startNanos) {
+        record(phase, System.nanoTime() - startNanos);
+    }
+    
+    public static void record(Phase phase, long nanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.durations[phase.ordinal()] += nanos;
+            timings.counts[phase.ordinal()]++;
+        }
+    }
+    
+    /**
+     * Marks the point where the handler is done and the response body or view starts being written.
+     * Only the first mark counts, so an error response written after a failed body keeps the original start.
+     */
+    public static void markSerializationStart() {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null && timings.serializationStartNanos == 0) {
+            timings.serializationStartNanos = System.nanoTime();
+        }
+    }
+    
+    void markHandlerStart() {
+        if (counts[Phase.AUTH.ordinal()] == 0) {
+            record(Phase.AUTH, System.nanoTime() - startNanos);
+        }
+    }
+    
+    void markSerializationEnd() {
+        if (serializationStartNanos != 0 && counts[Phase.SERIALIZE.ordinal()] == 0) {
+            record(Phase.SERIALIZE, System.nanoTime() - serializationStartNanos);
+        }
+    }
+    
+    long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+    
+    public long getDurationNanos(Phase phase) {
+        return durations[phase.ordinal()];
+    }
+    
+    public int getCount(Phase phase) {
+        return counts[phase.ordinal()];
+    }
+    
+    /**
+     * JDBC statements, rows and execution time on this thread since the request started.
+     */
+    public SqlStatementStats.Snapshot getSqlStats() {
+        return SqlStatementStats.snapshot().minus(sqlAtStart);
+    }
+    
+    /**
+     * Formats the recorded phases plus the total so far as a {@code Server-Timing} header value.
+     * Phases overlap: {@code user} includes its own repository call, which is also part of {@code db},
+     * and {@code sql} is the JDBC execution time inside {@code db} plus any statements flushed at commit.
+     */
+    String toHeaderValue() {
+        StringBuilder header = new StringBuilder(160);
+        for (Phase phase : Phase.values()) {
+            int count = counts[phase.ordinal()];
+            if (count == 0) {
+                continue;
+            }
+            header.append(phase.metricName).append(";dur=").append(millis(durations[phase.ordinal()]))
+                    .append(";desc=\"").append(phase.description);
+            if (phase == Phase.DB) {
+                header.append(" (").append(count).append(')');
+            }
+            header.append("\", ");
+        }
+        SqlStatementStats.Snapshot sql = getSqlStats();
+        if (sql.statements() > 0) {
+            header.append("sql;dur=").append(millis(sql.nanos())).append(";desc=\"")
+                    .append(sql.statements()).append(" statements, ").append(sql.rows()).append(" rows\", ");
+        }
+        return header.append("total;dur=").append(millis(getElapsedNanos())).toString();
+    }
+    
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.tasklistapp.filter;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Marks the start of message conversion for {@code @ResponseBody} and {@code ResponseEntity} results.
+ * The header is set here as well, so a body that overflows the response buffer and commits early
+ * still carries the phases measured up to this point.
+ */
+@ControllerAdvice
+public class ServerTimingBodyAdvice implements ResponseBodyAdvice<Object> {
+    
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+    
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestTimings timings = RequestTimings.current();
+        if (timings != null) {
+            RequestTimings.markSerializationStart();
+            response.getHeaders().set(ServerTimingFilter.HEADER, timings.toHeaderValue());
+        }
+        return body;
+    }
+}
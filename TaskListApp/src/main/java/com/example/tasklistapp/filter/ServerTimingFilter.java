@@ -0,0 +1,169 @@
+package com.example.tasklistapp.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Times each request by phase and reports the breakdown in a {@code Server-Timing} header.
+ * Requests slower than the threshold are logged with the same breakdown.
+ * 
+ * The header can only be added while the response is uncommitted, but message converters flush
+ * as soon as the body is written. The response is therefore given a larger container buffer and
+ * explicit flushes are held back until the filter has set the final header. Bodies larger than the
+ * buffer commit early and keep the header set just before serialization started.
+ */
+@Slf4j
+public class ServerTimingFilter extends OncePerRequestFilter {
+    
+    public static final String HEADER = "Server-Timing";
+    
+    private final long slowRequestThresholdNanos;
+    private final int bufferSize;
+    
+    public ServerTimingFilter(long slowRequestThresholdNanos, int bufferSize) {
+        this.slowRequestThresholdNanos = slowRequestThresholdNanos;
+        this.bufferSize = bufferSize;
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // The event stream stays open for minutes and flushes continuously
+        return request.getRequestURI().startsWith(request.getContextPath() + "/tasks/events");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestTimings timings = RequestTimings.start();
+        DeferredFlushResponse wrappedResponse = new DeferredFlushResponse(response, bufferSize);
+        try {
+            filterChain.doFilter(request, wrappedResponse);
+        } finally {
+            RequestTimings.clear();
+        }
+        
+        timings.markSerializationEnd();
+        String header = timings.toHeaderValue();
+        if (!response.isCommitted()) {
+            response.setHeader(HEADER, header);
+        }
+        wrappedResponse.stopDeferring();
+        
+        if (!request.isAsyncStarted() && timings.getElapsedNanos() > slowRequestThresholdNanos) {
+            log.warn("Slow request {} {} -> {}: {}", request.getMethod(), request.getRequestURI(),
+                    response.getStatus(), header);
+        }
+    }
+    
+    private static final class DeferredFlushResponse extends HttpServletResponseWrapper {
+        
+        private boolean deferring = true;
+        private boolean flushRequested;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+        
+        DeferredFlushResponse(HttpServletResponse response, int bufferSize) {
+            super(response);
+            if (!response.isCommitted() && response.getBufferSize() < bufferSize) {
+                response.setBufferSize(bufferSize);
+            }
+        }
+        
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new DeferredFlushOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+        
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(super.getWriter()) {
+                    @Override
+                    public void flush() {
+                        if (deferring) {
+                            flushRequested = true;
+                        } else {
+                            super.flush();
+                        }
+                    }
+                };
+            }
+            return writer;
+        }
+        
+        @Override
+        public void flushBuffer() throws IOException {
+            if (deferring) {
+                flushRequested = true;
+            } else {
+                super.flushBuffer();
+            }
+        }
+        
+        void stopDeferring() throws IOException {
+            deferring = false;
+            if (flushRequested) {
+                if (writer != null) {
+                    writer.flush();
+                }
+                super.flushBuffer();
+            }
+        }
+        
+        private final class DeferredFlushOutputStream extends ServletOutputStream {
+            
+            private final ServletOutputStream delegate;
+            
+            DeferredFlushOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+            
+            @Override
+            public void write(int b) throws IOException {
+                delegate.write(b);
+            }
+            
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                delegate.write(b, off, len);
+            }
+            
+            @Override
+            public void flush() throws IOException {
+                if (deferring) {
+                    flushRequested = true;
+                } else {
+                    delegate.flush();
+                }
+            }
+            
+            @Override
+            public void close() throws IOException {
+                delegate.close();
+            }
+            
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+            
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                delegate.setWriteListener(writeListener);
+            }
+        }
+    }
+}
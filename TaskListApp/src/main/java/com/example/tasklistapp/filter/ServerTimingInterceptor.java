@@ -0,0 +1,38 @@
+package com.example.tasklistapp.filter;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * Splits the request into the filter chain (authentication), the handler and view rendering for
+ * {@link ServerTimingFilter}. Response bodies mark their own serialization start through
+ * {@link ServerTimingBodyAdvice}, since they are written before {@code postHandle} runs.
+ */
+public class ServerTimingInterceptor implements HandlerInterceptor {
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestTimings timings = RequestTimings.current();
+        if (timings != null) {
+            timings.markHandlerStart();
+        }
+        return true;
+    }
+    
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        RequestTimings.markSerializationStart();
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        RequestTimings timings = RequestTimings.current();
+        if (timings != null) {
+            timings.markSerializationEnd();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.tasklistapp.jdbc;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Counts statements, fetched rows, written rows, commits and execution time into {@link SqlStatementStats}.
+ * Connections, statements and result sets are wrapped in JDK proxies that only intercept the execute
+ * methods, {@code commit}, {@code rollback} and {@link ResultSet#next()}; everything else goes straight
+ * to the pooled objects.
+ * Unlike {@code show-sql} this does no I/O on the request thread.
+ */
+public class ProfilingDataSource extends DelegatingDataSource {
+    
+    public ProfilingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(Connection.class, new ConnectionHandler(super.getConnection()));
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static <T> T wrap(Class<T> type, InvocationHandler handler) {
+        // Proxies compare by identity, so Hibernate's statement and result set registries keep working
+        InvocationHandler identityAware = (proxy, method, args) -> switch (method.getName()) {
+            case "equals" -> args != null && args.length == 1 && proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> handler.invoke(proxy, method, args);
+        };
+        return (T) Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(), new Class<?>[] {type}, identityAware);
+    }
+    
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+    
+    private static final class ConnectionHandler implements InvocationHandler {
+        
+        private final Connection target;
+        // Rows written since the last commit or rollback; a connection is used by one thread at a time
+        private long rowsWritten;
+        
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = ProfilingDataSource.invoke(target, method, args);
+            if (result instanceof Statement statement) {
+                // createStatement, prepareStatement or prepareCall: keep the declared interface
+                return wrap(method.getReturnType(), new StatementHandler(statement, this));
+            }
+            if (args == null && method.getName().equals("commit")) {
+                SqlStatementStats.recordCommit(rowsWritten > 0);
+                rowsWritten = 0;
+            } else if (args == null && method.getName().equals("rollback")) {
+                rowsWritten = 0;
+            }
+            return result;
+        }
+        
+        void recordRowsWritten(long rows) {
+            rowsWritten += rows;
+            SqlStatementStats.recordRowsWritten(rows);
+        }
+    }
+    
+    private record StatementHandler(Statement target, ConnectionHandler connection) implements InvocationHandler {
+        
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                long start = System.nanoTime();
+                try {
+                    Object result = ProfilingDataSource.invoke(target, method, args);
+                    recordRowsWritten(result);
+                    return result instanceof ResultSet resultSet ? wrapResultSet(resultSet) : result;
+                } finally {
+                    SqlStatementStats.recordExecution(System.nanoTime() - start);
+                }
+            }
+            Object result = ProfilingDataSource.invoke(target, method, args);
+            if (name.equals("getResultSet") && result instanceof ResultSet resultSet) {
+                return wrapResultSet(resultSet);
+            }
+            return result;
+        }
+        
+        // Update counts of executeUpdate and executeBatch; a batch entry without a count is one row
+        private void recordRowsWritten(Object result) {
+            long rows = 0;
+            if (result instanceof Integer count) {
+                rows = count;
+            } else if (result instanceof Long count) {
+                rows = count;
+            } else if (result instanceof int[] counts) {
+                rows = Arrays.stream(counts).mapToLong(count -> count == Statement.SUCCESS_NO_INFO ? 1 : count).sum();
+            } else if (result instanceof long[] counts) {
+                rows = Arrays.stream(counts).map(count -> count == Statement.SUCCESS_NO_INFO ? 1 : count).sum();
+            }
+            if (rows > 0) {
+                connection.recordRowsWritten(rows);
+            }
+        }
+    }
+    
+    private static ResultSet wrapResultSet(ResultSet resultSet) {
+        return wrap(ResultSet.class, (proxy, method, args) -> {
+            Object result = invoke(resultSet, method, args);
+            if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                SqlStatementStats.recordRow();
+            }
+            return result;
+        });
+    }
+}
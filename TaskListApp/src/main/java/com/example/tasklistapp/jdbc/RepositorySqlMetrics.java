@@ -0,0 +1,66 @@
+package com.example.tasklistapp.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Attributes the SQL executed inside each repository method to that method as
+ * {@code sql.statements}, {@code sql.rows} and {@code sql.time}, tagged by repository and method.
+ * Statements flushed at commit run outside any repository call and only show up per request.
+ */
+public class RepositorySqlMetrics implements MethodInterceptor {
+    
+    private final String repository;
+    private final Supplier<MeterRegistry> registry;
+    private final Map<Method, Meters> meters = new ConcurrentHashMap<>();
+    
+    /**
+     * The registry is looked up on first use, since repositories are created before most other beans.
+     */
+    public RepositorySqlMetrics(Class<?> repositoryInterface, Supplier<MeterRegistry> registry) {
+        this.repository = repositoryInterface.getSimpleName();
+        this.registry = registry;
+    }
+    
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        SqlStatementStats.Snapshot before = SqlStatementStats.snapshot();
+        try {
+            return invocation.proceed();
+        } finally {
+            SqlStatementStats.Snapshot used = SqlStatementStats.snapshot().minus(before);
+            if (used.statements() > 0) {
+                meters.computeIfAbsent(invocation.getMethod(), this::createMeters).record(used);
+            }
+        }
+    }
+    
+    private Meters createMeters(Method method) {
+        MeterRegistry registry = this.registry.get();
+        return new Meters(
+                Counter.builder("sql.statements").description("JDBC statements executed by repository method")
+                        .tag("repository", repository).tag("method", method.getName()).register(registry),
+                Counter.builder("sql.rows").description("Result set rows fetched by repository method")
+                        .tag("repository", repository).tag("method", method.getName()).register(registry),
+                Timer.builder("sql.time").description("JDBC execution time by repository method")
+                        .tag("repository", repository).tag("method", method.getName()).register(registry));
+    }
+    
+    private record Meters(Counter statements, Counter rows, Timer time) {
+        
+        void record(SqlStatementStats.Snapshot used) {
+            statements.increment(used.statements());
+            rows.increment(used.rows());
+            time.record(used.nanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
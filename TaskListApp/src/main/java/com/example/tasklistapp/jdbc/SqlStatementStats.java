@@ -0,0 +1,77 @@
+package com.example.tasklistapp.jdbc;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals of the JDBC work done on the current thread, maintained by {@link ProfilingDataSource}.
+ * Callers take a {@link #snapshot()} before and after a unit of work (a request, a repository call,
+ * a test) and subtract, so no scope has to be opened or closed around the statements themselves.
+ * Commits and written rows are also totalled across all threads, since writes are not always
+ * made on the thread that asked for them.
+ */
+public final class SqlStatementStats {
+    
+    public record Snapshot(long statements, long rows, long nanos) {
+        
+        public Snapshot minus(Snapshot earlier) {
+            return new Snapshot(statements - earlier.statements, rows - earlier.rows, nanos - earlier.nanos);
+        }
+    }
+    
+    private static final ThreadLocal<SqlStatementStats> CURRENT = ThreadLocal.withInitial(SqlStatementStats::new);
+    
+    private static final LongAdder COMMITS = new LongAdder();
+    private static final LongAdder WRITE_COMMITS = new LongAdder();
+    private static final LongAdder ROWS_WRITTEN = new LongAdder();
+    
+    private long statements;
+    private long rows;
+    private long nanos;
+    
+    private SqlStatementStats() {
+    }
+    
+    public static Snapshot snapshot() {
+        SqlStatementStats stats = CURRENT.get();
+        return new Snapshot(stats.statements, stats.rows, stats.nanos);
+    }
+    
+    static void recordExecution(long elapsedNanos) {
+        SqlStatementStats stats = CURRENT.get();
+        stats.statements++;
+        stats.nanos += elapsedNanos;
+    }
+    
+    static void recordRow() {
+        CURRENT.get().rows++;
+    }
+    
+    /**
+     * All commits, including those of read-only transactions.
+     */
+    public static long getCommits() {
+        return COMMITS.sum();
+    }
+    
+    /**
+     * Commits of transactions that inserted, updated or deleted at least one row.
+     */
+    public static long getWriteCommits() {
+        return WRITE_COMMITS.sum();
+    }
+    
+    public static long getRowsWritten() {
+        return ROWS_WRITTEN.sum();
+    }
+    
+    static void recordCommit(boolean wrote) {
+        COMMITS.increment();
+        if (wrote) {
+            WRITE_COMMITS.increment();
+        }
+    }
+    
+    static void recordRowsWritten(long rows) {
+        ROWS_WRITTEN.add(rows);
+    }
+}
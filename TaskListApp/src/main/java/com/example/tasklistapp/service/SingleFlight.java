@@ -0,0 +1,80 @@
+package com.example.tasklistapp.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into one execution whose result is handed
+ * to every caller that arrived while it was running. Nothing is retained once the call
+ * completes, so this only removes duplicate work and never serves stale data on its own.
+ */
+public class SingleFlight<K, V> {
+    
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder joins = new LongAdder();
+    
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            joins.increment();
+            return await(existing);
+        }
+        
+        executions.increment();
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+    
+    /**
+     * Detaches the call currently running for the key, if any, so that callers arriving
+     * afterwards start a fresh execution instead of joining one that may predate a write.
+     */
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+    
+    public long getExecutions() {
+        return executions.sum();
+    }
+    
+    public long getJoins() {
+        return joins.sum();
+    }
+    
+    /**
+     * Share of calls that were served by joining another caller's execution.
+     */
+    public double getCoalescingRatio() {
+        long joined = joins.sum();
+        long total = joined + executions.sum();
+        return total == 0 ? 0.0 : (double) joined / total;
+    }
+    
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
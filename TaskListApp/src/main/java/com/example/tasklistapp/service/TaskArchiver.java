@@ -0,0 +1,154 @@
+package com.example.tasklistapp.service;
+
+import com.example.tasklistapp.Model.ArchivedTask;
+import com.example.tasklistapp.Model.ArchivedTaskRepository;
+import com.example.tasklistapp.Model.CompressedText;
+import com.example.tasklistapp.Model.Task;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Moves completed tasks that have not changed for {@code app.archive.min-age} out of {@code tasks}
+ * into {@link ArchivedTask archived_tasks}, so the table every list and status query reads only
+ * grows with a user's open and recent work. Runs every {@code app.archive.interval} when
+ * {@code app.archive.enabled}, {@code app.archive.batch-size} tasks per transaction.
+ * <p>
+ * Candidates are found by walking the primary key, so a run reads the table once and needs no
+ * index on status or time. A task is only moved if its row still has the version it was read at
+ * and it has no buffered write-behind update, checked together with the deletion by
+ * {@link TaskWriteBehind#removeUnlessPending}; anything changed in between stays for the next run.
+ */
+@Slf4j
+@Component
+public class TaskArchiver {
+    
+    private static final String SELECT_SQL = "select id, user_id, short_description, long_description, "
+            + "compressed_long_description, created_at, updated_at, version from tasks "
+            + "where id > ? and status = 'DONE' and deleted_at is null and updated_at < ? order by id limit ?";
+    private static final String DELETE_SQL = "delete from tasks where id = ? and version = ?";
+    private static final String INSERT_SQL = "insert into archived_tasks "
+            + "(id, user_id, short_description, long_description, created_at, updated_at, archived_at) "
+            + "values (?, ?, ?, ?, ?, ?, ?)";
+    
+    private record Candidate(String id, Long userId, String shortDescription, byte[] longDescription,
+                             Timestamp createdAt, Timestamp updatedAt, long version) {
+    }
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TaskMaintenance taskMaintenance;
+    
+    @Autowired
+    private ArchivedTaskRepository archivedTaskRepository;
+    
+    @Autowired
+    private TaskWriteBehind taskWriteBehind;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${app.archive.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.archive.interval:1h}")
+    private Duration interval;
+    
+    @Value("${app.archive.min-age:30d}")
+    private Duration minAge;
+    
+    @Value("${app.archive.batch-size:500}")
+    private int batchSize;
+    
+    // On startup rather than @PostConstruct: under lazy initialization nothing else would create this bean
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (enabled) {
+            taskMaintenance.schedule("task-archiver", interval, this::archive, "Archiving completed tasks failed");
+        }
+    }
+    
+    /**
+     * Archives every completed task last updated more than {@code app.archive.min-age} ago.
+     *
+     * @return the number of tasks archived
+     */
+    public long archive() {
+        return archive(LocalDateTime.now().minus(minAge).truncatedTo(ChronoUnit.MICROS));
+    }
+    
+    long archive(LocalDateTime cutoff) {
+        long start = System.nanoTime();
+        long archived = 0;
+        String after = "";
+        List<Candidate> candidates;
+        do {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            // A description the task already stores compressed moves as it is
+            candidates = jdbcTemplate.query(SELECT_SQL, (row, n) -> new Candidate(row.getString(1), row.getLong(2),
+                    row.getString(3), row.getBytes(5) != null ? row.getBytes(5) : CompressedText.compress(row.getString(4)),
+                    row.getTimestamp(6), row.getTimestamp(7), row.getLong(8)), after, Timestamp.valueOf(cutoff), batchSize);
+            if (candidates.isEmpty()) {
+                break;
+            }
+            after = candidates.get(candidates.size() - 1).id();
+            archived += archiveBatch(candidates);
+        } while (candidates.size() == batchSize);
+        if (archived > 0) {
+            log.info("Archived {} completed tasks in {} ms", archived, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return archived;
+    }
+    
+    private int archiveBatch(List<Candidate> candidates) {
+        return taskWriteBehind.removeUnlessPending(candidates, Candidate::id,
+                movable -> taskMaintenance.updateUnchanged(DELETE_SQL, movable, Candidate::id, (statement, candidate) -> {
+                    statement.setString(1, candidate.id());
+                    statement.setLong(2, candidate.version());
+                }, this::insertArchived)).size();
+    }
+    
+    // Runs in the batch's transaction, with the tasks it deleted
+    private void insertArchived(List<Candidate> deleted) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        jdbcTemplate.batchUpdate(INSERT_SQL, deleted, deleted.size(), (statement, candidate) -> {
+            statement.setString(1, candidate.id());
+            statement.setLong(2, candidate.userId());
+            statement.setString(3, candidate.shortDescription());
+            statement.setBytes(4, candidate.longDescription());
+            statement.setTimestamp(5, candidate.createdAt());
+            statement.setTimestamp(6, candidate.updatedAt());
+            statement.setTimestamp(7, now);
+        });
+        deleted.stream()
+                .collect(Collectors.groupingBy(Candidate::userId, TreeMap::new,
+                        Collectors.mapping(Candidate::id, Collectors.toList())))
+                .forEach((userId, ids) -> eventPublisher.publishEvent(TaskChangedEvent.bulk(userId, ids)));
+    }
+    
+    /**
+     * A page of the user's archived tasks, the most recently completed first.
+     */
+    public List<ArchivedTask> getArchivedTasks(Long userId, int page, int size) {
+        return archivedTaskRepository.findByUserIdOrderByUpdatedAtDescIdDesc(userId, PageRequest.of(page, size));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.tasklistapp.service;
+
+import com.example.tasklistapp.Model.Task;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Inserts tasks with one JDBC batch per call, bypassing the persistence context. Meant for bulk
+ * loads only: no entity callbacks run and no {@link TaskChangedEvent} is published, so callers
+ * are responsible for anything that normally reacts to a new task.
+ */
+@Component
+public class TaskBatchWriter {
+    
+    private static final String INSERT_SQL = "insert into tasks "
+            + "(id, short_description, long_description, compressed_long_description, status, user_id, "
+            + "created_at, updated_at, version) values (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    public void insert(Long userId, List<Task> tasks) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, tasks, tasks.size(), (statement, task) -> {
+            statement.setString(1, task.getId());
+            statement.setString(2, task.getShortDescription());
+            // Compressed by setLongDescription if it is long, in which case only those bytes are stored
+            statement.setString(3, task.getCompressedLongDescription() == null ? task.getLongDescription() : null);
+            statement.setBytes(4, task.getCompressedLongDescription());
+            statement.setString(5, task.getStatus().name());
+            statement.setLong(6, userId);
+            statement.setTimestamp(7, Timestamp.valueOf(task.getCreatedAt()));
+            statement.setTimestamp(8, Timestamp.valueOf(task.getUpdatedAt()));
+        });
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.tasklistapp.service;
+
+import com.example.tasklistapp.Model.Task;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Application event published by {@link TaskService} whenever a user's tasks change.
+ * Listeners that must only observe committed state use {@code @TransactionalEventListener}.
+ */
+public class TaskChangedEvent {
+    
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        /**
+         * Any number of the user's tasks changed at once, through a set-based statement; there is
+         * no single task to report, only the ids of those that changed.
+         */
+        BULK
+    }
+    
+    private final Type type;
+    private final Long userId;
+    private final String taskId;
+    private final Task task;
+    private final List<String> taskIds;
+    private final boolean partial;
+    
+    public TaskChangedEvent(Type type, Long userId, String taskId, Task task) {
+        this(type, userId, taskId, task, taskId == null ? List.of() : List.of(taskId), false);
+    }
+    
+    private TaskChangedEvent(Type type, Long userId, String taskId, Task task, List<String> taskIds, boolean partial) {
+        this.type = type;
+        this.userId = userId;
+        this.taskId = taskId;
+        this.task = task;
+        this.taskIds = taskIds;
+        this.partial = partial;
+    }
+    
+    public static TaskChangedEvent created(Task task) {
+        return new TaskChangedEvent(Type.CREATED, task.getUser().getId(), task.getId(), task);
+    }
+    
+    public static TaskChangedEvent updated(Task task) {
+        return new TaskChangedEvent(Type.UPDATED, task.getUser().getId(), task.getId(), task);
+    }
+    
+    public static TaskChangedEvent deleted(String taskId, Long userId) {
+        return new TaskChangedEvent(Type.DELETED, userId, taskId, null);
+    }
+    
+    public static TaskChangedEvent bulk(Long userId, Collection<String> taskIds) {
+        return new TaskChangedEvent(Type.BULK, userId, null, null, List.copyOf(taskIds), false);
+    }
+    
+    /**
+     * One step of a bulk change committed in several, such as a batch of an import. The caches and
+     * indexes follow each step, but clients are only told by a {@link #bulk} event once the last
+     * step has committed.
+     */
+    public static TaskChangedEvent bulkStep(Long userId, Collection<String> taskIds) {
+        return new TaskChangedEvent(Type.BULK, userId, null, null, List.copyOf(taskIds), true);
+    }
+    
+    public Type getType() {
+        return type;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public String getTaskId() {
+        return taskId;
+    }
+    
+    /**
+     * The ids of the tasks that changed, deleted ones included.
+     */
+    public List<String> getTaskIds() {
+        return taskIds;
+    }
+    
+    /**
+     * Whether this is a {@link #bulkStep}, which clients are not told about.
+     */
+    public boolean isPartial() {
+        return partial;
+    }
+    
+    /**
+     * The task state after the change, or {@code null} for {@link Type#DELETED} and {@link Type#BULK}.
+     */
+    public Task getTask() {
+        return task;
+    }
+}
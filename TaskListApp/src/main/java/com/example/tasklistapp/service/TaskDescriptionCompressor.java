@@ -0,0 +1,121 @@
+package com.example.tasklistapp.service;
+
+import com.example.tasklistapp.Model.CompressedText;
+import com.example.tasklistapp.Model.Task;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compresses the long descriptions stored before {@link Task} compressed them itself, so existing
+ * rows take the space new ones do. Runs once in the background after startup when
+ * {@code app.description-compression.migrate-on-start}, {@code app.description-compression.batch-size}
+ * rows per transaction. Compressed rows no longer match the query, so running it again only finds
+ * rows written by an older version of the application meanwhile.
+ * <p>
+ * Like {@link TaskArchiver} it walks the primary key, skips tasks with a buffered write-behind
+ * update, and only rewrites a row that still has the version it was read at. The rewrite bumps the
+ * version like any other write, so an update that read the task before it fails its version check
+ * rather than setting {@code long_description} next to the compressed copy.
+ */
+@Slf4j
+@Component
+public class TaskDescriptionCompressor {
+    
+    private static final String SELECT_SQL = "select id, user_id, long_description, version from tasks "
+            + "where id > ? and char_length(long_description) >= ? order by id limit ?";
+    private static final String UPDATE_SQL = "update tasks set long_description = null, compressed_long_description = ?, "
+            + "version = version + 1 where id = ? and version = ?";
+    
+    private record Candidate(String id, Long userId, int length, byte[] compressed, long version) {
+    }
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TaskMaintenance taskMaintenance;
+    
+    @Autowired
+    private TaskWriteBehind taskWriteBehind;
+    
+    @Autowired
+    private TaskListResponseCache taskListResponseCache;
+    
+    @Value("${app.description-compression.migrate-on-start:true}")
+    private boolean migrateOnStart;
+    
+    @Value("${app.description-compression.batch-size:500}")
+    private int batchSize;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (migrateOnStart) {
+            // A batch in progress at shutdown rolls back, and its rows are found again on the next start
+            taskMaintenance.runOnce("task-description-compressor", this::compress,
+                    "Compressing long task descriptions failed");
+        }
+    }
+    
+    /**
+     * Compresses every long description still stored as plain text.
+     *
+     * @return the number of descriptions compressed
+     */
+    public long compress() {
+        long start = System.nanoTime();
+        long compressed = 0;
+        long plainChars = 0;
+        long compressedBytes = 0;
+        String after = "";
+        List<Candidate> candidates;
+        do {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            candidates = jdbcTemplate.query(SELECT_SQL, (row, n) -> {
+                String text = row.getString(3);
+                return new Candidate(row.getString(1), row.getLong(2), text.length(),
+                        CompressedText.compressIfSmaller(text, Task.COMPRESSION_MIN_LENGTH), row.getLong(4));
+            }, after, Task.COMPRESSION_MIN_LENGTH, batchSize);
+            if (candidates.isEmpty()) {
+                break;
+            }
+            after = candidates.get(candidates.size() - 1).id();
+            // Text that does not shrink stays as it is
+            List<Candidate> compressible = candidates.stream()
+                    .filter(candidate -> candidate.compressed() != null && !taskWriteBehind.isPending(candidate.id()))
+                    .toList();
+            for (Candidate candidate : compressBatch(compressible)) {
+                compressed++;
+                plainChars += candidate.length();
+                compressedBytes += candidate.compressed().length;
+            }
+        } while (candidates.size() == batchSize);
+        if (compressed > 0) {
+            log.info("Compressed {} long descriptions, {} characters to {} bytes, in {} ms", compressed, plainChars,
+                    compressedBytes, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return compressed;
+    }
+    
+    private List<Candidate> compressBatch(List<Candidate> candidates) {
+        List<Candidate> written = taskMaintenance.updateUnchanged(UPDATE_SQL, candidates, Candidate::id,
+                (statement, candidate) -> {
+                    statement.setBytes(1, candidate.compressed());
+                    statement.setString(2, candidate.id());
+                    statement.setLong(3, candidate.version());
+                });
+        // The text is the same, so no TaskChangedEvent: the indexes and the id lists stay as they are,
+        // and clients are not told to resync. Only cached list responses carry the old versions as ETags
+        written.stream().map(Candidate::userId).distinct().forEach(taskListResponseCache::invalidate);
+        return written;
+    }
+}
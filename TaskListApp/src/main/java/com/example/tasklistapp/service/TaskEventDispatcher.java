@@ -0,0 +1,294 @@
+package com.example.tasklistapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans committed task changes out to the Server-Sent Event streams of the owning user.
+ * 
+ * Connections are held by the servlet container in async mode, so no thread is parked per
+ * subscriber: a small pool of {@code app.events.dispatch-threads} drains per-subscriber queues and
+ * writes the events, heartbeats included, one drain per subscriber at a time. Writes block, so a
+ * client that stops reading holds a dispatcher thread until the container's write timeout; the
+ * other threads keep serving everyone else meanwhile.
+ * Each queue is bounded; a subscriber that falls behind is disconnected and catches up on
+ * reconnect through {@code Last-Event-ID} from a short per-user replay buffer, or is told to
+ * resync when it has missed more than the buffer holds.
+ * 
+ * Event ids take the form {@code <epoch>-<sequence>}. The sequence counts the user's events, but
+ * restarts whenever the channel does, after it has sat idle or the application restarted; the
+ * epoch tells those channels apart, and an id from any other epoch is answered with a resync.
+ */
+@Slf4j
+@Component
+public class TaskEventDispatcher {
+    
+    static final String RESYNC_EVENT = "resync";
+    
+    private static final long HEARTBEAT_SECONDS = 25;
+    private static final long IDLE_CHANNEL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final Message HEARTBEAT = new Message(0, null, null);
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${app.events.subscriber-buffer:128}")
+    private int subscriberBuffer;
+    
+    @Value("${app.events.replay-size:256}")
+    private int replaySize;
+    
+    @Value("${app.events.dispatch-threads:4}")
+    private int dispatchThreads;
+    
+    private final Map<Long, UserChannel> channels = new ConcurrentHashMap<>();
+    
+    private ScheduledExecutorService dispatcher;
+    
+    @PostConstruct
+    void startHeartbeat() {
+        dispatcher = Executors.newScheduledThreadPool(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "task-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.scheduleAtFixedRate(this::heartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        dispatcher.shutdownNow();
+        channels.values().forEach(channel -> channel.subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        channels.clear();
+    }
+    
+    /**
+     * Opens an event stream for the user. When {@code lastEventId} is given (browsers send it
+     * automatically on reconnect) the events the client missed are replayed first.
+     */
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber subscriber = new Subscriber(emitter, subscriberBuffer);
+        
+        UserChannel channel = channels.compute(userId, (id, existing) -> {
+            UserChannel target = existing != null ? existing : new UserChannel();
+            target.register(subscriber, lastEventId);
+            return target;
+        });
+        
+        emitter.onCompletion(() -> channel.subscribers.remove(subscriber));
+        emitter.onTimeout(() -> channel.subscribers.remove(subscriber));
+        emitter.onError(error -> channel.subscribers.remove(subscriber));
+        
+        schedule(channel, subscriber);
+        return emitter;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        UserChannel channel = channels.get(event.getUserId());
+        // The steps of a bulk change are followed by one event for all of it
+        if (channel == null || event.isPartial()) {
+            return;
+        }
+        
+        // Clients reload after a bulk change rather than receiving an event per task
+        boolean bulk = event.getType() == TaskChangedEvent.Type.BULK;
+        String data = bulk ? "{}" : serialize(event);
+        if (data == null) {
+            return;
+        }
+        
+        String name = bulk ? RESYNC_EVENT : "task-" + event.getType().name().toLowerCase();
+        for (Subscriber subscriber : channel.publish(name, data)) {
+            schedule(channel, subscriber);
+        }
+    }
+    
+    int getSubscriberCount(Long userId) {
+        UserChannel channel = channels.get(userId);
+        return channel == null ? 0 : channel.subscribers.size();
+    }
+    
+    private String serialize(TaskChangedEvent event) {
+        try {
+            if (event.getType() == TaskChangedEvent.Type.DELETED) {
+                return objectMapper.writeValueAsString(Map.of("id", event.getTaskId()));
+            }
+            return objectMapper.writeValueAsString(event.getTask());
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize task event for task {}: {}", event.getTaskId(), e.getMessage());
+            return null;
+        }
+    }
+    
+    private void schedule(UserChannel channel, Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                dispatcher.execute(() -> drain(channel, subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+    
+    // Runs while the subscriber's flag is set, so no two threads write to the same stream
+    private void drain(UserChannel channel, Subscriber subscriber) {
+        try {
+            do {
+                Message message;
+                while ((message = subscriber.queue.poll()) != null) {
+                    subscriber.emitter.send(message == HEARTBEAT
+                            ? SseEmitter.event().comment("keep-alive")
+                            : SseEmitter.event().id(channel.epoch + "-" + message.id).name(message.name).data(message.data));
+                }
+                subscriber.scheduled.set(false);
+                // A message queued after the last poll found the flag still set and did not schedule a drain
+            } while (!subscriber.queue.isEmpty() && subscriber.scheduled.compareAndSet(false, true));
+        } catch (IOException | IllegalStateException e) {
+            // The flag stays set, so nothing is written to the stream again
+            channel.subscribers.remove(subscriber);
+            subscriber.emitter.complete();
+        }
+    }
+    
+    private void heartbeat() {
+        long idleSince = System.currentTimeMillis() - IDLE_CHANNEL_MILLIS;
+        for (Long userId : channels.keySet()) {
+            channels.computeIfPresent(userId, (id, channel) -> channel.isIdleSince(idleSince) ? null : channel);
+        }
+        
+        for (UserChannel channel : channels.values()) {
+            for (Subscriber subscriber : channel.subscribers) {
+                // Written by the subscriber's own drain; one with a full queue is not idle anyway
+                if (subscriber.queue.offer(HEARTBEAT)) {
+                    schedule(channel, subscriber);
+                }
+            }
+        }
+    }
+    
+    private final class UserChannel {
+        
+        private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong(Long.MAX_VALUE), 36);
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private final Deque<Message> replay = new ArrayDeque<>();
+        private long sequence;
+        private volatile long lastActivity = System.currentTimeMillis();
+        
+        synchronized void register(Subscriber subscriber, String lastEventId) {
+            lastActivity = System.currentTimeMillis();
+            if (lastEventId == null || lastEventId.isBlank()) {
+                subscribers.add(subscriber);
+                return;
+            }
+            Long resumeAfter = resumePoint(lastEventId.trim());
+            if (resumeAfter == null || resumeAfter > sequence) {
+                // Numbered by another channel, the client state cannot be trusted
+                subscriber.queue.offer(new Message(sequence, RESYNC_EVENT, "{}"));
+            } else if (resumeAfter < sequence) {
+                Message oldest = replay.peekFirst();
+                List<Message> missed = replay.stream()
+                        .filter(message -> message.id > resumeAfter)
+                        .toList();
+                if (oldest == null || oldest.id > resumeAfter + 1
+                        || missed.size() > subscriber.queue.remainingCapacity()) {
+                    subscriber.queue.offer(new Message(sequence, RESYNC_EVENT, "{}"));
+                } else {
+                    missed.forEach(subscriber.queue::offer);
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        
+        /**
+         * The sequence of an event id from this channel's epoch, or {@code null} for any other id.
+         */
+        private Long resumePoint(String eventId) {
+            int separator = eventId.lastIndexOf('-');
+            if (separator < 0 || !eventId.substring(0, separator).equals(epoch)) {
+                return null;
+            }
+            try {
+                return Long.parseLong(eventId.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        
+        /**
+         * Appends the event to the replay buffer and queues it for every subscriber,
+         * returning the subscribers that still need a drain.
+         */
+        synchronized List<Subscriber> publish(String name, String data) {
+            lastActivity = System.currentTimeMillis();
+            Message message = new Message(++sequence, name, data);
+            replay.addLast(message);
+            if (replay.size() > replaySize) {
+                replay.removeFirst();
+            }
+            
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.queue.offer(message)) {
+                    log.debug("Disconnecting slow task event subscriber after {} queued events", subscriberBuffer);
+                    subscribers.remove(subscriber);
+                    subscriber.emitter.complete();
+                }
+            }
+            return subscribers;
+        }
+        
+        boolean isIdleSince(long timestamp) {
+            return subscribers.isEmpty() && lastActivity < timestamp;
+        }
+    }
+    
+    private static final class Subscriber {
+        
+        private final SseEmitter emitter;
+        private final BlockingQueue<Message> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        
+        Subscriber(SseEmitter emitter, int capacity) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+    
+    private static final class Message {
+        
+        private final long id;
+        private final String name;
+        private final String data;
+        
+        Message(long id, String name, String data) {
+            this.id = id;
+            this.name = name;
+            this.data = data;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.tasklistapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Each user's task ids in list order, bounded by an estimate of their heap size and evicted by
+ * Caffeine's W-TinyLFU policy. The tasks themselves live in the Hibernate second-level cache.
+ * <p>
+ * Invalidation has to win against a reader that queried before a write committed and stores its
+ * result afterwards. Readers note the key's generation before loading and drop what they stored
+ * if it moved in the meantime; {@link #invalidate} moves it and is called once the write is committed.
+ */
+@Component
+public class TaskIdCache {
+    
+    // Rough heap cost of a cached list and of each UUID string in it
+    private static final int LIST_BYTES = 64;
+    private static final int ID_BYTES = 88;
+    // Keys share generation counters; a collision only costs an occasional skipped store
+    private static final int STRIPES = 1024;
+    
+    private final Cache<Long, List<String>> cache;
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    
+    public TaskIdCache(@Value("${app.cache.task-ids.max-size:32MB}") DataSize maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Long userId, List<String> ids) -> LIST_BYTES + ids.size() * ID_BYTES)
+                .recordStats()
+                .build();
+    }
+    
+    public List<String> get(Long userId, Supplier<List<String>> loader) {
+        List<String> ids = cache.getIfPresent(userId);
+        if (ids != null) {
+            return ids;
+        }
+        int stripe = stripe(userId);
+        long generation = generations.get(stripe);
+        ids = loader.get();
+        cache.put(userId, ids);
+        if (generations.get(stripe) != generation) {
+            cache.asMap().remove(userId, ids);
+        }
+        return ids;
+    }
+    
+    public void invalidate(Long userId) {
+        generations.incrementAndGet(stripe(userId));
+        cache.invalidate(userId);
+    }
+    
+    public Cache<Long, List<String>> getCache() {
+        return cache;
+    }
+    
+    private static int stripe(Long userId) {
+        return Long.hashCode(userId) & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.tasklistapp.service;
+
+import com.example.tasklistapp.Model.Task;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Task list responses as already encoded bytes, per user and per {@link Shape}, so a repeated
+ * {@code GET /tasks} neither loads tasks nor runs Jackson. Bounded by the total size of the cached
+ * bodies and evicted by Caffeine's W-TinyLFU policy.
+ * <p>
+ * Bodies are encoded with the object mappers of the registered message converters, so they are
+ * byte for byte what the converters would have written. Above {@code compression-min-size} a body
+ * for a client that accepts gzip is stored compressed and sent as is.
+ * <p>
+ * A user's shapes are not tracked individually. Each entry records the user's generation when its
+ * load started, {@link #invalidate} moves the generation on, and an entry from an older generation
+ * is treated as missing. It has to be called after {@link TaskIdCache#invalidate}, or a reload
+ * could encode the ids that are about to be dropped.
+ */
+@Component
+public class TaskListResponseCache {
+    
+    /**
+     * What a cached body depends on besides the user: the list anchor, the encoding and whether
+     * the client accepts gzip.
+     */
+    public record Shape(String after, MediaType mediaType, boolean gzip) {
+    }
+    
+    public record Body(byte[] bytes, boolean gzipped) {
+    }
+    
+    private record Key(Long userId, Shape shape) {
+    }
+    
+    private record Entry(Body body, long generation) {
+    }
+    
+    // Rough heap cost of an entry besides its body
+    private static final int ENTRY_BYTES = 160;
+    // Users share generation counters; a collision only costs an occasional extra miss
+    private static final int STRIPES = 1024;
+    
+    private final Cache<Key, Entry> cache;
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    private final long compressionMinSize;
+    // In preference order for clients that accept several, JSON first as with the message converters
+    private final Map<MediaType, ObjectMapper> mappers = new LinkedHashMap<>();
+    
+    public TaskListResponseCache(@Value("${app.cache.task-list-responses.max-size:32MB}") DataSize maxSize,
+                                 @Value("${app.cache.task-list-responses.compression-min-size:2KB}") DataSize compressionMinSize,
+                                 MappingJackson2HttpMessageConverter jsonConverter,
+                                 MappingJackson2CborHttpMessageConverter cborConverter,
+                                 MappingJackson2SmileHttpMessageConverter smileConverter) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Key key, Entry entry) -> ENTRY_BYTES + entry.body().bytes().length)
+                .recordStats()
+                .build();
+        this.compressionMinSize = compressionMinSize.toBytes();
+        mappers.put(MediaType.APPLICATION_JSON, jsonConverter.getObjectMapper());
+        mappers.put(new MediaType("application", "cbor"), cborConverter.getObjectMapper());
+        mappers.put(new MediaType("application", "x-jackson-smile"), smileConverter.getObjectMapper());
+    }
+    
+    /**
+     * The shape of a list request from its raw {@code Accept} and {@code Accept-Encoding} headers,
+     * or empty if the client accepts none of the cached encodings and the message converters
+     * should negotiate (and most likely refuse) as usual.
+     */
+    public Optional<Shape> shapeFor(String after, String accept, String acceptEncoding) {
+        List<MediaType> accepted;
+        try {
+            accepted = accept == null || accept.isBlank() ? List.of(MediaType.ALL) : MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return Optional.empty();
+        }
+        boolean gzip = acceptsGzip(acceptEncoding);
+        return accepted.stream()
+                .filter(type -> type.getQualityValue() > 0)
+                .sorted(Comparator.comparingDouble(MediaType::getQualityValue).reversed())
+                .flatMap(type -> mappers.keySet().stream().filter(type::includes))
+                .findFirst()
+                .map(mediaType -> new Shape(after, mediaType, gzip));
+    }
+    
+    public Body get(Long userId, Shape shape, Supplier<List<Task>> loader) {
+        Key key = new Key(userId, shape);
+        long generation = generations.get(stripe(userId));
+        // Drop an entry from an older generation quietly, so the lookup below counts it as the miss it is
+        Entry outdated = cache.policy().getIfPresentQuietly(key);
+        if (outdated != null && outdated.generation() != generation) {
+            cache.asMap().remove(key, outdated);
+        }
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null && entry.generation() == generation) {
+            return entry.body();
+        }
+        Body body = encode(loader.get(), shape);
+        cache.put(key, new Entry(body, generation));
+        return body;
+    }
+    
+    public void invalidate(Long userId) {
+        generations.incrementAndGet(stripe(userId));
+    }
+    
+    public Cache<?, ?> getCache() {
+        return cache;
+    }
+    
+    private Body encode(List<Task> tasks, Shape shape) {
+        byte[] bytes;
+        try {
+            bytes = mappers.get(shape.mediaType()).writeValueAsBytes(tasks);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!shape.gzip() || bytes.length < compressionMinSize) {
+            return new Body(bytes, false);
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Body(compressed.toByteArray(), true);
+    }
+    
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            boolean refused = parts.length > 1 && parts[1].trim().matches("q=0(\\.0*)?");
+            if ((name.equalsIgnoreCase("gzip") || name.equals("*")) && !refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static int stripe(Long userId) {
+        return Long.hashCode(userId) & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.tasklistapp.service;
+
+import com.example.tasklistapp.Model.Task;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * What the background jobs that rewrite task rows behind Hibernate's back share: a daemon thread
+ * to run on, stopped before the data source closes, and versioned JDBC batches. Each job, such as
+ * {@link TaskPurger}, {@link TaskArchiver} or {@link TaskDescriptionCompressor}, selects its
+ * candidate rows along with their version and hands them to {@link #updateUnchanged}, which only
+ * changes the rows that still have that version.
+ */
+@Slf4j
+@Component
+public class TaskMaintenance {
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private final Queue<ExecutorService> executors = new ConcurrentLinkedQueue<>();
+    private final Set<String> scheduledJobs = ConcurrentHashMap.newKeySet();
+    private TransactionTemplate transactionTemplate;
+    
+    @PostConstruct
+    void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    /**
+     * Runs after the jobs, which depend on this bean, have been destroyed.
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        // A batch in progress rolls back if the data source closes under it, and is simply redone next time
+        for (ExecutorService executor : executors) {
+            executor.shutdownNow();
+        }
+        for (ExecutorService executor : executors) {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+    
+    /**
+     * Runs the job every {@code interval} on a thread of its own, logging rather than ending on failure.
+     */
+    void schedule(String threadName, Duration interval, Runnable job, String failure) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, threadName));
+        executors.add(scheduler);
+        scheduledJobs.add(threadName);
+        scheduler.scheduleWithFixedDelay(() -> runQuietly(job, failure), interval.toMillis(), interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Runs the job once on a thread of its own, logging a failure.
+     */
+    void runOnce(String threadName, Runnable job, String failure) {
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, threadName));
+        executors.add(executor);
+        executor.execute(() -> runQuietly(job, failure));
+        executor.shutdown();
+    }
+    
+    <T> List<T> updateUnchanged(String sql, List<T> rows, Function<T, String> id, ParameterizedPreparedStatementSetter<T> setter) {
+        return updateUnchanged(sql, rows, id, setter, changed -> {
+        });
+    }
+    
+    /**
+     * Runs a statement for each of the rows in one transaction and JDBC batch, then evicts the rows
+     * it changed from the second-level cache. The statement is expected to change a row only if it
+     * still has the version it was read at, so rows changed in between are left alone.
+     *
+     * @param setter        sets the statement's parameters for a row
+     * @param inTransaction runs in the transaction with the rows changed, unless there are none
+     * @return the rows the statement changed
+     */
+    <T> List<T> updateUnchanged(String sql, List<T> rows, Function<T, String> id, ParameterizedPreparedStatementSetter<T> setter,
+                                Consumer<List<T>> inTransaction) {
+        if (rows.isEmpty()) {
+            return rows;
+        }
+        List<T> changed = transactionTemplate.execute(status -> {
+            int[][] counts = jdbcTemplate.batchUpdate(sql, rows, rows.size(), setter);
+            List<T> changedRows = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                if (counts[0][i] > 0) {
+                    changedRows.add(rows.get(i));
+                }
+            }
+            if (!changedRows.isEmpty()) {
+                inTransaction.accept(changedRows);
+            }
+            return changedRows;
+        });
+        // The rows were changed behind Hibernate's back, so their cached state has to go
+        changed.forEach(row -> entityManagerFactory.getCache().evict(Task.class, id.apply(row)));
+        return changed;
+    }
+    
+    /**
+     * The thread names of the jobs scheduled to run repeatedly.
+     */
+    public Set<String> getScheduledJobs() {
+        return Set.copyOf(scheduledJobs);
+    }
+    
+    private static Thread daemon(Runnable runnable, String threadName) {
+        Thread thread = new Thread(runnable, threadName);
+        thread.setDaemon(true);
+        return thread;
+    }
+    
+    private static void runQuietly(Runnable job, String failure) {
+        try {
+            job.run();
+        } catch (RuntimeException e) {
+            log.warn(failure, e);
+        }
+    }
+}
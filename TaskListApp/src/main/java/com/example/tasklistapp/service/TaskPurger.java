@@ -0,0 +1,121 @@
+package com.example.tasklistapp.service;
+
+import com.example.tasklistapp.filter.AdaptiveConcurrencyLimit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removes the rows of deleted tasks, which {@link TaskService#deleteTask} only marks, once
+ * {@code app.soft-delete.undo-window} has passed. Every {@code app.soft-delete.purge-interval} the
+ * marked rows are deleted, {@code app.soft-delete.purge-batch-size} per transaction, as long as the
+ * task API is quiet: fewer than {@code app.soft-delete.quiet-in-flight} requests in flight. Rows
+ * kept waiting for {@code app.soft-delete.max-purge-delay} beyond the undo window go regardless.
+ * <p>
+ * Candidates are found through the index on {@code deleted_at}, and a row is only deleted if it
+ * still has the version it was read at, so a task restored in between stays.
+ */
+@Slf4j
+@Component
+public class TaskPurger {
+    
+    // The lower bound starts H2's range scan after the index entries of live tasks, whose nulls sort first
+    private static final String SELECT_SQL = "select id, version from tasks "
+            + "where deleted_at > ? and deleted_at < ? limit ?";
+    private static final String DELETE_SQL = "delete from tasks where id = ? and version = ?";
+    private static final Timestamp EPOCH = new Timestamp(0);
+    
+    private record Candidate(String id, long version) {
+    }
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TaskMaintenance taskMaintenance;
+    
+    // Absent when app.concurrency.enabled is off, in which case the API always counts as quiet
+    @Autowired(required = false)
+    @Qualifier("taskConcurrencyLimit")
+    private AdaptiveConcurrencyLimit taskConcurrencyLimit;
+    
+    @Value("${app.soft-delete.purge-enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.soft-delete.purge-interval:1m}")
+    private Duration interval;
+    
+    @Value("${app.soft-delete.undo-window:10m}")
+    private Duration undoWindow;
+    
+    @Value("${app.soft-delete.max-purge-delay:1h}")
+    private Duration maxPurgeDelay;
+    
+    @Value("${app.soft-delete.purge-batch-size:500}")
+    private int batchSize;
+    
+    @Value("${app.soft-delete.quiet-in-flight:2}")
+    private int quietInFlight;
+    
+    // On startup rather than @PostConstruct: under lazy initialization nothing else would create this bean
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (enabled) {
+            taskMaintenance.schedule("task-purger", interval, this::purge, "Purging deleted tasks failed");
+        }
+    }
+    
+    /**
+     * Purges the tasks deleted more than the undo window ago while the task API is quiet, and only
+     * those overdue by {@code app.soft-delete.max-purge-delay} while it is not.
+     *
+     * @return the number of tasks purged
+     */
+    public long purge() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(undoWindow).truncatedTo(ChronoUnit.MICROS);
+        return purge(cutoff, cutoff.minus(maxPurgeDelay));
+    }
+    
+    long purge(LocalDateTime cutoff, LocalDateTime overdueCutoff) {
+        long start = System.nanoTime();
+        long purged = 0;
+        List<Candidate> candidates;
+        do {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            // Checked before every batch, so a purge that is under way yields to traffic as it comes in
+            LocalDateTime before = isQuiet() ? cutoff : overdueCutoff;
+            candidates = jdbcTemplate.query(SELECT_SQL, (row, n) -> new Candidate(row.getString(1), row.getLong(2)),
+                    EPOCH, Timestamp.valueOf(before), batchSize);
+            purged += purgeBatch(candidates);
+        } while (candidates.size() == batchSize);
+        if (purged > 0) {
+            log.info("Purged {} deleted tasks in {} ms", purged, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return purged;
+    }
+    
+    private int purgeBatch(List<Candidate> candidates) {
+        return taskMaintenance.updateUnchanged(DELETE_SQL, candidates, Candidate::id, (statement, candidate) -> {
+            statement.setString(1, candidate.id());
+            statement.setLong(2, candidate.version());
+        }).size();
+    }
+    
+    private boolean isQuiet() {
+        return taskConcurrencyLimit == null || taskConcurrencyLimit.getInFlight() < quietInFlight;
+    }
+}
@@ -0,0 +1,375 @@
+package com.example.tasklistapp.service;
+
+import com.example.tasklistapp.Model.TaskText;
+import com.github.benmanes.caffeine.cache.Cache;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Per-user inverted index over task titles and descriptions, so a search request never reads the
+ * description column: the indexes are built and kept up to date by a {@link UserIndexCache} on
+ * threads of its own.
+ * <p>
+ * A match contains every term of the query. Matches are ranked by BM25, with a title term counting
+ * as much as two in the description, and ties go to the task updated last.
+ */
+@Component
+public class TaskSearchIndex {
+    
+    public record Result(int total, List<String> ids) {
+    }
+    
+    static final int MIN_TERM_LENGTH = 2;
+    static final int MAX_TERM_LENGTH = 32;
+    private static final int TITLE_WEIGHT = 2;
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    
+    private final UserIndexCache<UserIndex> indexes;
+    
+    public TaskSearchIndex(@Value("${app.cache.search-index.max-size:384MB}") DataSize maxSize,
+                           @Value("${app.cache.search-index.build-wait:500ms}") Duration buildWait) {
+        this.indexes = new UserIndexCache<>("Search index", "app.cache.search-index.max-size", maxSize, buildWait,
+                UserIndex::new, "task-search-index");
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        indexes.shutdown();
+    }
+    
+    /**
+     * Ranks the user's tasks against the query and returns the ids of the matches from
+     * {@code offset} on, at most {@code limit} of them.
+     *
+     * @param loader feeds the text of every one of the user's tasks to the given consumer; only
+     *               called when the user's index has to be built
+     */
+    public Result search(Long userId, String query, int offset, int limit, Consumer<Consumer<TaskText>> loader) {
+        List<String> terms = new ArrayList<>(terms(query));
+        if (terms.isEmpty()) {
+            return new Result(0, List.of());
+        }
+        return indexes.get(userId, loader).search(terms, offset, limit);
+    }
+    
+    /**
+     * Applies a committed change to the user's index, if it has one or is building one.
+     */
+    public void apply(TaskChangedEvent event) {
+        indexes.apply(event);
+    }
+    
+    /**
+     * Indexes the current state of tasks changed by a bulk change, in the background.
+     *
+     * @param loader feeds the text of those of the given tasks that still exist to the given consumer
+     * @return completes once the tasks have been indexed
+     */
+    public CompletableFuture<Void> reindex(Long userId, Collection<String> taskIds, Consumer<Consumer<TaskText>> loader) {
+        return indexes.reindex(userId, taskIds, loader);
+    }
+    
+    public Cache<Long, ?> getCache() {
+        return indexes.getCache();
+    }
+    
+    /**
+     * The distinct lower-case terms of a text in order of appearance: runs of letters and digits,
+     * ignoring those shorter than {@value #MIN_TERM_LENGTH} and cutting longer ones at
+     * {@value #MAX_TERM_LENGTH} characters.
+     */
+    static Set<String> terms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        forEachTerm(text, terms::add);
+        return terms;
+    }
+    
+    private static void forEachTerm(String text, Consumer<String> action) {
+        if (text == null) {
+            return;
+        }
+        StringBuilder term = new StringBuilder(MAX_TERM_LENGTH);
+        int length = 0;
+        for (int i = 0; i <= text.length(); ) {
+            int codePoint = i < text.length() ? text.codePointAt(i) : ' ';
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (length < MAX_TERM_LENGTH) {
+                    term.appendCodePoint(Character.toLowerCase(codePoint));
+                }
+                length++;
+            } else {
+                if (length >= MIN_TERM_LENGTH) {
+                    action.accept(term.toString());
+                }
+                term.setLength(0);
+                length = 0;
+            }
+            i += Character.charCount(codePoint);
+        }
+    }
+    
+    /**
+     * One user's index. Tasks are numbered in the order they were indexed and each term's postings
+     * list the numbers of the tasks containing it in ascending order, with the weighted term
+     * frequency. Reindexing or removing a task only retires its number; once retired numbers
+     * outnumber the live ones, the postings are rewritten without them.
+     */
+    static final class UserIndex implements UserIndexCache.Index<UserIndex> {
+        
+        // Rough heap cost per task (id, number and stamps) and per distinct term, on top of the postings
+        private static final int TASK_BYTES = 200;
+        private static final int TERM_BYTES = 150;
+        private static final int POSTING_BYTES = 6;
+        
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<String, Integer> numbers = new HashMap<>();
+        private final Map<String, Postings> postings = new HashMap<>();
+        // Indexed by task number; a retired number has no id
+        private String[] ids = new String[16];
+        private int[] lengths = new int[16];
+        private long[] versions = new long[16];
+        private long[] updatedAts = new long[16];
+        private int count;
+        private int live;
+        private long totalLength;
+        private long postingCount;
+        
+        @Override
+        public UserIndex index(TaskText text) {
+            lock.writeLock().lock();
+            try {
+                Integer existing = numbers.get(text.id());
+                long version = text.version() == null ? -1 : text.version();
+                long updatedAt = text.updatedAt() == null ? Long.MIN_VALUE
+                        : text.updatedAt().toEpochSecond(ZoneOffset.UTC) * 1_000_000 + text.updatedAt().getNano() / 1_000;
+                if (existing != null) {
+                    int number = existing;
+                    if (version < versions[number] || version == versions[number] && updatedAt <= updatedAts[number]) {
+                        return this;
+                    }
+                    retire(number);
+                }
+                
+                Map<String, Integer> frequencies = new HashMap<>();
+                int[] length = new int[1];
+                forEachTerm(text.shortDescription(), term -> {
+                    frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+                    length[0] += TITLE_WEIGHT;
+                });
+                forEachTerm(text.longDescription(), term -> {
+                    frequencies.merge(term, 1, Integer::sum);
+                    length[0]++;
+                });
+                
+                int number = count++;
+                if (number == ids.length) {
+                    int capacity = ids.length * 2;
+                    ids = Arrays.copyOf(ids, capacity);
+                    lengths = Arrays.copyOf(lengths, capacity);
+                    versions = Arrays.copyOf(versions, capacity);
+                    updatedAts = Arrays.copyOf(updatedAts, capacity);
+                }
+                ids[number] = text.id();
+                lengths[number] = length[0];
+                versions[number] = version;
+                updatedAts[number] = updatedAt;
+                numbers.put(text.id(), number);
+                live++;
+                totalLength += length[0];
+                frequencies.forEach((term, frequency) -> postings.computeIfAbsent(term, t -> new Postings()).add(number, frequency));
+                postingCount += frequencies.size();
+                compactIfSparse();
+                return this;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        
+        @Override
+        public UserIndex remove(String taskId) {
+            lock.writeLock().lock();
+            try {
+                Integer number = numbers.remove(taskId);
+                if (number != null) {
+                    retire(number);
+                    compactIfSparse();
+                }
+                return this;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        
+        Result search(List<String> terms, int offset, int limit) {
+            lock.readLock().lock();
+            try {
+                Postings[] lists = new Postings[terms.size()];
+                for (int i = 0; i < lists.length; i++) {
+                    lists[i] = postings.get(terms.get(i));
+                    if (lists[i] == null) {
+                        return new Result(0, List.of());
+                    }
+                }
+                // Walk the rarest term's postings and look the others up from where the last match was
+                Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+                float[] idf = new float[lists.length];
+                for (int i = 0; i < lists.length; i++) {
+                    int documentFrequency = Math.min(lists[i].size, live);
+                    idf[i] = (float) Math.log(1 + (live - documentFrequency + 0.5) / (documentFrequency + 0.5));
+                }
+                float averageLength = live == 0 ? 1 : (float) totalLength / live;
+                int[] positions = new int[lists.length];
+                
+                int wanted = offset + limit;
+                PriorityQueue<long[]> top = new PriorityQueue<>(Math.max(1, Math.min(wanted, 1024)),
+                        Comparator.<long[]>comparingDouble(hit -> Float.intBitsToFloat((int) hit[0]))
+                                .thenComparingLong(hit -> updatedAts[(int) hit[1]]));
+                int total = 0;
+                Postings rarest = lists[0];
+                candidates:
+                for (int p = 0; p < rarest.size; p++) {
+                    int number = rarest.numbers[p];
+                    if (ids[number] == null) {
+                        continue;
+                    }
+                    float norm = K1 * (1 - B + B * lengths[number] / averageLength);
+                    float score = idf[0] * bm25(rarest.frequencies[p], norm);
+                    for (int i = 1; i < lists.length; i++) {
+                        Postings list = lists[i];
+                        int found = Arrays.binarySearch(list.numbers, positions[i], list.size, number);
+                        if (found < 0) {
+                            positions[i] = -found - 1;
+                            continue candidates;
+                        }
+                        positions[i] = found;
+                        score += idf[i] * bm25(list.frequencies[found], norm);
+                    }
+                    total++;
+                    if (wanted > 0) {
+                        long[] hit = {Float.floatToIntBits(score), number};
+                        if (top.size() < wanted) {
+                            top.add(hit);
+                        } else if (top.comparator().compare(hit, top.peek()) > 0) {
+                            top.poll();
+                            top.add(hit);
+                        }
+                    }
+                }
+                
+                List<String> ranked = new ArrayList<>(top.size());
+                while (!top.isEmpty()) {
+                    ranked.add(ids[(int) top.poll()[1]]);
+                }
+                List<String> page = new ArrayList<>();
+                for (int i = ranked.size() - 1 - offset; i >= 0 && page.size() < limit; i--) {
+                    page.add(ranked.get(i));
+                }
+                return new Result(total, page);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        
+        private static float bm25(int frequency, float norm) {
+            return frequency * (K1 + 1) / (frequency + norm);
+        }
+        
+        @Override
+        public int weight() {
+            return (int) Math.min(Integer.MAX_VALUE,
+                    (long) count * TASK_BYTES + (long) postings.size() * TERM_BYTES + postingCount * POSTING_BYTES);
+        }
+        
+        private void retire(int number) {
+            ids[number] = null;
+            live--;
+            totalLength -= lengths[number];
+        }
+        
+        // Renumbers the live tasks in their current order, so the postings stay sorted
+        private void compactIfSparse() {
+            int retired = count - live;
+            if (retired < 64 || retired <= live) {
+                return;
+            }
+            int[] renumbered = new int[count];
+            int next = 0;
+            for (int number = 0; number < count; number++) {
+                if (ids[number] == null) {
+                    renumbered[number] = -1;
+                } else {
+                    renumbered[number] = next;
+                    ids[next] = ids[number];
+                    lengths[next] = lengths[number];
+                    versions[next] = versions[number];
+                    updatedAts[next] = updatedAts[number];
+                    numbers.put(ids[next], next);
+                    next++;
+                }
+            }
+            Arrays.fill(ids, next, count, null);
+            count = next;
+            postingCount = 0;
+            postings.values().removeIf(list -> {
+                list.renumber(renumbered);
+                postingCount += list.size;
+                return list.size == 0;
+            });
+        }
+    }
+    
+    private static final class Postings {
+        
+        private int[] numbers = new int[2];
+        private byte[] frequencies = new byte[2];
+        private int size;
+        
+        void add(int number, int frequency) {
+            if (size == numbers.length) {
+                int capacity = size + (size >> 1) + 1;
+                numbers = Arrays.copyOf(numbers, capacity);
+                frequencies = Arrays.copyOf(frequencies, capacity);
+            }
+            numbers[size] = number;
+            frequencies[size] = (byte) Math.min(frequency, Byte.MAX_VALUE);
+            size++;
+        }
+        
+        void renumber(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int number = renumbered[numbers[i]];
+                if (number >= 0) {
+                    numbers[kept] = number;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            if (size < numbers.length / 2) {
+                numbers = Arrays.copyOf(numbers, size);
+                frequencies = Arrays.copyOf(frequencies, size);
+            }
+        }
+    }
+}
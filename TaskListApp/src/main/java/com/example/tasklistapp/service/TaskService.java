@@ -3,68 +3,411 @@ package com.example.tasklistapp.service;
 import com.example.tasklistapp.Model.MyAppUser;
 import com.example.tasklistapp.Model.Task;
 import com.example.tasklistapp.Model.TaskRepository;
+import com.example.tasklistapp.Model.TaskText;
+import com.example.tasklistapp.dto.TaskPatch;
+import com.example.tasklistapp.dto.TaskSearchResults;
+import com.example.tasklistapp.exception.InvalidRequestException;
+import com.example.tasklistapp.exception.PreconditionFailedException;
 import com.example.tasklistapp.exception.ResourceNotFoundException;
 import com.example.tasklistapp.exception.UnauthorizedException;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class TaskService {
     
+    // Tagged by method and exception by the TimedAspect, never by user
+    private static final String TIMER_NAME = "tasks.service";
+    private static final int SEARCH_INDEX_FETCH_SIZE = 1000;
+    
     @Autowired
     private TaskRepository taskRepository;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private TaskIdCache taskIdCache;
+    
+    @Autowired
+    private TaskListResponseCache taskListResponseCache;
+    
+    @Autowired
+    private TaskWriteBehind taskWriteBehind;
+    
+    @Autowired
+    private TaskSearchIndex taskSearchIndex;
+    
+    @Autowired
+    private TaskSuggestIndex taskSuggestIndex;
+    
+    @Value("${app.soft-delete.undo-window:10m}")
+    private Duration undoWindow;
+    
+    // Concurrent list reads for the same user (many tabs, reconnect storms) share one query
+    private final SingleFlight<Long, List<String>> taskListReads = new SingleFlight<>();
+    
+    @Timed(TIMER_NAME)
     public List<Task> getAllTasksForUser(Long userId) {
-        return taskRepository.findByUserIdOrderByCreatedAtDesc(userId);
+        return taskWriteBehind.overlay(taskRepository.findAllInOrder(getTaskIds(userId)));
+    }
+    
+    public long getTaskListReadExecutions() {
+        return taskListReads.getExecutions();
+    }
+    
+    public long getTaskListReadJoins() {
+        return taskListReads.getJoins();
+    }
+    
+    public double getTaskListReadCoalescingRatio() {
+        return taskListReads.getCoalescingRatio();
+    }
+    
+    // The user's task ids in list order, from the cache or from one query shared with concurrent misses
+    private List<String> getTaskIds(Long userId) {
+        return taskIdCache.get(userId,
+                () -> taskListReads.execute(userId, () -> List.copyOf(taskRepository.findIdsByUserId(userId))));
+    }
+    
+    @Timed(TIMER_NAME)
+    public List<Task> getFirstTasksForUser(Long userId, int limit) {
+        List<String> ids = getTaskIds(userId);
+        return taskWriteBehind.overlay(taskRepository.findAllInOrder(ids.subList(0, Math.min(limit, ids.size()))));
+    }
+    
+    @Timed(TIMER_NAME)
+    public List<Task> getTasksAfter(String taskId, Long userId) {
+        Task anchor = findTask(taskId)
+                .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
+        
+        if (!anchor.getUser().getId().equals(userId)) {
+            throw new UnauthorizedException("You are not authorized to access this task");
+        }
+        
+        List<String> ids = getTaskIds(userId);
+        int position = ids.indexOf(taskId);
+        if (position < 0) {
+            // Created after the cached list was invalidated but before it was read again
+            return taskWriteBehind.overlay(taskRepository.findByUserIdSortedAfter(userId, anchor.getCreatedAt(), anchor.getId()));
+        }
+        return taskWriteBehind.overlay(taskRepository.findAllInOrder(ids.subList(position + 1, ids.size())));
+    }
+    
+    public long countTasksForUser(Long userId) {
+        return getTaskIds(userId).size();
     }
     
     public List<Task> getTasksByStatus(Long userId, Task.TaskStatus status) {
-        return taskRepository.findByUserIdAndStatus(userId, status);
+        List<Task> tasks = taskRepository.findByUserIdAndStatus(userId, status);
+        if (!taskWriteBehind.isEnabled()) {
+            return tasks;
+        }
+        // The query sees the stored status; buffered updates can move tasks into or out of the result
+        List<Task> matching = new ArrayList<>(taskWriteBehind.overlay(tasks).stream()
+                .filter(task -> task.getStatus() == status)
+                .toList());
+        Set<String> found = matching.stream().map(Task::getId).collect(Collectors.toSet());
+        List<String> moved = taskWriteBehind.getPendingIdsWithStatus(userId, status).stream()
+                .filter(id -> !found.contains(id))
+                .toList();
+        if (!moved.isEmpty()) {
+            taskWriteBehind.overlay(taskRepository.findAllInOrder(moved)).stream()
+                    .filter(task -> task.getStatus() == status)
+                    .forEach(matching::add);
+        }
+        return matching;
+    }
+    
+    /**
+     * The user's tasks that contain every term of the query, best match first, from the user's
+     * {@link TaskSearchIndex search index}; only the tasks on the requested page are loaded. The
+     * loader runs on a build thread when the user has no index yet.
+     */
+    @Timed(TIMER_NAME)
+    public TaskSearchResults searchTasks(Long userId, String query, int page, int size) {
+        TaskSearchIndex.Result result = taskSearchIndex.search(userId, query, page * size, size, index -> {
+            taskRepository.forEachTaskText(userId, SEARCH_INDEX_FETCH_SIZE, index);
+            // Buffered updates are newer than the rows they have not been written to yet
+            taskWriteBehind.overlay(taskRepository.findAllInOrder(taskWriteBehind.getPendingIds(userId)))
+                    .forEach(task -> index.accept(TaskText.of(task)));
+        });
+        List<Task> tasks = taskWriteBehind.overlay(taskRepository.findAllInOrder(result.ids()));
+        return new TaskSearchResults(result.total(), page, size, tasks);
     }
     
+    /**
+     * Distinct titles of the user's tasks with a word starting with the prefix, from the user's
+     * {@link TaskSuggestIndex suggestion index}.
+     */
+    @Timed(TIMER_NAME)
+    public List<String> suggestTitles(Long userId, String prefix, int limit) {
+        return taskSuggestIndex.suggest(userId, prefix, limit, index -> {
+            taskRepository.forEachTaskTitle(userId, SEARCH_INDEX_FETCH_SIZE, index);
+            taskWriteBehind.overlay(taskRepository.findAllInOrder(taskWriteBehind.getPendingIds(userId)))
+                    .forEach(task -> index.accept(TaskText.of(task)));
+        });
+    }
+    
+    @Timed(TIMER_NAME)
     public Optional<Task> getTaskById(String taskId) {
-        return taskRepository.findById(taskId);
+        return findTask(taskId).map(taskWriteBehind::overlay);
     }
     
+    @Timed(TIMER_NAME)
+    public Optional<VersionedTask> getVersionedTaskById(String taskId) {
+        return findTask(taskId).map(taskWriteBehind::versioned);
+    }
+    
+    // By id, from the second-level cache where possible, unless deleted
+    private Optional<Task> findTask(String taskId) {
+        return taskRepository.findById(taskId).filter(task -> !task.isDeleted());
+    }
+    
+    @Timed(TIMER_NAME)
     @Transactional
     public Task createTask(Task task, MyAppUser user) {
         task.setUser(user);
-        return taskRepository.save(task);
+        Task savedTask = taskRepository.save(task);
+        taskListReads.forget(user.getId());
+        eventPublisher.publishEvent(TaskChangedEvent.created(savedTask));
+        return savedTask;
     }
     
+    @Timed(TIMER_NAME)
     @Transactional
     public Task updateTask(String taskId, Task updatedTask, Long userId) {
-        Task task = taskRepository.findById(taskId)
-                .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
+        return update(taskId, TaskPatch.replacing(updatedTask), userId, null).task();
+    }
+    
+    /**
+     * Replaces all fields of a task, if its version tag is one of {@code expectedVersions}; a
+     * {@code null} collection makes the update unconditional.
+     */
+    @Timed(TIMER_NAME)
+    @Transactional
+    public VersionedTask updateTask(String taskId, Task updatedTask, Long userId, Collection<String> expectedVersions) {
+        return update(taskId, TaskPatch.replacing(updatedTask), userId, expectedVersions);
+    }
+    
+    /**
+     * Changes only the fields the patch sets, under the same condition as
+     * {@link #updateTask(String, Task, Long, Collection)}. An empty patch writes nothing and
+     * returns the task as it is.
+     */
+    @Timed(TIMER_NAME)
+    @Transactional
+    public VersionedTask patchTask(String taskId, TaskPatch patch, Long userId, Collection<String> expectedVersions) {
+        if (patch.hasShortDescription() && (patch.getShortDescription() == null || patch.getShortDescription().isBlank())) {
+            throw new InvalidRequestException("shortDescription must not be empty");
+        }
+        if (patch.hasStatus() && patch.getStatus() == null) {
+            throw new InvalidRequestException("status must not be null");
+        }
+        return update(taskId, patch, userId, expectedVersions);
+    }
+    
+    /**
+     * Without write-behind, a conflicting write that commits between the version check and this
+     * one fails on the row's version and surfaces as an {@code OptimisticLockingFailureException}.
+     * With write-behind, unconditional updates are buffered; conditional ones lock the row and write
+     * through, taking any buffered update with them, since their check has to see what is buffered.
+     */
+    private VersionedTask update(String taskId, TaskPatch patch, Long userId, Collection<String> expectedVersions) {
+        boolean writeThrough = !taskWriteBehind.isEnabled() || expectedVersions != null;
+        // Locked before anything else loads the task, so the version read is the current one
+        Optional<Task> found = taskWriteBehind.isEnabled() && expectedVersions != null
+                ? taskRepository.findAllByIdForUpdate(List.of(taskId)).stream().findFirst()
+                : findTask(taskId);
+        Task task = found.orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
         
         if (!task.getUser().getId().equals(userId)) {
             throw new UnauthorizedException("You are not authorized to update this task");
         }
         
-        task.setShortDescription(updatedTask.getShortDescription());
-        task.setLongDescription(updatedTask.getLongDescription());
-        task.setStatus(updatedTask.getStatus());
-        return taskRepository.save(task);
+        if (patch.isEmpty()) {
+            // Changes nothing, so the task is answered as it is, without writing it or bumping its version
+            if (expectedVersions != null && !taskWriteBehind.matches(expectedVersions, task)) {
+                throw new PreconditionFailedException("Task " + taskId + " has changed since it was read");
+            }
+            return taskWriteBehind.versioned(task);
+        }
+        
+        if (!writeThrough) {
+            // Nothing is written in this transaction; the buffered task stands in for the saved one
+            VersionedTask bufferedTask = taskWriteBehind.buffer(task, patch);
+            taskListReads.forget(userId);
+            eventPublisher.publishEvent(TaskChangedEvent.updated(bufferedTask.task()));
+            return bufferedTask;
+        }
+        
+        TaskWriteBehind.PendingUpdate buffered = taskWriteBehind.take(taskId);
+        if (expectedVersions != null && !taskWriteBehind.matches(expectedVersions, task, buffered)) {
+            throw new PreconditionFailedException("Task " + taskId + " has changed since it was read");
+        }
+        if (buffered != null) {
+            buffered.applyTo(task);
+        }
+        patch.applyTo(task);
+        // Flushed here rather than on commit, so the returned task carries its new version
+        Task savedTask = taskRepository.saveAndFlush(task);
+        taskListReads.forget(userId);
+        eventPublisher.publishEvent(TaskChangedEvent.updated(savedTask));
+        return new VersionedTask(savedTask, String.valueOf(savedTask.getVersion()));
     }
     
+    /**
+     * Marks the task as deleted, which takes one UPDATE of the row; {@link TaskPurger} removes the
+     * row once {@code app.soft-delete.undo-window} has passed, and until then
+     * {@link #restoreTask} can bring it back.
+     */
+    @Timed(TIMER_NAME)
     @Transactional
     public void deleteTask(String taskId, Long userId) {
-        Task task = taskRepository.findById(taskId)
+        Task task = findTask(taskId)
                 .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
         
         if (!task.getUser().getId().equals(userId)) {
             throw new UnauthorizedException("You are not authorized to delete this task");
         }
         
-        taskRepository.deleteById(taskId);
+        task.setDeletedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        taskRepository.save(task);
+        taskListReads.forget(userId);
+        eventPublisher.publishEvent(TaskChangedEvent.deleted(taskId, userId));
+    }
+    
+    /**
+     * Undoes {@link #deleteTask} within {@code app.soft-delete.undo-window} of the delete. The
+     * restored task is announced as created; restoring a task that is not deleted changes nothing.
+     */
+    @Timed(TIMER_NAME)
+    @Transactional
+    public VersionedTask restoreTask(String taskId, Long userId) {
+        LocalDateTime undoableSince = LocalDateTime.now().minus(undoWindow);
+        Task task = taskRepository.findById(taskId)
+                .filter(found -> !found.isDeleted() || found.getDeletedAt().isAfter(undoableSince))
+                .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
+        
+        if (!task.getUser().getId().equals(userId)) {
+            throw new UnauthorizedException("You are not authorized to restore this task");
+        }
+        
+        if (!task.isDeleted()) {
+            return taskWriteBehind.versioned(task);
+        }
+        task.setDeletedAt(null);
+        Task savedTask = taskRepository.saveAndFlush(task);
+        taskListReads.forget(userId);
+        eventPublisher.publishEvent(TaskChangedEvent.created(savedTask));
+        return new VersionedTask(savedTask, String.valueOf(savedTask.getVersion()));
+    }
+    
+    /**
+     * Moves all of the user's tasks with status {@code from} to {@code to} with set-based
+     * statements, one per few hundred tasks.
+     *
+     * @return the number of tasks moved
+     */
+    @Timed(TIMER_NAME)
+    @Transactional
+    public int updateStatusForUser(Long userId, Task.TaskStatus from, Task.TaskStatus to) {
+        if (from == to) {
+            return 0;
+        }
+        writeThroughBuffered(userId);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<String> ids = taskRepository.findIdsByUserIdAndStatusForUpdate(userId, from);
+        int updated = taskRepository.updateStatusByIds(ids, from, to, now);
+        bulkChanged(userId, ids);
+        return updated;
+    }
+    
+    /**
+     * Marks all of the user's tasks with the given status as deleted with set-based statements;
+     * like {@link #deleteTask}, each of them can be restored until it is purged.
+     *
+     * @return the number of tasks deleted
+     */
+    @Timed(TIMER_NAME)
+    @Transactional
+    public int deleteTasksByStatus(Long userId, Task.TaskStatus status) {
+        writeThroughBuffered(userId);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<String> ids = taskRepository.findIdsByUserIdAndStatusForUpdate(userId, status);
+        int deleted = taskRepository.softDeleteByIds(ids, status, now);
+        bulkChanged(userId, ids);
+        return deleted;
+    }
+    
+    // A set-based statement only sees stored rows, so the user's buffered updates are written
+    // ahead of it, in the same transaction
+    private void writeThroughBuffered(Long userId) {
+        if (!taskWriteBehind.isEnabled()) {
+            return;
+        }
+        List<String> ids = taskWriteBehind.getPendingIds(userId);
+        if (ids.isEmpty()) {
+            return;
+        }
+        for (Task task : taskRepository.findAllByIdForUpdate(ids)) {
+            TaskWriteBehind.PendingUpdate buffered = taskWriteBehind.take(task.getId());
+            if (buffered != null) {
+                buffered.applyTo(task);
+            }
+        }
+    }
+    
+    // The ids were locked before the statements ran, so they are exactly the rows changed
+    private void bulkChanged(Long userId, List<String> ids) {
+        if (!ids.isEmpty()) {
+            taskListReads.forget(userId);
+            eventPublisher.publishEvent(TaskChangedEvent.bulk(userId, ids));
+        }
+    }
+    
+    /**
+     * A read that started after the write but before its commit still sees the old rows,
+     * so the in-flight read is detached and the cached ids dropped once the change is committed.
+     * Detaching first means a read that starts after the invalidation cannot join the stale one;
+     * likewise the encoded responses go last, as they are rebuilt from the ids. The tasks of a bulk
+     * change are read again for the search and suggestion indexes, in the background.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (event.getType() == TaskChangedEvent.Type.DELETED) {
+            taskWriteBehind.discard(event.getTaskId());
+        }
+        taskListReads.forget(event.getUserId());
+        taskIdCache.invalidate(event.getUserId());
+        taskListResponseCache.invalidate(event.getUserId());
+        if (event.getType() == TaskChangedEvent.Type.BULK) {
+            List<String> ids = event.getTaskIds();
+            taskSearchIndex.reindex(event.getUserId(), ids, index -> taskRepository.forEachTaskText(ids, index));
+            taskSuggestIndex.reindex(event.getUserId(), ids, index -> taskRepository.forEachTaskTitle(ids, index));
+        } else {
+            taskSearchIndex.apply(event);
+            taskSuggestIndex.apply(event);
+        }
     }
     
     public boolean isTaskOwnedByUser(String taskId, Long userId) {
-        Optional<Task> task = taskRepository.findById(taskId);
+        Optional<Task> task = findTask(taskId);
         return task.isPresent() && task.get().getUser().getId().equals(userId);
     }
 }
@@ -0,0 +1,601 @@
+package com.example.tasklistapp.service;
+
+import com.example.tasklistapp.Model.TaskText;
+import com.github.benmanes.caffeine.cache.Cache;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Per-user prefix index over task titles for type-ahead suggestions, answered from memory without
+ * touching the database. A user's index is built from their titles alone and kept up to date by a
+ * {@link UserIndexCache}, like {@link TaskSearchIndex}.
+ * <p>
+ * A title is suggested for a prefix when the prefix, ignoring case, starts at the beginning of the
+ * title or of one of its words. Each distinct title is suggested once, in the order of the text
+ * from the matching word on and then of the whole title.
+ */
+@Component
+public class TaskSuggestIndex {
+    
+    private final UserIndexCache<UserIndex> indexes;
+    
+    public TaskSuggestIndex(@Value("${app.cache.suggest-index.max-size:384MB}") DataSize maxSize,
+                            @Value("${app.cache.suggest-index.build-wait:500ms}") Duration buildWait) {
+        this.indexes = new UserIndexCache<>("Suggestion index", "app.cache.suggest-index.max-size", maxSize, buildWait,
+                UserIndex::new, "task-suggest-index");
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        indexes.shutdown();
+    }
+    
+    /**
+     * The user's distinct task titles matching the prefix, at most {@code limit} of them.
+     *
+     * @param loader feeds the title of every one of the user's tasks to the given consumer; only
+     *               called when the user's index has to be built
+     */
+    public List<String> suggest(Long userId, String prefix, int limit, Consumer<Consumer<TaskText>> loader) {
+        String key = prefix.stripLeading().toLowerCase(Locale.ROOT);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        return indexes.get(userId, loader).suggest(key, limit);
+    }
+    
+    /**
+     * Applies a committed change to the user's index, if it has one or is building one.
+     */
+    public void apply(TaskChangedEvent event) {
+        indexes.apply(event);
+    }
+    
+    /**
+     * Indexes the current state of tasks changed by a bulk change, in the background.
+     *
+     * @param loader feeds the title of those of the given tasks that still exist to the given consumer
+     * @return completes once the tasks have been indexed
+     */
+    public CompletableFuture<Void> reindex(Long userId, Collection<String> taskIds, Consumer<Consumer<TaskText>> loader) {
+        return indexes.reindex(userId, taskIds, loader);
+    }
+    
+    public Cache<Long, ?> getCache() {
+        return indexes.getCache();
+    }
+    
+    /**
+     * One user's index. Distinct titles are numbered and counted by the tasks that have them; an
+     * entry packs a title number with the offset of a word in its lower-case key, and entries are
+     * kept sorted by the key from that offset on, so a prefix is a binary search followed by a scan.
+     * Titles added since the last merge are kept in a small sorted array of their own, which is
+     * merged into the large one once it holds a few times the square root of its size.
+     * <p>
+     * Tasks are known by a 64-bit hash of their id rather than the id itself, which keeps them to a
+     * few primitive slots each.
+     */
+    static final class UserIndex implements UserIndexCache.Index<UserIndex> {
+        
+        private static final int MIN_RECENT = 64;
+        // Rough heap cost per distinct title (two strings and a map entry) and per character of it
+        private static final int TITLE_BYTES = 120;
+        private static final int CHAR_BYTES = 2;
+        
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final TaskTable tasks = new TaskTable();
+        private final Map<String, Integer> numbers = new HashMap<>();
+        // Indexed by title number; a retired number has no title but keeps its key while entries refer to it
+        private String[] titles = new String[16];
+        private String[] keys = new String[16];
+        private int[] references = new int[16];
+        private int titleCount;
+        private int liveTitles;
+        private long titleChars;
+        private long[] entries = new long[0];
+        private long[] recent = new long[MIN_RECENT];
+        private int recentCount;
+        // Entries of retired titles left in the arrays
+        private int retiredEntries;
+        // While the index is loaded, recent entries are collected unsorted and sorted once at the end
+        private boolean loading = true;
+        
+        @Override
+        public UserIndex index(TaskText text) {
+            long hash = hash(text.id());
+            long version = text.version() == null ? -1 : text.version();
+            long updatedAt = micros(text.updatedAt());
+            String title = text.shortDescription() == null ? "" : text.shortDescription();
+            lock.writeLock().lock();
+            try {
+                int slot = tasks.slot(hash);
+                if (tasks.contains(slot)) {
+                    if (version < tasks.versions[slot]
+                            || version == tasks.versions[slot] && updatedAt <= tasks.updatedAts[slot]) {
+                        return this;
+                    }
+                    int previous = tasks.titles[slot];
+                    if (titles[previous].equals(title)) {
+                        tasks.put(slot, hash, previous, version, updatedAt);
+                        return this;
+                    }
+                    release(previous);
+                }
+                tasks.put(slot, hash, acquire(title), version, updatedAt);
+                mergeIfDue();
+                return this;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        
+        @Override
+        public UserIndex remove(String taskId) {
+            lock.writeLock().lock();
+            try {
+                int slot = tasks.slot(hash(taskId));
+                if (tasks.contains(slot)) {
+                    release(tasks.titles[slot]);
+                    tasks.remove(slot);
+                    mergeIfDue();
+                }
+                return this;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        
+        @Override
+        public void finishLoading() {
+            lock.writeLock().lock();
+            try {
+                loading = false;
+                sort(recent, 0, recentCount, 0);
+                merge();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        
+        List<String> suggest(String key, int limit) {
+            lock.readLock().lock();
+            try {
+                // Walk both sorted arrays from the first entry at or after the key, in key order
+                int i = lowerBound(entries, entries.length, key);
+                int j = lowerBound(recent, recentCount, key);
+                List<String> suggestions = new ArrayList<>(Math.min(limit, 16));
+                List<Integer> suggested = new ArrayList<>(Math.min(limit, 16));
+                while (suggestions.size() < limit) {
+                    boolean inEntries = i < entries.length && matches(entries[i], key);
+                    boolean inRecent = j < recentCount && matches(recent[j], key);
+                    long entry;
+                    if (inEntries && (!inRecent || compare(entries[i], recent[j]) <= 0)) {
+                        entry = entries[i++];
+                    } else if (inRecent) {
+                        entry = recent[j++];
+                    } else {
+                        break;
+                    }
+                    int number = title(entry);
+                    // A title matching at several words is suggested at the first
+                    if (titles[number] != null && !suggested.contains(number)) {
+                        suggested.add(number);
+                        suggestions.add(titles[number]);
+                    }
+                }
+                return suggestions;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        
+        @Override
+        public int weight() {
+            return (int) Math.min(Integer.MAX_VALUE, (long) liveTitles * TITLE_BYTES + titleChars * 2 * CHAR_BYTES
+                    + tasks.weight() + (long) (entries.length + recent.length) * Long.BYTES);
+        }
+        
+        private int acquire(String title) {
+            Integer existing = numbers.get(title);
+            if (existing != null) {
+                references[existing]++;
+                return existing;
+            }
+            int number = titleCount++;
+            if (number == titles.length) {
+                int capacity = titles.length * 2;
+                titles = Arrays.copyOf(titles, capacity);
+                keys = Arrays.copyOf(keys, capacity);
+                references = Arrays.copyOf(references, capacity);
+            }
+            String key = title.toLowerCase(Locale.ROOT);
+            titles[number] = title;
+            keys[number] = key;
+            references[number] = 1;
+            numbers.put(title, number);
+            liveTitles++;
+            titleChars += title.length();
+            for (int offset : wordStarts(key)) {
+                addRecent(entry(number, offset));
+            }
+            return number;
+        }
+        
+        private void release(int number) {
+            if (--references[number] == 0) {
+                numbers.remove(titles[number]);
+                titleChars -= titles[number].length();
+                titles[number] = null;
+                liveTitles--;
+                retiredEntries += wordStarts(keys[number]).length;
+            }
+        }
+        
+        private void addRecent(long entry) {
+            if (recentCount == recent.length) {
+                recent = Arrays.copyOf(recent, recent.length * 2);
+            }
+            if (loading) {
+                recent[recentCount++] = entry;
+                return;
+            }
+            int at = insertionPoint(recent, 0, recentCount, entry);
+            System.arraycopy(recent, at, recent, at + 1, recentCount - at);
+            recent[at] = entry;
+            recentCount++;
+        }
+        
+        private void mergeIfDue() {
+            if (!loading && (recentCount >= Math.max(MIN_RECENT, 4 * (int) Math.sqrt(entries.length))
+                    || retiredEntries >= MIN_RECENT && retiredEntries * 4 > entries.length + recentCount)) {
+                merge();
+            }
+        }
+        
+        // Inserts each recent entry where a binary search puts it, copying the entries between them in
+        // blocks, then leaves out the entries of retired titles once they make up a quarter of them
+        private void merge() {
+            long[] merged = new long[entries.length + recentCount];
+            int size = 0;
+            int from = 0;
+            for (int j = 0; j < recentCount; j++) {
+                int at = insertionPoint(entries, from, entries.length, recent[j]);
+                System.arraycopy(entries, from, merged, size, at - from);
+                size += at - from;
+                from = at;
+                merged[size++] = recent[j];
+            }
+            System.arraycopy(entries, from, merged, size, entries.length - from);
+            entries = merged;
+            recentCount = 0;
+            if (recent.length > MIN_RECENT * 4) {
+                recent = new long[MIN_RECENT];
+            }
+            if (retiredEntries * 4 > entries.length) {
+                purge();
+            }
+        }
+        
+        private void purge() {
+            int size = 0;
+            for (long entry : entries) {
+                if (titles[title(entry)] != null) {
+                    entries[size++] = entry;
+                }
+            }
+            entries = Arrays.copyOf(entries, size);
+            retiredEntries = 0;
+            // No entry refers to a retired title any more
+            for (int number = 0; number < titleCount; number++) {
+                if (titles[number] == null) {
+                    keys[number] = null;
+                }
+            }
+            int retired = titleCount - liveTitles;
+            if (retired >= MIN_RECENT && retired > liveTitles) {
+                renumber();
+            }
+        }
+        
+        // Renumbers the live titles in their current order, which keeps the entries sorted
+        private void renumber() {
+            int[] renumbered = new int[titleCount];
+            int next = 0;
+            for (int number = 0; number < titleCount; number++) {
+                if (titles[number] != null) {
+                    renumbered[number] = next;
+                    titles[next] = titles[number];
+                    keys[next] = keys[number];
+                    references[next] = references[number];
+                    numbers.put(titles[next], next);
+                    next++;
+                }
+            }
+            Arrays.fill(titles, next, titleCount, null);
+            Arrays.fill(keys, next, titleCount, null);
+            titleCount = next;
+            for (int e = 0; e < entries.length; e++) {
+                entries[e] = entry(renumbered[title(entries[e])], offset(entries[e]));
+            }
+            tasks.renumber(renumbered);
+        }
+        
+        // The position of the first entry whose text is not before the key
+        private int lowerBound(long[] sorted, int size, String key) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                String text = keys[title(sorted[middle])];
+                if (compare(text, offset(sorted[middle]), key, 0) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+        
+        private int insertionPoint(long[] sorted, int from, int to, long entry) {
+            int low = from;
+            int high = to;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compare(sorted[middle], entry) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+        
+        private boolean matches(long entry, String key) {
+            return keys[title(entry)].startsWith(key, offset(entry));
+        }
+        
+        // By the key from the entry's offset on, then by the whole key and finally by title number
+        private int compare(long a, long b) {
+            String keyA = keys[title(a)];
+            String keyB = keys[title(b)];
+            int order = compare(keyA, offset(a), keyB, offset(b));
+            if (order == 0) {
+                order = compare(keyA, 0, keyB, 0);
+            }
+            return order != 0 ? order : Long.compare(a, b);
+        }
+        
+        private static int compare(String a, int fromA, String b, int fromB) {
+            int length = Math.min(a.length() - fromA, b.length() - fromB);
+            for (int k = 0; k < length; k++) {
+                int order = Character.compare(a.charAt(fromA + k), b.charAt(fromB + k));
+                if (order != 0) {
+                    return order;
+                }
+            }
+            return Integer.compare(a.length() - fromA, b.length() - fromB);
+        }
+        
+        // Sorts by the text four characters at a time: by a long packing the characters from the given
+        // depth on, which needs no look at the text, and then each run sharing them by the next four
+        private void sort(long[] values, int from, int to, int depth) {
+            int size = to - from;
+            if (size < 2) {
+                return;
+            }
+            long[] heads = new long[size];
+            for (int i = 0; i < size; i++) {
+                heads[i] = head(values[from + i], depth);
+            }
+            sortByHead(values, from, heads);
+            for (int start = 0, end; start < size; start = end) {
+                end = start + 1;
+                while (end < size && heads[end] == heads[start]) {
+                    end++;
+                }
+                if (end - start > 1) {
+                    // A text that ended within these four characters leaves nothing to go by
+                    if ((heads[start] & 0xFFFF) != 0) {
+                        sort(values, from + start, from + end, depth + 4);
+                    } else {
+                        sortByText(values, from + start, from + end);
+                    }
+                }
+            }
+        }
+        
+        // Missing characters count as the lowest, so the order never contradicts the one of the texts
+        private long head(long entry, int depth) {
+            String text = keys[title(entry)];
+            int at = offset(entry) + depth;
+            long head = 0;
+            for (int k = 0; k < 4; k++) {
+                head = head << 16 | (at + k < text.length() ? text.charAt(at + k) : 0);
+            }
+            return head;
+        }
+        
+        // Stable merge sort of values[from..] and the heads along with them, by the heads as unsigned
+        private static void sortByHead(long[] values, int from, long[] heads) {
+            int size = heads.length;
+            long[] valueBuffer = new long[size];
+            long[] headBuffer = new long[size];
+            for (int width = 1; width < size; width *= 2) {
+                for (int low = 0; low < size; low += 2 * width) {
+                    int middle = Math.min(low + width, size);
+                    int high = Math.min(low + 2 * width, size);
+                    int i = low;
+                    int j = middle;
+                    for (int k = low; k < high; k++) {
+                        int next = j == high || i < middle && Long.compareUnsigned(heads[i], heads[j]) <= 0 ? i++ : j++;
+                        valueBuffer[k] = values[from + next];
+                        headBuffer[k] = heads[next];
+                    }
+                }
+                System.arraycopy(valueBuffer, 0, values, from, size);
+                System.arraycopy(headBuffer, 0, heads, 0, size);
+            }
+        }
+        
+        private void sortByText(long[] values, int from, int to) {
+            long[] buffer = new long[to - from];
+            for (int width = 1; width < to - from; width *= 2) {
+                for (int low = from; low < to; low += 2 * width) {
+                    int middle = Math.min(low + width, to);
+                    int high = Math.min(low + 2 * width, to);
+                    int i = low;
+                    int j = middle;
+                    for (int k = low; k < high; k++) {
+                        buffer[k - from] = j == high || i < middle && compare(values[i], values[j]) <= 0 ? values[i++] : values[j++];
+                    }
+                }
+                System.arraycopy(buffer, 0, values, from, to - from);
+            }
+        }
+        
+        // The title itself and every letter or digit that follows some other character
+        private static int[] wordStarts(String key) {
+            int[] starts = new int[key.length()];
+            int count = 0;
+            for (int offset = 0; offset < key.length(); offset++) {
+                if (offset == 0 || Character.isLetterOrDigit(key.charAt(offset))
+                        && !Character.isLetterOrDigit(key.charAt(offset - 1))) {
+                    starts[count++] = offset;
+                }
+            }
+            return Arrays.copyOf(starts, count);
+        }
+        
+        private static long entry(int title, int offset) {
+            return (long) title << 32 | offset;
+        }
+        
+        private static int title(long entry) {
+            return (int) (entry >>> 32);
+        }
+        
+        private static int offset(long entry) {
+            return (int) entry;
+        }
+    }
+    
+    /**
+     * Open-addressing table from task id hashes to title numbers and the version and update time
+     * the title was read at. A hash of zero marks an empty slot.
+     */
+    private static final class TaskTable {
+        
+        private long[] hashes = new long[16];
+        private int[] titles = new int[16];
+        private long[] versions = new long[16];
+        private long[] updatedAts = new long[16];
+        private int size;
+        
+        // The slot holding the hash, or the empty slot it would go into
+        int slot(long hash) {
+            int mask = hashes.length - 1;
+            int slot = home(hash, mask);
+            while (hashes[slot] != 0 && hashes[slot] != hash) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+        
+        boolean contains(int slot) {
+            return hashes[slot] != 0;
+        }
+        
+        void put(int slot, long hash, int title, long version, long updatedAt) {
+            boolean added = hashes[slot] == 0;
+            hashes[slot] = hash;
+            titles[slot] = title;
+            versions[slot] = version;
+            updatedAts[slot] = updatedAt;
+            if (added && ++size * 4 > hashes.length * 3) {
+                resize(hashes.length * 2);
+            }
+        }
+        
+        // Shifts back the entries after the slot that would no longer be found past the hole
+        void remove(int slot) {
+            int mask = hashes.length - 1;
+            int hole = slot;
+            hashes[hole] = 0;
+            size--;
+            for (int next = (hole + 1) & mask; hashes[next] != 0; next = (next + 1) & mask) {
+                int home = home(hashes[next], mask);
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    hashes[hole] = hashes[next];
+                    titles[hole] = titles[next];
+                    versions[hole] = versions[next];
+                    updatedAts[hole] = updatedAts[next];
+                    hashes[next] = 0;
+                    hole = next;
+                }
+            }
+        }
+        
+        void renumber(int[] renumbered) {
+            for (int slot = 0; slot < hashes.length; slot++) {
+                if (hashes[slot] != 0) {
+                    titles[slot] = renumbered[titles[slot]];
+                }
+            }
+        }
+        
+        long weight() {
+            return (long) hashes.length * (3 * Long.BYTES + Integer.BYTES);
+        }
+        
+        private void resize(int capacity) {
+            long[] oldHashes = hashes;
+            int[] oldTitles = titles;
+            long[] oldVersions = versions;
+            long[] oldUpdatedAts = updatedAts;
+            hashes = new long[capacity];
+            titles = new int[capacity];
+            versions = new long[capacity];
+            updatedAts = new long[capacity];
+            size = 0;
+            for (int i = 0; i < oldHashes.length; i++) {
+                if (oldHashes[i] != 0) {
+                    put(slot(oldHashes[i]), oldHashes[i], oldTitles[i], oldVersions[i], oldUpdatedAts[i]);
+                }
+            }
+        }
+        
+        private static int home(long hash, int mask) {
+            return (int) (hash * 0x9E3779B97F4A7C15L >>> 32) & mask;
+        }
+    }
+    
+    // 64-bit FNV-1a of the id's characters, never zero
+    static long hash(String id) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            hash = (hash ^ id.charAt(i)) * 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+    
+    private static long micros(LocalDateTime time) {
+        return time == null ? Long.MIN_VALUE : time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.tasklistapp.service;
+
+import com.example.tasklistapp.Model.Task;
+import com.example.tasklistapp.Model.TaskRepository;
+import com.example.tasklistapp.exception.InvalidRequestException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Exports a user's tasks as NDJSON (one JSON task per line) and imports them back, holding only a
+ * fetch or a batch of tasks at a time so memory use does not grow with the number of tasks.
+ * <p>
+ * The export reads through a JDBC cursor, {@code app.transfer.fetch-size} rows per round trip,
+ * bypasses the second-level cache and clears the persistence context after every fetch. The import parses the body one task at a
+ * time and inserts {@code app.transfer.batch-size} tasks per JDBC batch, each batch in a transaction
+ * of its own, so a long import neither holds a transaction open for the whole upload nor loses
+ * what it has written when a later line is invalid.
+ */
+@Component
+public class TaskTransfer {
+    
+    private static final int MAX_SHORT_DESCRIPTION_LENGTH = 255;
+    
+    @Autowired
+    private TaskRepository taskRepository;
+    
+    @Autowired
+    private TaskBatchWriter taskBatchWriter;
+    
+    @Autowired
+    private TaskWriteBehind taskWriteBehind;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${app.transfer.fetch-size:500}")
+    private int fetchSize;
+    
+    @Value("${app.transfer.batch-size:1000}")
+    private int batchSize;
+    
+    /**
+     * Writes the user's tasks to the stream in list order, with buffered write-behind updates applied.
+     *
+     * @return the number of tasks written
+     */
+    @Transactional(readOnly = true)
+    public long export(Long userId, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(Task.class);
+        // Set on the session rather than the query, whose cache mode only lasts until the cursor is
+        // opened; otherwise every row read would be put into the second-level cache
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode cacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.IGNORE);
+        long count = 0;
+        try (Stream<Task> tasks = taskRepository.streamByUserId(userId, fetchSize)) {
+            Iterator<Task> iterator = tasks.iterator();
+            while (iterator.hasNext()) {
+                out.write(writer.writeValueAsBytes(taskWriteBehind.overlay(iterator.next())));
+                out.write('\n');
+                if (++count % fetchSize == 0) {
+                    entityManager.clear();
+                }
+            }
+        } finally {
+            session.setCacheMode(cacheMode);
+        }
+        return count;
+    }
+    
+    /**
+     * Adds the tasks in the stream to the user's tasks, as new tasks with ids of their own. A
+     * missing status is {@code TODO} and missing timestamps are the time of the import. The tasks
+     * before the first one that cannot be imported are imported nonetheless; an I/O error while
+     * reading the body keeps the batches committed before it.
+     *
+     * @return the number of tasks imported
+     * @throws InvalidRequestException naming the line of the first task that cannot be imported
+     *         and how many tasks before it were imported
+     */
+    public long importTasks(Long userId, InputStream in) throws IOException {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<Task> batch = new ArrayList<>(batchSize);
+        long count = 0;
+        try (MappingIterator<Task> tasks = objectMapper.readerFor(Task.class).readValues(in)) {
+            while (tasks.hasNextValue()) {
+                Task task = tasks.nextValue();
+                validate(task, tasks.getCurrentLocation().getLineNr());
+                batch.add(normalized(task, now));
+                if (batch.size() == batchSize) {
+                    count += insert(userId, batch);
+                }
+            }
+            count += insert(userId, batch);
+        } catch (JsonProcessingException e) {
+            // Malformed JSON or a value that does not fit a task; other I/O errors are not the client's
+            count += insert(userId, batch);
+            throw new InvalidRequestException((e.getLocation() == null ? "" : "Line " + e.getLocation().getLineNr() + ": ")
+                    + e.getOriginalMessage() + imported(count));
+        } catch (InvalidRequestException e) {
+            count += insert(userId, batch);
+            throw new InvalidRequestException(e.getMessage() + imported(count));
+        } finally {
+            if (count > 0) {
+                // Clients reload once for the whole import rather than once per batch
+                eventPublisher.publishEvent(TaskChangedEvent.bulk(userId, List.of()));
+            }
+        }
+        return count;
+    }
+    
+    // Commits the batch on its own and empties it; the caches and indexes follow once it is committed
+    private int insert(Long userId, List<Task> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            taskBatchWriter.insert(userId, batch);
+            eventPublisher.publishEvent(TaskChangedEvent.bulkStep(userId, batch.stream().map(Task::getId).toList()));
+        });
+        int inserted = batch.size();
+        batch.clear();
+        return inserted;
+    }
+    
+    private static String imported(long count) {
+        return " (" + count + (count == 1 ? " task" : " tasks") + " before it imported)";
+    }
+    
+    private static void validate(Task task, int line) {
+        String shortDescription = task.getShortDescription();
+        if (shortDescription == null || shortDescription.isBlank()) {
+            throw new InvalidRequestException("Line " + line + ": shortDescription must not be empty");
+        }
+        if (shortDescription.length() > MAX_SHORT_DESCRIPTION_LENGTH) {
+            throw new InvalidRequestException("Line " + line + ": shortDescription must be at most "
+                    + MAX_SHORT_DESCRIPTION_LENGTH + " characters");
+        }
+        if (task.getStatus() == null) {
+            throw new InvalidRequestException("Line " + line + ": status must not be null");
+        }
+    }
+    
+    private static Task normalized(Task task, LocalDateTime now) {
+        task.setId(UUID.randomUUID().toString());
+        task.setCreatedAt(task.getCreatedAt() == null ? now : task.getCreatedAt().truncatedTo(ChronoUnit.MICROS));
+        task.setUpdatedAt(task.getUpdatedAt() == null ? task.getCreatedAt() : task.getUpdatedAt().truncatedTo(ChronoUnit.MICROS));
+        return task;
+    }
+}
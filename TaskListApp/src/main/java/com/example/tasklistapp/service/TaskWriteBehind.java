@@ -0,0 +1,435 @@
+package com.example.tasklistapp.service;
+
+import com.example.tasklistapp.Model.Task;
+import com.example.tasklistapp.Model.TaskRepository;
+import com.example.tasklistapp.dto.TaskPatch;
+import com.example.tasklistapp.exception.ResourceNotFoundException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Opt-in write-behind for task updates ({@code app.write-behind.enabled}). An update is checked
+ * and acknowledged right away but only buffered; a later update to the same task replaces it, and
+ * every {@code app.write-behind.window} the buffer is written in one transaction. A burst of status
+ * toggles thus costs one row write instead of one transaction each. Updates are buffered as
+ * {@link TaskPatch patches} and applied to the row as it is when written, so buffered changes to
+ * different fields never overwrite each other.
+ * <p>
+ * {@link TaskService} overlays buffered values on everything it reads, so clients see their
+ * updates immediately. A buffered update is only removed once it is committed, and whatever is
+ * left is written when the application shuts down. Until then it lives in this instance's memory
+ * only: a crash loses at most one window of updates, and the buffer is not shared between
+ * instances, so it suits a single instance or sticky sessions.
+ */
+@Slf4j
+@Component
+public class TaskWriteBehind {
+    
+    // Enough to keep the tags of recently written updates valid; an evicted one costs a 412 and a re-read
+    private static final int FLUSHED_TAGS = 10_000;
+    // Long enough for any request that read a task before it was removed to have buffered its update
+    private static final long REMOVED_SECONDS = 60;
+    private static final int REMOVED_IDS = 100_000;
+    
+    /**
+     * The fields a task update changes, when it was made, and a sequence number that is new with
+     * every buffered update. The stored {@code updatedAt} is the time of the flush, as with any
+     * other update it is set when the row is written.
+     */
+    record PendingUpdate(Long userId, TaskPatch patch, LocalDateTime updatedAt, long sequence) {
+        
+        void applyTo(Task task) {
+            patch.applyTo(task);
+            task.setUpdatedAt(updatedAt);
+        }
+        
+        PendingUpdate then(PendingUpdate later) {
+            return new PendingUpdate(userId, patch.then(later.patch), later.updatedAt, later.sequence);
+        }
+    }
+    
+    // A buffered update as applied to its locked row in a flush
+    private record Applied(Task task, PendingUpdate pendingUpdate) {
+    }
+    
+    // The sequence of a written update and the version its write gave the row
+    private record Flushed(long sequence, long version) {
+    }
+    
+    @Autowired
+    private TaskRepository taskRepository;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Value("${app.write-behind.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${app.write-behind.window:200ms}")
+    private Duration window;
+    
+    @Value("${app.write-behind.max-batch-size:500}")
+    private int maxBatchSize;
+    
+    private final Map<String, PendingUpdate> pending = new ConcurrentHashMap<>();
+    private final Cache<String, Flushed> flushed = Caffeine.newBuilder().maximumSize(FLUSHED_TAGS).build();
+    // Held shared while buffering, and exclusively while removeUnlessPending checks and deletes
+    private final ReadWriteLock removing = new ReentrantReadWriteLock();
+    // Tasks recently deleted by removeUnlessPending, which no longer take updates
+    private final Cache<String, Boolean> removed = Caffeine.newBuilder()
+            .expireAfterWrite(REMOVED_SECONDS, TimeUnit.SECONDS)
+            .maximumSize(REMOVED_IDS)
+            .build();
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder buffered = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    
+    private TransactionTemplate transactionTemplate;
+    private ScheduledExecutorService flusher;
+    
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, window.toMillis(), window.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Runs after the web server has stopped taking requests and before the data source is closed,
+     * which this bean depends on.
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(30, TimeUnit.SECONDS);
+        while (!pending.isEmpty()) {
+            if (flush() == 0) {
+                log.error("Discarding {} buffered task updates that could not be written", pending.size());
+                return;
+            }
+        }
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Buffers the update for a task whose ownership the caller has checked, and returns the task
+     * as it will be once written. The given task is not modified.
+     */
+    public VersionedTask buffer(Task task, TaskPatch patch) {
+        PendingUpdate update = new PendingUpdate(task.getUser().getId(), patch,
+                LocalDateTime.now().truncatedTo(ChronoUnit.MICROS), sequence.incrementAndGet());
+        PendingUpdate merged;
+        removing.readLock().lock();
+        try {
+            // Read before a background job removed it, which a write-through update would fail on
+            if (removed.getIfPresent(task.getId()) != null) {
+                throw new ResourceNotFoundException("Task", "id", task.getId());
+            }
+            merged = pending.merge(task.getId(), update, PendingUpdate::then);
+        } finally {
+            removing.readLock().unlock();
+        }
+        buffered.increment();
+        if (merged != update) {
+            coalesced.increment();
+        }
+        if (pending.size() >= maxBatchSize) {
+            try {
+                flusher.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                // Shutting down; the remaining updates are written by shutdown()
+            }
+        }
+        return new VersionedTask(copyWith(task, merged), versionTag(task.getVersion(), merged));
+    }
+    
+    /**
+     * The task with its buffered update applied, and the matching version tag.
+     */
+    public VersionedTask versioned(Task task) {
+        PendingUpdate pendingUpdate = pending.isEmpty() ? null : pending.get(task.getId());
+        return new VersionedTask(pendingUpdate == null ? task : copyWith(task, pendingUpdate),
+                versionTag(task.getVersion(), pendingUpdate));
+    }
+    
+    /**
+     * The task with its buffered update applied, as a detached copy; the task itself if there is none.
+     */
+    public Task overlay(Task task) {
+        PendingUpdate pendingUpdate = pending.isEmpty() ? null : pending.get(task.getId());
+        return pendingUpdate == null ? task : copyWith(task, pendingUpdate);
+    }
+    
+    public List<Task> overlay(List<Task> tasks) {
+        return pending.isEmpty() ? tasks : tasks.stream().map(this::overlay).toList();
+    }
+    
+    public boolean isPending(String taskId) {
+        return !pending.isEmpty() && pending.containsKey(taskId);
+    }
+    
+    /**
+     * Deletes those of the given tasks that have no buffered update, for a background job that
+     * removes rows behind {@link TaskService}'s back. Nothing is buffered from the check until the
+     * deletion has committed, and updates buffered for the deleted tasks afterwards, by requests
+     * that read them before, fail as if the task had never been found; so no acknowledged update is
+     * lost with its row.
+     *
+     * @param removal deletes the tasks it is handed in a transaction of its own, and returns those
+     *                it deleted
+     * @return the tasks deleted
+     */
+    public <T> List<T> removeUnlessPending(List<T> tasks, Function<T, String> id, UnaryOperator<List<T>> removal) {
+        if (!enabled) {
+            return removal.apply(tasks);
+        }
+        removing.writeLock().lock();
+        try {
+            List<T> removable = tasks.stream().filter(task -> !isPending(id.apply(task))).toList();
+            List<T> deleted = removable.isEmpty() ? removable : removal.apply(removable);
+            deleted.forEach(task -> removed.put(id.apply(task), Boolean.TRUE));
+            return deleted;
+        } finally {
+            removing.writeLock().unlock();
+        }
+    }
+    
+    /**
+     * Ids of the user's tasks with a buffered update.
+     */
+    public List<String> getPendingIds(Long userId) {
+        List<String> ids = new ArrayList<>();
+        pending.forEach((id, pendingUpdate) -> {
+            if (pendingUpdate.userId().equals(userId)) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+    
+    /**
+     * Ids of the user's tasks with a buffered update that sets the given status.
+     */
+    public List<String> getPendingIdsWithStatus(Long userId, Task.TaskStatus status) {
+        List<String> ids = new ArrayList<>();
+        pending.forEach((id, pendingUpdate) -> {
+            TaskPatch patch = pendingUpdate.patch();
+            if (pendingUpdate.userId().equals(userId) && patch.hasStatus() && patch.getStatus() == status) {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+    
+    /**
+     * Drops the buffered update of a deleted task.
+     */
+    public void discard(String taskId) {
+        pending.remove(taskId);
+    }
+    
+    /**
+     * Removes the buffered update of a task, if any, for a caller that writes it together with its
+     * own change. Should the caller's transaction roll back, the update is buffered again.
+     */
+    PendingUpdate take(String taskId) {
+        PendingUpdate taken = pending.remove(taskId);
+        if (taken != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        pending.merge(taskId, taken, (newer, restored) -> restored.then(newer));
+                    }
+                }
+            });
+        }
+        return taken;
+    }
+    
+    static String versionTag(Long version, PendingUpdate pendingUpdate) {
+        return pendingUpdate == null ? String.valueOf(version) : version + "+" + pendingUpdate.sequence();
+    }
+    
+    /**
+     * Whether one of the expected tags names the task as it is with its buffered update applied.
+     */
+    public boolean matches(Collection<String> expectedTags, Task task) {
+        return matches(expectedTags, task, pending.isEmpty() ? null : pending.get(task.getId()));
+    }
+    
+    /**
+     * Whether one of the expected tags names the task as it is with the given update, taken from
+     * the buffer, applied. A tag handed out for a buffered update names the state that update
+     * leads to, whatever the row's version when it was handed out: it still matches once a flush
+     * has written the update, or an earlier one it was merged with, until the task changes again.
+     */
+    boolean matches(Collection<String> expectedTags, Task task, PendingUpdate pendingUpdate) {
+        if (expectedTags.contains(versionTag(task.getVersion(), pendingUpdate))) {
+            return true;
+        }
+        Long sequence = pendingUpdate != null ? Long.valueOf(pendingUpdate.sequence()) : flushedSequence(task);
+        if (sequence == null) {
+            return false;
+        }
+        String suffix = "+" + sequence;
+        return expectedTags.stream().anyMatch(tag -> tag.endsWith(suffix));
+    }
+    
+    // The sequence of the update last written to the task, if nothing has changed the row since
+    private Long flushedSequence(Task task) {
+        Flushed last = flushed.getIfPresent(task.getId());
+        return last != null && task.getVersion() != null && last.version() == task.getVersion() ? last.sequence() : null;
+    }
+    
+    /**
+     * Writes up to {@code max-batch-size} buffered updates in one transaction, falling back to one
+     * transaction per update if the batch fails. Updates that still fail stay buffered for the next
+     * flush.
+     *
+     * @return the number of updates written, or dropped because their task no longer exists
+     */
+    int flush() {
+        List<String> batch = pending.keySet().stream().limit(maxBatchSize).toList();
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        flushes.increment();
+        try {
+            committed(transactionTemplate.execute(status -> write(batch)));
+            return batch.size();
+        } catch (RuntimeException e) {
+            log.debug("Batch of {} task updates failed, writing them one at a time", batch.size(), e);
+        }
+        int done = 0;
+        for (String taskId : batch) {
+            try {
+                committed(transactionTemplate.execute(status -> write(List.of(taskId))));
+                done++;
+            } catch (RuntimeException e) {
+                log.warn("Task update for {} could not be written, keeping it buffered", taskId, e);
+            }
+        }
+        return done;
+    }
+    
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Flushing buffered task updates failed", e);
+        }
+    }
+    
+    // Runs in the flush transaction; the updates go out in JDBC batches on commit. The rows are
+    // locked as they are read, and only then is each update looked up, as it may have been replaced,
+    // or taken by a conditional write, since the batch was picked
+    private List<Applied> write(List<String> batch) {
+        List<Applied> applied = new ArrayList<>();
+        List<Task> tasks = taskRepository.findAllByIdForUpdate(batch);
+        for (Task task : tasks) {
+            PendingUpdate pendingUpdate = pending.get(task.getId());
+            if (pendingUpdate != null) {
+                pendingUpdate.applyTo(task);
+                applied.add(new Applied(task, pendingUpdate));
+            }
+        }
+        if (tasks.size() < batch.size()) {
+            // Deleted without going through TaskService; there is nothing left to update
+            Set<String> found = tasks.stream().map(Task::getId).collect(Collectors.toSet());
+            batch.stream().filter(taskId -> !found.contains(taskId)).forEach(pending::remove);
+        }
+        return applied;
+    }
+    
+    // Written updates are removed unless a newer one replaced them meanwhile. The tasks carry the
+    // versions the commit gave them, which the tags handed out for the updates now stand for
+    private void committed(List<Applied> applied) {
+        for (Applied write : applied) {
+            Task task = write.task();
+            if (pending.remove(task.getId(), write.pendingUpdate())) {
+                flushed.put(task.getId(), new Flushed(write.pendingUpdate().sequence(), task.getVersion()));
+            }
+        }
+        written.add(applied.size());
+    }
+    
+    private static Task copyWith(Task task, PendingUpdate pendingUpdate) {
+        Task copy = new Task();
+        copy.setId(task.getId());
+        copy.setUser(task.getUser());
+        copy.setCreatedAt(task.getCreatedAt());
+        copy.setVersion(task.getVersion());
+        copy.setShortDescription(task.getShortDescription());
+        copy.copyLongDescriptionFrom(task);
+        copy.setStatus(task.getStatus());
+        pendingUpdate.applyTo(copy);
+        return copy;
+    }
+    
+    public int getPendingCount() {
+        return pending.size();
+    }
+    
+    public long getBufferedCount() {
+        return buffered.sum();
+    }
+    
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+    
+    public long getWrittenCount() {
+        return written.sum();
+    }
+    
+    public long getFlushCount() {
+        return flushes.sum();
+    }
+}
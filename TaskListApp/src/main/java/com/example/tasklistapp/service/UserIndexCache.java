@@ -0,0 +1,264 @@
+package com.example.tasklistapp.service;
+
+import com.example.tasklistapp.Model.TaskText;
+import com.example.tasklistapp.exception.ServiceUnavailableException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * The per-user indexes behind {@link TaskSearchIndex} and {@link TaskSuggestIndex}. A user's index
+ * is built in the background with one pass over their tasks when it is first needed, and then kept
+ * up to date from {@link TaskChangedEvent}s; the tasks of a bulk change are read again, also in the
+ * background. Indexes are bounded by an estimate of their heap size and evicted by Caffeine's
+ * W-TinyLFU policy.
+ * <p>
+ * A request waits up to {@code buildWait} for a build, which covers all but the largest users, and
+ * is otherwise answered with 503 while the build goes on. An index too large for the cache is
+ * served to the requests that waited for it and not built again for {@value #OVERSIZE_RETRY_MINUTES}
+ * minutes.
+ * <p>
+ * Each task is indexed with the version and update time it was read at and never replaced by an
+ * older state, so events may be applied out of order and while the index is being built.
+ */
+@Slf4j
+final class UserIndexCache<I extends UserIndexCache.Index<I>> {
+    
+    /**
+     * One user's index. Changes return the index, so that Caffeine weighs it again.
+     */
+    interface Index<I> {
+        
+        I index(TaskText text);
+        
+        I remove(String taskId);
+        
+        /**
+         * Called once every task read by the build has been indexed.
+         */
+        default void finishLoading() {
+        }
+        
+        int weight();
+    }
+    
+    private static final int BUILD_THREADS = 2;
+    private static final long WARMING_RETRY_SECONDS = 1;
+    private static final long OVERSIZE_RETRY_MINUTES = 10;
+    
+    private final String name;
+    private final String maxSizeProperty;
+    private final Duration buildWait;
+    private final Supplier<I> factory;
+    private final Cache<Long, I> cache;
+    private final long maxWeight;
+    // Changes committed while a user's index is being built, made again once it is in the cache
+    private final Map<Long, Queue<Runnable>> building = new ConcurrentHashMap<>();
+    // The build in progress for each user, shared by the requests waiting for it
+    private final Map<Long, CompletableFuture<I>> builds = new ConcurrentHashMap<>();
+    // When each user whose index does not fit in the cache may have it built again
+    private final Cache<Long, Long> oversized = Caffeine.newBuilder()
+            .expireAfterWrite(OVERSIZE_RETRY_MINUTES, TimeUnit.MINUTES)
+            .build();
+    private final ExecutorService executor;
+    
+    /**
+     * @param name            what the index is called in messages, e.g. {@code "Search index"}
+     * @param maxSizeProperty the property {@code maxSize} comes from, named in log messages
+     * @param factory         creates an empty index to build
+     * @param threadName      the name of the threads that build and update the indexes
+     */
+    UserIndexCache(String name, String maxSizeProperty, DataSize maxSize, Duration buildWait, Supplier<I> factory,
+                   String threadName) {
+        this.name = name;
+        this.maxSizeProperty = maxSizeProperty;
+        this.buildWait = buildWait;
+        this.factory = factory;
+        this.maxWeight = maxSize.toBytes();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((Long userId, I index) -> index.weight())
+                .recordStats()
+                .build();
+        this.executor = Executors.newFixedThreadPool(BUILD_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    /**
+     * The user's index, built first if there is none.
+     *
+     * @param loader feeds every one of the user's tasks to the given consumer; only called, on a
+     *               build thread, when the user's index has to be built
+     * @throws ServiceUnavailableException if the build takes longer than {@code buildWait}, or the
+     *                                     user's index has recently turned out too large to keep
+     */
+    I get(Long userId, Consumer<Consumer<TaskText>> loader) {
+        I index = cache.getIfPresent(userId);
+        if (index != null) {
+            return index;
+        }
+        Long retryAt = oversized.getIfPresent(userId);
+        if (retryAt != null) {
+            throw new ServiceUnavailableException(name + " of this user is larger than the server keeps",
+                    Math.max(WARMING_RETRY_SECONDS, TimeUnit.MILLISECONDS.toSeconds(retryAt - System.currentTimeMillis())));
+        }
+        CompletableFuture<I> build = builds.get(userId);
+        if (build == null) {
+            CompletableFuture<I> started = new CompletableFuture<>();
+            build = builds.putIfAbsent(userId, started);
+            if (build == null) {
+                build = started;
+                submit(userId, loader, started);
+            }
+        }
+        try {
+            return build.get(buildWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw warming();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw warming();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause());
+        }
+    }
+    
+    /**
+     * Applies a committed change to the user's index, if it has one or is building one.
+     */
+    void apply(TaskChangedEvent event) {
+        Long userId = event.getUserId();
+        Queue<Runnable> missed = building.get(userId);
+        if (missed != null) {
+            missed.add(() -> apply(event));
+        }
+        switch (event.getType()) {
+            case CREATED, UPDATED -> {
+                TaskText text = TaskText.of(event.getTask());
+                cache.asMap().computeIfPresent(userId, (id, index) -> index.index(text));
+            }
+            case DELETED -> cache.asMap().computeIfPresent(userId, (id, index) -> index.remove(event.getTaskId()));
+            // There is no task in the event; the changed tasks are read again by reindex
+            case BULK -> {
+            }
+        }
+    }
+    
+    /**
+     * Reads the given tasks of the user again on a build thread, if the user has an index or is
+     * building one, and indexes those the loader returns; the others no longer exist and are
+     * removed. Should that fail, the index is dropped rather than left stale.
+     *
+     * @param loader feeds the current state of those of the given tasks that still exist to the
+     *               given consumer
+     * @return completes once the tasks have been indexed
+     */
+    CompletableFuture<Void> reindex(Long userId, Collection<String> taskIds, Consumer<Consumer<TaskText>> loader) {
+        Queue<Runnable> missed = building.get(userId);
+        if (missed != null) {
+            missed.add(() -> reindex(userId, taskIds, loader));
+        }
+        if (taskIds.isEmpty() || !cache.asMap().containsKey(userId)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            return CompletableFuture.runAsync(() -> {
+                Set<String> found = new HashSet<>();
+                loader.accept(text -> {
+                    found.add(text.id());
+                    cache.asMap().computeIfPresent(userId, (id, index) -> index.index(text));
+                });
+                for (String taskId : taskIds) {
+                    if (!found.contains(taskId)) {
+                        cache.asMap().computeIfPresent(userId, (id, index) -> index.remove(taskId));
+                    }
+                }
+            }, executor).whenComplete((result, e) -> {
+                if (e != null) {
+                    log.warn("Updating the {} of user {} failed, dropping it", name.toLowerCase(), userId, e);
+                    cache.invalidate(userId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            cache.invalidate(userId);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+    
+    private void submit(Long userId, Consumer<Consumer<TaskText>> loader, CompletableFuture<I> build) {
+        try {
+            executor.execute(() -> {
+                try {
+                    build.complete(build(userId, loader));
+                } catch (Throwable e) {
+                    build.completeExceptionally(e);
+                } finally {
+                    builds.remove(userId, build);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            builds.remove(userId, build);
+            build.completeExceptionally(warming());
+        }
+    }
+    
+    private I build(Long userId, Consumer<Consumer<TaskText>> loader) {
+        Queue<Runnable> missed = new ConcurrentLinkedQueue<>();
+        building.put(userId, missed);
+        try {
+            I index = factory.get();
+            loader.accept(index::index);
+            index.finishLoading();
+            if (index.weight() > maxWeight) {
+                log.warn("{} of user {} needs about {} bytes, more than {}; it is not built again for {} minutes",
+                        name, userId, index.weight(), maxSizeProperty, OVERSIZE_RETRY_MINUTES);
+                oversized.put(userId, System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(OVERSIZE_RETRY_MINUTES));
+            } else {
+                cache.put(userId, index);
+            }
+            return index;
+        } finally {
+            // Changes committed while the tasks were read may be missing from what was read
+            building.remove(userId, missed);
+            Runnable change;
+            while ((change = missed.poll()) != null) {
+                change.run();
+            }
+        }
+    }
+    
+    private ServiceUnavailableException warming() {
+        return new ServiceUnavailableException(name + " is being built, please retry shortly", WARMING_RETRY_SECONDS);
+    }
+    
+    Cache<Long, ?> getCache() {
+        return cache;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.tasklistapp.service;
+
+import com.example.tasklistapp.Model.Task;
+
+/**
+ * A task together with the tag of the version it shows, sent as its ETag and expected back in
+ * {@code If-Match}. The tag is the row's version, followed by {@code +<n>} while a write-behind
+ * update is buffered for the task. Such a tag keeps matching once the update is written, until the
+ * task changes again.
+ */
+public record VersionedTask(Task task, String versionTag) {
+}
@@ -0,0 +1,45 @@
+-- Schema for the faststart profile, which validates the entities against it instead of letting Hibernate
+-- diff and create the tables on every start. Keep in sync with the entity mappings.
+create sequence my_app_user_seq start with 1 increment by 50;
+
+create table my_app_user (
+    is_verified boolean not null,
+    id bigint not null,
+    email varchar(255) not null unique,
+    password varchar(255) not null,
+    reset_token varchar(255),
+    username varchar(255) not null unique,
+    primary key (id)
+);
+
+create table tasks (
+    created_at timestamp(6) not null,
+    deleted_at timestamp(6),          -- set on delete; TaskPurger removes the row later
+    updated_at timestamp(6) not null,
+    user_id bigint not null,
+    version bigint not null,
+    id varchar(255) not null,
+    short_description varchar(255) not null,
+    long_description clob,            -- TEXT is a VARCHAR alias in H2, which validation rejects for a @Lob
+    compressed_long_description blob, -- deflate-compressed UTF-8, instead of long_description when that is long
+    status enum ('DONE','IN_PROGRESS','TODO') not null,
+    primary key (id),
+    foreign key (user_id) references my_app_user
+);
+
+-- Live tasks (deleted_at is null) of a user for every read, and deleted ones by age for the purge
+create index idx_tasks_deleted_user on tasks (deleted_at, user_id);
+
+-- Completed tasks moved out of tasks by TaskArchiver: no foreign key and one index besides the key
+create table archived_tasks (
+    archived_at timestamp(6) not null,
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null,
+    user_id bigint not null,
+    id varchar(255) not null,
+    short_description varchar(255) not null,
+    long_description blob,            -- deflate-compressed UTF-8
+    primary key (id)
+);
+
+create index idx_archived_tasks_user_updated on archived_tasks (user_id, updated_at);
@@ -0,0 +1,126 @@
+// Minimal CBOR (RFC 8949) decoder used by the opt-in binary transport of tasklist.js.
+// Supports the subset produced by Jackson: integers, strings, arrays, maps
+// (definite and indefinite length), floats, booleans, null and tags.
+const CBOR = (() => {
+    const utf8 = new TextDecoder('utf-8');
+    
+    function decode(buffer) {
+        const bytes = buffer instanceof Uint8Array ? buffer : new Uint8Array(buffer);
+        const view = new DataView(bytes.buffer, bytes.byteOffset, bytes.byteLength);
+        let offset = 0;
+        
+        function readLength(info) {
+            if (info < 24) return info;
+            let value;
+            switch (info) {
+                case 24: value = view.getUint8(offset); offset += 1; return value;
+                case 25: value = view.getUint16(offset); offset += 2; return value;
+                case 26: value = view.getUint32(offset); offset += 4; return value;
+                case 27:
+                    value = view.getUint32(offset) * 0x100000000 + view.getUint32(offset + 4);
+                    offset += 8;
+                    return value;
+                case 31: return -1; // indefinite length
+                default: throw new Error(`Invalid CBOR length encoding: ${info}`);
+            }
+        }
+        
+        function readFloat16() {
+            const half = view.getUint16(offset);
+            offset += 2;
+            const exponent = (half & 0x7c00) >> 10;
+            const fraction = half & 0x03ff;
+            const sign = half & 0x8000 ? -1 : 1;
+            if (exponent === 0) return sign * Math.pow(2, -14) * (fraction / 1024);
+            if (exponent === 0x1f) return fraction ? NaN : sign * Infinity;
+            return sign * Math.pow(2, exponent - 15) * (1 + fraction / 1024);
+        }
+        
+        function isBreak() {
+            if (view.getUint8(offset) === 0xff) {
+                offset += 1;
+                return true;
+            }
+            return false;
+        }
+        
+        function readChunks(majorType, length) {
+            if (length >= 0) {
+                const chunk = bytes.subarray(offset, offset + length);
+                offset += length;
+                return majorType === 3 ? utf8.decode(chunk) : chunk.slice();
+            }
+            const parts = [];
+            while (!isBreak()) {
+                parts.push(readItem());
+            }
+            if (majorType === 3) return parts.join('');
+            const total = parts.reduce((sum, part) => sum + part.length, 0);
+            const joined = new Uint8Array(total);
+            let position = 0;
+            parts.forEach(part => {
+                joined.set(part, position);
+                position += part.length;
+            });
+            return joined;
+        }
+        
+        function readItem() {
+            const initial = view.getUint8(offset);
+            offset += 1;
+            const majorType = initial >> 5;
+            const info = initial & 0x1f;
+            
+            switch (majorType) {
+                case 0: return readLength(info);
+                case 1: return -1 - readLength(info);
+                case 2:
+                case 3: return readChunks(majorType, readLength(info));
+                case 4: {
+                    const length = readLength(info);
+                    const array = [];
+                    if (length >= 0) {
+                        for (let i = 0; i < length; i++) array.push(readItem());
+                    } else {
+                        while (!isBreak()) array.push(readItem());
+                    }
+                    return array;
+                }
+                case 5: {
+                    const length = readLength(info);
+                    const object = {};
+                    if (length >= 0) {
+                        for (let i = 0; i < length; i++) object[readItem()] = readItem();
+                    } else {
+                        while (!isBreak()) object[readItem()] = readItem();
+                    }
+                    return object;
+                }
+                case 6:
+                    readLength(info); // tag number, the tagged value is returned as-is
+                    return readItem();
+                default: {
+                    let value;
+                    switch (info) {
+                        case 20: return false;
+                        case 21: return true;
+                        case 22: return null;
+                        case 23: return undefined;
+                        case 25: return readFloat16();
+                        case 26: value = view.getFloat32(offset); offset += 4; return value;
+                        case 27: value = view.getFloat64(offset); offset += 8; return value;
+                        default: throw new Error(`Unsupported CBOR simple value: ${info}`);
+                    }
+                }
+            }
+        }
+        
+        const result = readItem();
+        if (offset !== bytes.length) {
+            throw new Error('Unexpected trailing bytes in CBOR payload');
+        }
+        return result;
+    }
+    
+    return { decode };
+})();
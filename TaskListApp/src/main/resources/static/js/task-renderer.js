@@ -0,0 +1,236 @@
+// Task grid rendering shared by tasklist.js and the render benchmark page.
+// Cards are keyed by task id and patched in place; large lists are windowed so
+// only the rows in the viewport plus a small overscan buffer exist in the DOM.
+
+const STATUS_DISPLAY_NAMES = {
+    'TODO': 'To Do',
+    'IN_PROGRESS': 'In Progress',
+    'DONE': 'Done'
+};
+
+function getStatusDisplayName(status) {
+    return STATUS_DISPLAY_NAMES[status] || status;
+}
+
+function getCardDescription(task) {
+    if (task.partial) {
+        return task.excerpt + '...';
+    }
+    return task.longDescription
+        ? task.longDescription.substring(0, 100) + (task.longDescription.length > 100 ? '...' : '')
+        : 'No description';
+}
+
+function createTaskCardElement(task) {
+    const card = document.createElement('div');
+    card.className = 'task-card';
+    card.innerHTML = `
+        <div class="task-header">
+            <h3 class="task-title"></h3>
+            <span class="status-badge"></span>
+        </div>
+        <p class="task-description"></p>
+        <div class="task-meta">
+            <span class="task-id"></span>
+            <div class="task-actions-buttons">
+                <button class="task-btn edit-btn">Edit</button>
+                <button class="task-btn delete-btn">Delete</button>
+            </div>
+        </div>
+    `;
+    card.dataset.taskId = task.id;
+    card.querySelector('.task-id').textContent = `ID: ${task.id.substring(0, 8)}`;
+    card.querySelector('.edit-btn').dataset.taskId = task.id;
+    card.querySelector('.delete-btn').dataset.taskId = task.id;
+    patchTaskCardElement(card, task, null);
+    return card;
+}
+
+// Touches only the parts of the card whose source fields changed
+function patchTaskCardElement(card, task, previous) {
+    if (!previous || previous.shortDescription !== task.shortDescription) {
+        card.querySelector('.task-title').textContent = task.shortDescription;
+    }
+    if (!previous || previous.status !== task.status) {
+        const badge = card.querySelector('.status-badge');
+        badge.className = `status-badge status-${task.status}`;
+        badge.textContent = getStatusDisplayName(task.status);
+    }
+    if (!previous || previous.longDescription !== task.longDescription) {
+        card.querySelector('.task-description').textContent = getCardDescription(task);
+    }
+}
+
+class TaskGridRenderer {
+
+    constructor(container, options = {}) {
+        this.container = container;
+        this.windowThreshold = options.windowThreshold ?? 200;
+        this.overscanRows = options.overscanRows ?? 3;
+        this.emptyMessage = options.emptyMessage ?? null;
+        this.items = [];
+        this.cards = new Map();
+        this.rowHeight = 0;
+        this.updateScheduled = false;
+
+        const onViewportChange = () => {
+            if (this.isWindowed()) {
+                this.scheduleUpdate();
+            }
+        };
+        window.addEventListener('scroll', onViewportChange, { passive: true });
+        window.addEventListener('resize', () => {
+            this.rowHeight = 0;
+            onViewportChange();
+        }, { passive: true });
+    }
+
+    // Adopts cards already present in the container (e.g. server-rendered) instead of recreating them
+    hydrate(items) {
+        const byId = new Map(items.map(task => [task.id, task]));
+        for (const element of this.container.querySelectorAll('.task-card[data-task-id]')) {
+            const task = byId.get(element.dataset.taskId);
+            if (task) {
+                this.cards.set(task.id, { element, task });
+            }
+        }
+        if (items.length === 0 && this.container.querySelector('.no-tasks')) {
+            this.emptyElement = this.container.querySelector('.no-tasks');
+        }
+        this.setItems(items);
+    }
+
+    setItems(items) {
+        this.items = items;
+        this.update();
+    }
+
+    isWindowed() {
+        return this.items.length > this.windowThreshold;
+    }
+
+    scheduleUpdate() {
+        if (this.updateScheduled) {
+            return;
+        }
+        this.updateScheduled = true;
+        requestAnimationFrame(() => {
+            this.updateScheduled = false;
+            this.update();
+        });
+    }
+
+    update() {
+        if (this.items.length === 0) {
+            this.renderEmpty();
+            return;
+        }
+        if (this.emptyElement) {
+            this.emptyElement.remove();
+            this.emptyElement = null;
+        }
+
+        const windowed = this.isWindowed();
+        this.container.classList.toggle('windowed', windowed);
+
+        if (!windowed) {
+            this.container.style.paddingTop = '';
+            this.container.style.paddingBottom = '';
+            this.patch(this.items);
+            return;
+        }
+
+        const range = this.computeRange();
+        this.container.style.paddingTop = `${range.firstRow * range.rowHeight}px`;
+        this.container.style.paddingBottom = `${Math.max(0, range.totalRows - range.lastRow) * range.rowHeight}px`;
+        this.patch(this.items.slice(range.firstRow * range.columns, range.lastRow * range.columns));
+    }
+
+    computeRange() {
+        const columns = Math.max(1, getComputedStyle(this.container).gridTemplateColumns.split(' ').length);
+        const rowHeight = this.measureRowHeight();
+        const totalRows = Math.ceil(this.items.length / columns);
+        // Row n starts at gridTop + n * rowHeight; the top padding stands in for the rows above the window
+        const gridTop = this.container.getBoundingClientRect().top;
+
+        const firstVisibleRow = Math.floor(-gridTop / rowHeight);
+        const lastVisibleRow = Math.ceil((window.innerHeight - gridTop) / rowHeight);
+        const firstRow = Math.min(totalRows, Math.max(0, firstVisibleRow - this.overscanRows));
+        const lastRow = Math.min(totalRows, Math.max(firstRow, lastVisibleRow + this.overscanRows));
+        return { columns, rowHeight, totalRows, firstRow, lastRow };
+    }
+
+    measureRowHeight() {
+        if (this.rowHeight > 0) {
+            return this.rowHeight;
+        }
+        const gap = parseFloat(getComputedStyle(this.container).rowGap) || 0;
+        let sample = this.container.querySelector('.task-card');
+        let temporary = false;
+        if (!sample) {
+            sample = createTaskCardElement(this.items[0]);
+            this.container.appendChild(sample);
+            temporary = true;
+        }
+        const height = sample.getBoundingClientRect().height;
+        if (temporary) {
+            sample.remove();
+        }
+        this.rowHeight = height > 0 ? height + gap : 0;
+        return this.rowHeight || 1;
+    }
+
+    // Keyed reconciliation: reuse cards by task id, patch changed ones, move only out-of-place nodes
+    patch(visibleItems) {
+        const nextCards = new Map();
+        for (const task of visibleItems) {
+            const entry = this.cards.get(task.id);
+            if (entry) {
+                if (entry.task !== task) {
+                    patchTaskCardElement(entry.element, task, entry.task);
+                    entry.task = task;
+                }
+                nextCards.set(task.id, entry);
+            } else {
+                nextCards.set(task.id, { element: createTaskCardElement(task), task });
+            }
+        }
+
+        for (const [id, entry] of this.cards) {
+            if (!nextCards.has(id)) {
+                entry.element.remove();
+            }
+        }
+        for (const node of Array.from(this.container.childNodes)) {
+            if (node.nodeType !== Node.ELEMENT_NODE || !node.classList.contains('task-card')) {
+                node.remove();
+            }
+        }
+
+        let cursor = this.container.firstChild;
+        for (const entry of nextCards.values()) {
+            if (entry.element === cursor) {
+                cursor = cursor.nextSibling;
+            } else {
+                this.container.insertBefore(entry.element, cursor);
+            }
+        }
+        this.cards = nextCards;
+    }
+
+    renderEmpty() {
+        this.cards.forEach(entry => entry.element.remove());
+        this.cards = new Map();
+        this.container.classList.remove('windowed');
+        this.container.style.paddingTop = '';
+        this.container.style.paddingBottom = '';
+        if (!this.emptyMessage || this.emptyElement) {
+            return;
+        }
+        this.container.replaceChildren();
+        this.emptyElement = document.createElement('div');
+        this.emptyElement.className = 'no-tasks';
+        this.emptyElement.innerHTML = this.emptyMessage;
+        this.container.appendChild(this.emptyElement);
+    }
+}
@@ -3,6 +3,23 @@ let tasks = [];
 let currentFilter = 'all';
 let editingTaskId = null;
 
+// Events received from the live stream before the task list has loaded
+let tasksLoaded = false;
+let pendingTaskEvents = [];
+let renderScheduled = false;
+
+// Tasks matching the search box, best match first; null while it is empty
+let searchResults = null;
+let searchTimer = null;
+let searchSequence = 0;
+
+// Titles suggested while typing in the search box or the title field
+let suggestTimer = null;
+let suggestSequence = 0;
+
+// Opt-in binary transport for the task list: localStorage.setItem('taskApiFormat', 'cbor')
+const useBinaryTransport = typeof CBOR !== 'undefined' && localStorage.getItem('taskApiFormat') === 'cbor';
+
 // DOM Elements
 const tasksGrid = document.getElementById('tasksGrid');
 const taskModal = document.getElementById('taskModal');
@@ -14,10 +31,16 @@ const viewCloseBtn = document.querySelectorAll('.view-close');
 const cancelBtn = document.getElementById('cancelBtn');
 const modalTitle = document.getElementById('modalTitle');
 const statusFilter = document.getElementById('statusFilter');
+const taskSearch = document.getElementById('taskSearch');
+const titleInput = document.getElementById('shortDescription');
+const titleSuggestions = document.getElementById('titleSuggestions');
 
 // Initialize
 document.addEventListener('DOMContentLoaded', () => {
-    loadTasks();
+    connectTaskEvents();
+    if (!hydrateFromBootstrap()) {
+        loadTasks();
+    }
     setupEventListeners();
 });
 
@@ -27,11 +50,18 @@ function setupEventListeners() {
     closeBtn.addEventListener('click', () => closeModal());
     cancelBtn.addEventListener('click', () => closeModal());
     taskForm.addEventListener('submit', handleFormSubmit);
+    tasksGrid.addEventListener('click', handleGridClick);
     
     viewCloseBtn.forEach(btn => {
         btn.addEventListener('click', () => closeViewModal());
     });
     
+    taskSearch.addEventListener('input', () => {
+        scheduleSearch();
+        scheduleSuggest(taskSearch.value);
+    });
+    titleInput.addEventListener('input', () => scheduleSuggest(titleInput.value));
+    
     // Dropdown filter listener
     statusFilter.addEventListener('change', (e) => {
         currentFilter = e.target.value;
@@ -46,10 +76,68 @@ function setupEventListeners() {
 
 // API Calls
 async function loadTasks() {
+    tasksLoaded = false;
+    try {
+        const response = await fetch('/tasks', {
+            headers: { 'Accept': useBinaryTransport ? 'application/cbor' : 'application/json' }
+        });
+        if (response.ok) {
+            tasks = await readTaskPayload(response);
+            tasksLoaded = true;
+            pendingTaskEvents.forEach(([type, payload]) => applyTaskEvent(type, payload));
+            pendingTaskEvents = [];
+            renderTasks();
+        } else {
+            showError('Failed to load tasks');
+        }
+    } catch (error) {
+        console.error('Error loading tasks:', error);
+        showError('Error loading tasks');
+    }
+}
+
+// The server renders the first page of summaries into the page; adopt it instead of refetching
+function hydrateFromBootstrap() {
+    const element = document.getElementById('tasksBootstrap');
+    if (!element || !element.textContent.trim()) {
+        return false;
+    }
+    
+    const bootstrap = JSON.parse(element.textContent);
+    tasks = bootstrap.tasks.map(fromSummary);
+    tasksLoaded = true;
+    pendingTaskEvents.forEach(([type, payload]) => applyTaskEvent(type, payload));
+    pendingTaskEvents = [];
+    taskGridRenderer.hydrate(tasks);
+    
+    if (bootstrap.total > bootstrap.tasks.length) {
+        loadRemainingTasks(bootstrap.tasks[bootstrap.tasks.length - 1].id);
+    }
+    return true;
+}
+
+function fromSummary(summary) {
+    return {
+        id: summary.id,
+        shortDescription: summary.shortDescription,
+        longDescription: summary.descriptionTruncated ? undefined : (summary.excerpt || ''),
+        excerpt: summary.excerpt,
+        partial: summary.descriptionTruncated,
+        status: summary.status,
+        createdAt: summary.createdAt,
+        updatedAt: summary.updatedAt
+    };
+}
+
+async function loadRemainingTasks(afterTaskId) {
     try {
-        const response = await fetch('/tasks');
+        const response = await fetch(`/tasks?after=${encodeURIComponent(afterTaskId)}`, {
+            headers: { 'Accept': useBinaryTransport ? 'application/cbor' : 'application/json' }
+        });
         if (response.ok) {
-            tasks = await response.json();
+            const known = new Set(tasks.map(t => t.id));
+            const remaining = await readTaskPayload(response);
+            tasks = tasks.concat(remaining.filter(t => !known.has(t.id)));
             renderTasks();
         } else {
             showError('Failed to load tasks');
@@ -60,6 +148,31 @@ async function loadTasks() {
     }
 }
 
+// Summaries only carry a description excerpt; fetch the full task before showing or editing it
+async function ensureFullTask(taskId) {
+    const task = tasks.find(t => t.id === taskId);
+    if (!task || !task.partial) {
+        return task;
+    }
+    
+    const response = await fetch(`/tasks/${taskId}`);
+    if (!response.ok) {
+        showError('Failed to load task');
+        return null;
+    }
+    const fullTask = await response.json();
+    upsertTask(fullTask);
+    return tasks.find(t => t.id === taskId);
+}
+
+async function readTaskPayload(response) {
+    const contentType = response.headers.get('Content-Type') || '';
+    if (contentType.startsWith('application/cbor')) {
+        return CBOR.decode(await response.arrayBuffer());
+    }
+    return response.json();
+}
+
 async function createTask(taskData) {
     try {
         const response = await fetch('/tasks', {
@@ -72,7 +185,7 @@ async function createTask(taskData) {
         
         if (response.ok) {
             const newTask = await response.json();
-            tasks.unshift(newTask);
+            upsertTask(newTask);
             renderTasks();
             closeModal();
         } else {
@@ -84,22 +197,32 @@ async function createTask(taskData) {
     }
 }
 
+// Sends only the fields that changed, so a status change does not resend the description
 async function updateTask(taskId, taskData) {
+    const task = tasks.find(t => t.id === taskId);
+    const changes = {};
+    for (const [field, value] of Object.entries(taskData)) {
+        if (!task || (task[field] || '') !== value) {
+            changes[field] = value;
+        }
+    }
+    if (Object.keys(changes).length === 0) {
+        closeModal();
+        return;
+    }
+    
     try {
         const response = await fetch(`/tasks/${taskId}`, {
-            method: 'PUT',
+            method: 'PATCH',
             headers: {
-                'Content-Type': 'application/json',
+                'Content-Type': 'application/merge-patch+json',
             },
-            body: JSON.stringify(taskData)
+            body: JSON.stringify(changes)
         });
         
         if (response.ok) {
             const updatedTask = await response.json();
-            const index = tasks.findIndex(t => t.id === taskId);
-            if (index !== -1) {
-                tasks[index] = updatedTask;
-            }
+            upsertTask(updatedTask);
             renderTasks();
             closeModal();
         } else {
@@ -123,8 +246,9 @@ async function deleteTask(taskId) {
         });
         
         if (response.ok) {
-            tasks = tasks.filter(t => t.id !== taskId);
+            removeTask(taskId);
             renderTasks();
+            showAlert('Task deleted', 'success', { label: 'Undo', onClick: () => restoreTask(taskId) });
         } else {
             showError('Failed to delete task');
         }
@@ -134,78 +258,183 @@ async function deleteTask(taskId) {
     }
 }
 
-// UI Functions
-function renderTasks() {
-    const filteredTasks = currentFilter === 'all' 
-        ? tasks 
-        : tasks.filter(task => task.status === currentFilter);
-    
-    if (filteredTasks.length === 0) {
-        tasksGrid.innerHTML = `
-            <div class="no-tasks">
-                <p>No tasks found</p>
-                <p>Click "New Task" to create your first task!</p>
-            </div>
-        `;
+// Deleted tasks can be restored until the server purges them, a few minutes later
+async function restoreTask(taskId) {
+    try {
+        const response = await fetch(`/tasks/${taskId}/restore`, {
+            method: 'POST'
+        });
+        
+        if (response.ok) {
+            upsertTask(await response.json());
+            renderTasks();
+        } else {
+            showError('The task can no longer be restored');
+        }
+    } catch (error) {
+        console.error('Error restoring task:', error);
+        showError('Error restoring task');
+    }
+}
+
+// Live updates pushed by the server, applied incrementally to the local task list
+function connectTaskEvents() {
+    if (typeof EventSource === 'undefined') {
         return;
     }
     
-    tasksGrid.innerHTML = filteredTasks.map(task => createTaskCard(task)).join('');
-    
-    // Add event listeners to task cards
-    document.querySelectorAll('.task-card').forEach(card => {
-        const taskId = card.dataset.taskId;
-        card.addEventListener('click', (e) => {
-            if (!e.target.classList.contains('task-btn')) {
-                viewTask(taskId);
-            }
-        });
-    });
-    
-    // Add event listeners to edit and delete buttons
-    document.querySelectorAll('.edit-btn').forEach(btn => {
-        btn.addEventListener('click', (e) => {
-            e.stopPropagation();
-            const taskId = e.target.dataset.taskId;
-            openEditModal(taskId);
-        });
+    const source = new EventSource('/tasks/events');
+    source.addEventListener('task-created', (e) => handleTaskEvent('task-created', JSON.parse(e.data)));
+    source.addEventListener('task-updated', (e) => handleTaskEvent('task-updated', JSON.parse(e.data)));
+    source.addEventListener('task-deleted', (e) => handleTaskEvent('task-deleted', JSON.parse(e.data)));
+    // Only sent when the client missed more events than the server buffers
+    source.addEventListener('resync', () => loadTasks());
+}
+
+function handleTaskEvent(type, payload) {
+    if (!tasksLoaded) {
+        pendingTaskEvents.push([type, payload]);
+        return;
+    }
+    applyTaskEvent(type, payload);
+    scheduleRender();
+    if (searchResults) {
+        scheduleSearch();
+    }
+}
+
+function applyTaskEvent(type, payload) {
+    if (type === 'task-deleted') {
+        removeTask(payload.id);
+    } else {
+        upsertTask(payload);
+    }
+}
+
+function upsertTask(task) {
+    const index = tasks.findIndex(t => t.id === task.id);
+    if (index === -1) {
+        tasks.unshift(task);
+    } else if (!tasks[index].updatedAt || task.updatedAt >= tasks[index].updatedAt) {
+        tasks[index] = task;
+    }
+}
+
+function removeTask(taskId) {
+    tasks = tasks.filter(t => t.id !== taskId);
+}
+
+function scheduleRender() {
+    if (renderScheduled) {
+        return;
+    }
+    renderScheduled = true;
+    requestAnimationFrame(() => {
+        renderScheduled = false;
+        renderTasks();
     });
+}
+
+// Search runs on the server, which indexes every task, a moment after the user stops typing
+function scheduleSearch() {
+    clearTimeout(searchTimer);
+    searchTimer = setTimeout(runSearch, 200);
+}
+
+async function runSearch() {
+    const query = taskSearch.value.trim();
+    const sequence = ++searchSequence;
+    if (!query) {
+        searchResults = null;
+        renderTasks();
+        return;
+    }
+    try {
+        const response = await fetch(`/tasks/search?q=${encodeURIComponent(query)}&size=100`);
+        if (sequence !== searchSequence) {
+            return;
+        }
+        if (response.ok) {
+            searchResults = (await response.json()).tasks;
+            renderTasks();
+        } else {
+            showError('Search failed');
+        }
+    } catch (error) {
+        console.error('Error searching tasks:', error);
+        showError('Error searching tasks');
+    }
+}
+
+// Suggestions come from memory on the server, so a short pause in typing is enough
+function scheduleSuggest(prefix) {
+    clearTimeout(suggestTimer);
+    suggestTimer = setTimeout(() => runSuggest(prefix.trimStart()), 50);
+}
+
+async function runSuggest(prefix) {
+    const sequence = ++suggestSequence;
+    if (!prefix) {
+        titleSuggestions.replaceChildren();
+        return;
+    }
+    try {
+        const response = await fetch(`/tasks/suggest?prefix=${encodeURIComponent(prefix)}`);
+        if (sequence !== suggestSequence || !response.ok) {
+            return;
+        }
+        const titles = await response.json();
+        titleSuggestions.replaceChildren(...titles.map(title => {
+            const option = document.createElement('option');
+            option.value = title;
+            return option;
+        }));
+    } catch (error) {
+        console.error('Error loading suggestions:', error);
+    }
+}
+
+// UI Functions
+const taskGridRenderer = new TaskGridRenderer(tasksGrid, {
+    emptyMessage: `
+        <p>No tasks found</p>
+        <p>Click "New Task" to create your first task!</p>
+    `
+});
+
+function renderTasks() {
+    let shownTasks = tasks;
+    if (searchResults) {
+        // Prefer the local copy, which live events keep current
+        const byId = new Map(tasks.map(task => [task.id, task]));
+        shownTasks = searchResults.map(result => byId.get(result.id) || result);
+    }
+    const filteredTasks = currentFilter === 'all' 
+        ? shownTasks 
+        : shownTasks.filter(task => task.status === currentFilter);
     
-    document.querySelectorAll('.delete-btn').forEach(btn => {
-        btn.addEventListener('click', (e) => {
-            e.stopPropagation();
-            const taskId = e.target.dataset.taskId;
-            deleteTask(taskId);
-        });
-    });
+    taskGridRenderer.setItems(filteredTasks);
 }
 
-function createTaskCard(task) {
-    const shortId = task.id.substring(0, 8);
-    const description = task.longDescription 
-        ? task.longDescription.substring(0, 100) + (task.longDescription.length > 100 ? '...' : '')
-        : 'No description';
+// A single delegated listener handles clicks for every card the renderer creates
+function handleGridClick(e) {
+    const card = e.target.closest('.task-card');
+    if (!card) return;
     
-    return `
-        <div class="task-card" data-task-id="${task.id}">
-            <div class="task-header">
-                <h3 class="task-title">${escapeHtml(task.shortDescription)}</h3>
-                <span class="status-badge status-${task.status}">${getStatusDisplayName(task.status)}</span>
-            </div>
-            <p class="task-description">${escapeHtml(description)}</p>
-            <div class="task-meta">
-                <span class="task-id">ID: ${shortId}</span>
-                <div class="task-actions-buttons">
-                    <button class="task-btn edit-btn" data-task-id="${task.id}">Edit</button>
-                    <button class="task-btn delete-btn" data-task-id="${task.id}">Delete</button>
-                </div>
-            </div>
-        </div>
-    `;
+    const taskId = card.dataset.taskId;
+    if (e.target.classList.contains('edit-btn')) {
+        e.stopPropagation();
+        openEditModal(taskId);
+    } else if (e.target.classList.contains('delete-btn')) {
+        e.stopPropagation();
+        deleteTask(taskId);
+    } else if (!e.target.classList.contains('task-btn')) {
+        viewTask(taskId);
+    }
 }
 
-function viewTask(taskId) {
-    const task = tasks.find(t => t.id === taskId);
+async function viewTask(taskId) {
+    const task = await ensureFullTask(taskId);
     if (!task) return;
     
     document.getElementById('viewTaskId').textContent = task.id;
@@ -232,8 +461,8 @@ function openCreateModal() {
     taskModal.style.display = 'block';
 }
 
-function openEditModal(taskId) {
-    const task = tasks.find(t => t.id === taskId);
+async function openEditModal(taskId) {
+    const task = await ensureFullTask(taskId);
     if (!task) return;
     
     editingTaskId = taskId;
@@ -272,15 +501,6 @@ function handleFormSubmit(e) {
 }
 
 // Helper Functions
-function getStatusDisplayName(status) {
-    const statusMap = {
-        'TODO': 'To Do',
-        'IN_PROGRESS': 'In Progress',
-        'DONE': 'Done'
-    };
-    return statusMap[status] || status;
-}
-
 function formatDate(dateString) {
     const date = new Date(dateString);
     return date.toLocaleString('en-US', {
@@ -307,7 +527,7 @@ function showSuccess(message) {
     showAlert(message, 'success');
 }
 
-function showAlert(message, type = 'error') {
+function showAlert(message, type = 'error', action = null) {
     // Remove existing alerts
     const existingAlert = document.querySelector('.custom-alert');
     if (existingAlert) {
@@ -324,6 +544,17 @@ function showAlert(message, type = 'error') {
         </div>
     `;
     
+    if (action) {
+        const actionBtn = document.createElement('button');
+        actionBtn.className = 'custom-alert-action';
+        actionBtn.textContent = action.label;
+        actionBtn.addEventListener('click', () => {
+            alertDiv.remove();
+            action.onClick();
+        });
+        alertDiv.querySelector('.custom-alert-close').before(actionBtn);
+    }
+    
     document.body.appendChild(alertDiv);
     
     // Auto-remove after 5 seconds
@@ -0,0 +1,77 @@
+package com.example.tasklistapp.Config;
+
+import com.example.tasklistapp.Model.MyAppUser;
+import com.example.tasklistapp.Model.MyAppUserRepository;
+import com.example.tasklistapp.Model.TaskRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:seedtest",
+        "app.seed.users=20",
+        "app.seed.tasks=2000",
+        "app.seed.batch-size=64",
+        "app.seed.threads=3"
+})
+@ActiveProfiles("seed")
+@DisplayName("Data Seeder Tests")
+class DataSeederTest {
+    
+    @Autowired
+    private MyAppUserRepository userRepository;
+    
+    @Autowired
+    private TaskRepository taskRepository;
+    
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Test
+    @DisplayName("Should seed every user and task with a skewed distribution")
+    void testSeededCounts() {
+        List<MyAppUser> users = IntStream.range(0, 20)
+                .mapToObj(i -> userRepository.findByUsername("seed-user-" + i).orElseThrow())
+                .toList();
+        
+        assertEquals(2000, taskRepository.count());
+        long[] counts = users.stream().mapToLong(user -> taskRepository.countByUserId(user.getId())).toArray();
+        assertEquals(2000, Arrays.stream(counts).sum());
+        assertTrue(counts[0] > 5 * counts[19], "head user should own far more tasks than the tail: " + Arrays.toString(counts));
+    }
+    
+    @Test
+    @DisplayName("Should hash the shared seed password once")
+    void testPasswordHashedOnce() {
+        MyAppUser first = userRepository.findByUsername("seed-user-0").orElseThrow();
+        MyAppUser last = userRepository.findByUsername("seed-user-19").orElseThrow();
+        
+        assertEquals(first.getPassword(), last.getPassword());
+        assertTrue(passwordEncoder.matches("password", first.getPassword()));
+        // One for the admin account, one for all seed users
+        assertEquals(2, meterRegistry.get("security.password.encoder").tag("operation", "encode").timer().count());
+    }
+    
+    @Test
+    @DisplayName("Should split tasks by Zipf weights and keep the exact total")
+    void testTaskCounts() {
+        int[] counts = DataSeeder.taskCounts(4, 100, 1.0);
+        
+        assertEquals(100, Arrays.stream(counts).sum());
+        assertArrayEquals(new int[]{48, 24, 16, 12}, counts);
+        assertArrayEquals(new int[]{25, 25, 25, 25}, DataSeeder.taskCounts(4, 100, 0.0));
+    }
+}
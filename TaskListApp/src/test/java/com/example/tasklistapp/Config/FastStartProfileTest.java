@@ -0,0 +1,63 @@
+package com.example.tasklistapp.Config;
+
+import com.example.tasklistapp.Model.MyAppUser;
+import com.example.tasklistapp.Model.MyAppUserRepository;
+import com.example.tasklistapp.service.TaskMaintenance;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.env.Environment;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Starting the context at all proves db/schema.sql still matches the entities, since the profile validates against it
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:faststarttest")
+@ActiveProfiles("faststart")
+@DisplayName("Fast Start Profile Tests")
+class FastStartProfileTest {
+    
+    @Autowired
+    private MyAppUserRepository userRepository;
+    
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+    
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+    
+    @Autowired
+    private TaskMaintenance taskMaintenance;
+    
+    @Autowired
+    private Environment environment;
+    
+    @Test
+    @DisplayName("Should create the admin account from the precomputed hash")
+    void testAdminPasswordHash() {
+        MyAppUser admin = userRepository.findByUsername("admin").orElseThrow();
+        
+        assertTrue(passwordEncoder.matches("admin", admin.getPassword()));
+        assertFalse(passwordEncoder.matches("wrong", admin.getPassword()));
+    }
+    
+    @Test
+    @DisplayName("Should schedule the background jobs that no request path depends on")
+    void testSchedulesBackgroundJobs() {
+        // Checked without asking for the jobs, which would create them
+        assertTrue(beanFactory.containsSingleton("taskPurger"));
+        assertTrue(beanFactory.containsSingleton("taskArchiver"));
+        assertEquals(Set.of("task-purger", "task-archiver"), taskMaintenance.getScheduledJobs());
+    }
+    
+    @Test
+    @DisplayName("Should report ready without waiting for a warm-up")
+    void testSkipsWarmup() {
+        assertFalse(environment.getProperty("app.warmup.enabled", Boolean.class, true));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.tasklistapp.Config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "app.metrics.password={noop}scrape-secret")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@DisplayName("Metrics Endpoint Tests")
+class MetricsEndpointTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Test
+    @DisplayName("Should serve endpoint, repository, cache, pool, password and JVM metrics to the scrape account")
+    // Tomcat session and thread metrics need the embedded container, which MockMvc does not start
+    void testPrometheusScrape() throws Exception {
+        mockMvc.perform(get("/tasks").with(user("admin")));
+        mockMvc.perform(post("/login").param("username", "admin").param("password", "wrong"));
+        
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("prometheus", "scrape-secret")))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("uri=\"/tasks\"")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket")))
+                .andExpect(content().string(containsString("tasks_service_seconds_bucket")))
+                .andExpect(content().string(containsString("method=\"getAllTasksForUser\"")))
+                .andExpect(content().string(containsString("security_password_encoder_seconds_count{operation=\"matches\",outcome=\"mismatch\"")))
+                .andExpect(content().string(containsString("sql_statements_total{method=\"findByUsername\",repository=\"MyAppUserRepository\"}")))
+                .andExpect(content().string(containsString("cache_gets_total{cache=\"users-by-username\",result=\"hit\"}")))
+                .andExpect(content().string(containsString("cache_evictions_total{cache=\"tasks\"}")))
+                .andExpect(content().string(containsString("cache_hit_ratio{cache=\"task-ids\"}")))
+                .andExpect(content().string(containsString("cache_memory_bytes{cache=\"users\"}")))
+                .andExpect(content().string(containsString("cache_memory_max_bytes{cache=\"task-list-responses\"}")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")))
+                .andExpect(content().string(containsString("jvm_memory_used_bytes")))
+                .andExpect(content().string(not(containsString("userId"))));
+    }
+    
+    @Test
+    @DisplayName("Should serve metrics to neither anonymous callers nor signed-up users")
+    void testMetricsRequireScrapeAccount() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("prometheus", "wrong")))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/metrics").accept(MediaType.APPLICATION_JSON).with(user("someone")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/metrics").accept(MediaType.APPLICATION_JSON)
+                        .with(httpBasic("prometheus", "scrape-secret")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk());
+    }
+}
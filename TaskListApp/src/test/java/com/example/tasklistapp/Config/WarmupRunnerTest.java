@@ -0,0 +1,46 @@
+package com.example.tasklistapp.Config;
+
+import com.example.tasklistapp.Model.MyAppUserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:warmuptest",
+        "app.warmup.iterations=5"
+})
+@DisplayName("Warm-up Runner Tests")
+class WarmupRunnerTest {
+    
+    @Autowired
+    private TestRestTemplate restTemplate;
+    
+    @Autowired
+    private MyAppUserRepository userRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Test
+    @DisplayName("Should exercise the task endpoints before readiness and clean up the scratch user")
+    void testWarmupBeforeReadiness() {
+        assertEquals(5, meterRegistry.get("http.server.requests")
+                .tag("method", "DELETE").tag("uri", "/tasks/{id}").tag("status", "200").timer().count());
+        assertEquals(5, meterRegistry.get("http.server.requests")
+                .tag("method", "GET").tag("uri", "/tasks/{id}").tag("status", "404").timer().count());
+        assertTrue(userRepository.findAll().stream().noneMatch(user -> user.getUsername().startsWith("warmup-")));
+    }
+    
+    @Test
+    @DisplayName("Should serve liveness and readiness probes without login")
+    void testProbes() {
+        assertEquals(HttpStatus.OK, restTemplate.getForEntity("/actuator/health/liveness", String.class).getStatusCode());
+        assertEquals(HttpStatus.OK, restTemplate.getForEntity("/actuator/health/readiness", String.class).getStatusCode());
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.tasklistapp.Controller;
+
+import com.example.tasklistapp.Model.MyAppUser;
+import com.example.tasklistapp.Model.MyAppUserRepository;
+import com.example.tasklistapp.Model.Task;
+import com.example.tasklistapp.Model.TaskRepository;
+import com.example.tasklistapp.dto.TaskSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "app.tasklist.first-page-size=2")
+@AutoConfigureMockMvc
+@Transactional
+@DisplayName("Content Controller Tests")
+class ContentControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private TaskRepository taskRepository;
+    
+    @Autowired
+    private MyAppUserRepository userRepository;
+    
+    private MyAppUser testUser;
+    
+    @BeforeEach
+    void setUp() {
+        taskRepository.deleteAll();
+        
+        testUser = new MyAppUser();
+        testUser.setUsername("pageuser");
+        testUser.setEmail("page@example.com");
+        testUser.setPassword("encodedpassword");
+        testUser.setVerified(true);
+        testUser = userRepository.save(testUser);
+    }
+    
+    private Task saveTask(String title, String description, int minutesAgo) {
+        Task task = new Task();
+        task.setShortDescription(title);
+        task.setLongDescription(description);
+        task.setUser(testUser);
+        task.setCreatedAt(task.getCreatedAt().minusMinutes(minutesAgo));
+        return taskRepository.save(task);
+    }
+    
+    @Test
+    @DisplayName("Should render the first page of task summaries into the task list page")
+    @WithMockUser(username = "pageuser")
+    void testTasklistRendersFirstPage() throws Exception {
+        saveTask("Oldest task", "Not on the first page", 30);
+        saveTask("Middle task", "x".repeat(TaskSummary.EXCERPT_LENGTH + 50), 20);
+        saveTask("Newest task", "Short <b>description</b>", 10);
+        
+        mockMvc.perform(get("/tasklist"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("tasks", hasSize(2)))
+                .andExpect(content().string(containsString("Newest task")))
+                .andExpect(content().string(containsString("Middle task")))
+                .andExpect(content().string(not(containsString("Oldest task"))))
+                .andExpect(content().string(containsString("\"total\":3")))
+                .andExpect(content().string(containsString("\"descriptionTruncated\":true")))
+                .andExpect(content().string(containsString("Short \\u003cb\\u003edescription")))
+                .andExpect(content().string(not(containsString("x".repeat(TaskSummary.EXCERPT_LENGTH + 1)))));
+    }
+    
+    @Test
+    @DisplayName("Should render the empty state when the user has no tasks")
+    @WithMockUser(username = "pageuser")
+    void testTasklistWithoutTasks() throws Exception {
+        mockMvc.perform(get("/tasklist"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("No tasks found")))
+                .andExpect(content().string(containsString("{\"tasks\":[],\"total\":0}")));
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.tasklistapp.Controller;
+
+import com.example.tasklistapp.Model.MyAppUser;
+import com.example.tasklistapp.Model.MyAppUserRepository;
+import com.example.tasklistapp.Model.Task;
+import com.example.tasklistapp.Model.TaskRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.tasklistapp.jdbc.QueryBudget.assertStatements;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements per endpoint so an N+1 or a new lazy load fails the build.
+ * Deliberately not {@code @Transactional}: each request has to open, flush and commit its own
+ * transaction as it does in production. The second-level cache is emptied before each test, or a
+ * lazy load of a cached entity would cost no statement and slip through; what the cache saves is
+ * pinned by the tests that repeat a request.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@DisplayName("Task Controller Query Budget Tests")
+class TaskControllerQueryBudgetTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private TaskRepository taskRepository;
+    
+    @Autowired
+    private MyAppUserRepository userRepository;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private MyAppUser testUser;
+    private final List<Task> tasks = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        testUser = new MyAppUser();
+        testUser.setUsername("budgetuser");
+        testUser.setEmail("budget@example.com");
+        testUser.setPassword("encodedpassword");
+        testUser.setVerified(true);
+        testUser = userRepository.save(testUser);
+        
+        for (int i = 0; i < 5; i++) {
+            Task task = new Task();
+            task.setShortDescription("Budget task " + i);
+            task.setLongDescription("Description " + i);
+            task.setUser(testUser);
+            task.setCreatedAt(task.getCreatedAt().minusMinutes(i));
+            tasks.add(taskRepository.save(task));
+        }
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAllByUserId(testUser.getId());
+        userRepository.delete(testUser);
+    }
+    
+    @Test
+    @DisplayName("GET /tasks: the user, one id query and one load of all tasks, independent of their number")
+    @WithMockUser(username = "budgetuser")
+    void testGetAllTasksBudget() throws Exception {
+        assertStatements(3, () -> mockMvc.perform(get("/tasks")).andExpect(status().isOk()));
+    }
+    
+    @Test
+    @DisplayName("GET /tasks again: served entirely from the caches")
+    @WithMockUser(username = "budgetuser")
+    void testRepeatedGetAllTasksBudget() throws Exception {
+        mockMvc.perform(get("/tasks")).andExpect(status().isOk());
+        assertStatements(0, () -> mockMvc.perform(get("/tasks")).andExpect(status().isOk()));
+    }
+    
+    @Test
+    @DisplayName("GET /tasks?after: the user, the anchor, one id query and one load of the tasks after it")
+    @WithMockUser(username = "budgetuser")
+    void testGetTasksAfterBudget() throws Exception {
+        assertStatements(4, () -> mockMvc.perform(get("/tasks").param("after", tasks.get(1).getId()))
+                .andExpect(status().isOk()));
+    }
+    
+    @Test
+    @DisplayName("GET /tasks/{id}: the user and the task; the ownership check uses the loaded task")
+    @WithMockUser(username = "budgetuser")
+    void testGetTaskByIdBudget() throws Exception {
+        assertStatements(2, () -> mockMvc.perform(get("/tasks/" + tasks.get(0).getId())).andExpect(status().isOk()));
+    }
+    
+    @Test
+    @DisplayName("GET /tasks/{id} again: user and task come from the cache")
+    @WithMockUser(username = "budgetuser")
+    void testRepeatedGetTaskByIdBudget() throws Exception {
+        mockMvc.perform(get("/tasks/" + tasks.get(0).getId())).andExpect(status().isOk());
+        assertStatements(0, () -> mockMvc.perform(get("/tasks/" + tasks.get(0).getId())).andExpect(status().isOk()));
+    }
+    
+    @Test
+    @DisplayName("POST /tasks: the user and one insert; the unset version marks the task as new, so no merge select")
+    @WithMockUser(username = "budgetuser")
+    void testCreateTaskBudget() throws Exception {
+        assertStatements(2, () -> mockMvc.perform(post("/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"shortDescription\":\"New task\",\"longDescription\":\"Body\"}"))
+                .andExpect(status().isCreated()));
+    }
+    
+    @Test
+    @DisplayName("PUT /tasks/{id}: the user, the task and one update")
+    @WithMockUser(username = "budgetuser")
+    void testUpdateTaskBudget() throws Exception {
+        assertStatements(3, () -> mockMvc.perform(put("/tasks/" + tasks.get(0).getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"shortDescription\":\"Renamed\",\"longDescription\":\"Body\",\"status\":\"DONE\"}"))
+                .andExpect(status().isOk()));
+    }
+    
+    @Test
+    @DisplayName("PATCH /tasks/{id}: the user, the task and one update of the changed column")
+    @WithMockUser(username = "budgetuser")
+    void testPatchTaskBudget() throws Exception {
+        assertStatements(3, () -> mockMvc.perform(patch("/tasks/" + tasks.get(0).getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"DONE\"}"))
+                .andExpect(status().isOk()));
+    }
+    
+    @Test
+    @DisplayName("PATCH /tasks?status=: the user, locking the ids and one update per few hundred of them")
+    @WithMockUser(username = "budgetuser")
+    void testBulkStatusUpdateBudget() throws Exception {
+        assertStatements(3, () -> mockMvc.perform(patch("/tasks").param("status", "TODO")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"DONE\"}"))
+                .andExpect(status().isOk()));
+    }
+    
+    @Test
+    @DisplayName("DELETE /tasks?status=: the user, locking the ids and one update marking a few hundred of them")
+    @WithMockUser(username = "budgetuser")
+    void testBulkDeleteBudget() throws Exception {
+        assertStatements(3, () -> mockMvc.perform(delete("/tasks").param("status", "TODO")).andExpect(status().isOk()));
+    }
+    
+    @Test
+    @DisplayName("DELETE /tasks/{id}: the user, the task and one update marking it")
+    @WithMockUser(username = "budgetuser")
+    void testDeleteTaskBudget() throws Exception {
+        assertStatements(3, () -> mockMvc.perform(delete("/tasks/" + tasks.get(0).getId())).andExpect(status().isOk()));
+    }
+}
@@ -4,19 +4,38 @@ import com.example.tasklistapp.Model.MyAppUser;
 import com.example.tasklistapp.Model.MyAppUserRepository;
 import com.example.tasklistapp.Model.Task;
 import com.example.tasklistapp.Model.TaskRepository;
+import com.example.tasklistapp.service.TaskArchiver;
+import com.example.tasklistapp.service.TaskChangedEvent;
+import com.example.tasklistapp.service.TaskEventDispatcher;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayInputStream;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -38,6 +57,15 @@ class TaskControllerTest {
     @Autowired
     private MyAppUserRepository userRepository;
     
+    @Autowired
+    private TaskEventDispatcher taskEventDispatcher;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TaskArchiver taskArchiver;
+    
     private MyAppUser testUser;
     private Task testTask;
     
@@ -74,6 +102,38 @@ class TaskControllerTest {
                 .andExpect(jsonPath("$[0].status").value("TODO"));
     }
     
+    @Test
+    @DisplayName("Should report the phase breakdown in a Server-Timing header")
+    @WithMockUser(username = "testuser")
+    void testServerTimingHeader() throws Exception {
+        mockMvc.perform(get("/tasks"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Server-Timing", allOf(
+                        containsString("auth;dur="),
+                        containsString("user;dur="),
+                        matchesPattern(".*db;dur=[0-9.]+;desc=\"Repository calls \\([0-9]+\\)\".*"),
+                        containsString("serialize;dur="),
+                        matchesPattern(".*sql;dur=[0-9.]+;desc=\"[0-9]+ statements, [0-9]+ rows\".*"),
+                        containsString("total;dur="))))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+    
+    @Test
+    @DisplayName("Should get the tasks that follow a given task in list order")
+    @WithMockUser(username = "testuser")
+    void testGetTasksAfter() throws Exception {
+        Task olderTask = new Task();
+        olderTask.setShortDescription("Older Task");
+        olderTask.setUser(testUser);
+        olderTask.setCreatedAt(testTask.getCreatedAt().minusMinutes(5));
+        taskRepository.save(olderTask);
+        
+        mockMvc.perform(get("/tasks").param("after", testTask.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].shortDescription").value("Older Task"));
+    }
+    
     @Test
     @DisplayName("Should get task by ID")
     @WithMockUser(username = "testuser")
@@ -127,6 +187,253 @@ class TaskControllerTest {
                 .andExpect(jsonPath("$.status").value("IN_PROGRESS"));
     }
     
+    @Test
+    @DisplayName("Should patch only the given fields and write only their columns")
+    @WithMockUser(username = "testuser")
+    void testPatchTask() throws Exception {
+        // Changed behind Hibernate's back; a full-row update would overwrite it with the loaded value
+        taskRepository.flush();
+        jdbcTemplate.update("update tasks set long_description = ? where id = ?", "Changed elsewhere", testTask.getId());
+        
+        mockMvc.perform(patch("/tasks/{id}", testTask.getId())
+                .contentType("application/merge-patch+json")
+                .content("{\"status\":\"DONE\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+                .andExpect(jsonPath("$.shortDescription").value("Test Task"))
+                .andExpect(jsonPath("$.status").value("DONE"));
+        
+        assertEquals("Changed elsewhere", jdbcTemplate.queryForObject(
+                "select long_description from tasks where id = ?", String.class, testTask.getId()));
+        assertEquals("DONE", jdbcTemplate.queryForObject(
+                "select status from tasks where id = ?", String.class, testTask.getId()));
+    }
+    
+    @Test
+    @DisplayName("Should reject a patch that empties the short description")
+    @WithMockUser(username = "testuser")
+    void testPatchTaskInvalid() throws Exception {
+        mockMvc.perform(patch("/tasks/{id}", testTask.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"shortDescription\":\" \"}"))
+                .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    @DisplayName("Should apply a conditional update only to the version it was read at")
+    @WithMockUser(username = "testuser")
+    void testConditionalUpdate() throws Exception {
+        String etag = mockMvc.perform(get("/tasks/{id}", testTask.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        
+        mockMvc.perform(patch("/tasks/{id}", testTask.getId())
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"status\":\"IN_PROGRESS\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+        
+        // A second client still holding the first version
+        mockMvc.perform(put("/tasks/{id}", testTask.getId())
+                .header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"shortDescription\":\"Stale edit\",\"status\":\"TODO\"}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.error").value("Precondition Failed"));
+        mockMvc.perform(patch("/tasks/{id}", testTask.getId())
+                .header(HttpHeaders.IF_MATCH, "W/\"1\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"status\":\"DONE\"}"))
+                .andExpect(status().isPreconditionFailed());
+        
+        mockMvc.perform(get("/tasks/{id}", testTask.getId()))
+                .andExpect(jsonPath("$.shortDescription").value("Test Task"))
+                .andExpect(jsonPath("$.status").value("IN_PROGRESS"));
+    }
+    
+    @Test
+    @DisplayName("Should move all tasks with one status to another")
+    @WithMockUser(username = "testuser")
+    void testBulkStatusUpdate() throws Exception {
+        Task otherTask = new Task();
+        otherTask.setShortDescription("Other Task");
+        otherTask.setStatus(Task.TaskStatus.IN_PROGRESS);
+        otherTask.setUser(testUser);
+        taskRepository.save(otherTask);
+        
+        mockMvc.perform(patch("/tasks").param("status", "TODO")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"status\":\"DONE\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1));
+        
+        assertEquals(1L, jdbcTemplate.queryForObject("select count(*) from tasks where status = 'DONE'", Long.class));
+        assertEquals(1L, jdbcTemplate.queryForObject("select count(*) from tasks where status = 'IN_PROGRESS'", Long.class));
+        mockMvc.perform(get("/tasks/{id}", testTask.getId()))
+                .andExpect(jsonPath("$.status").value("DONE"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+    }
+    
+    @Test
+    @DisplayName("Should only change the status of several tasks at once")
+    @WithMockUser(username = "testuser")
+    void testBulkStatusUpdateInvalid() throws Exception {
+        mockMvc.perform(patch("/tasks").param("status", "TODO")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"status\":\"DONE\",\"shortDescription\":\"Same for all\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/tasks").param("status", "FINISHED")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"status\":\"DONE\"}"))
+                .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    @DisplayName("Should delete all tasks with a status, and only the current user's")
+    @WithMockUser(username = "testuser")
+    void testBulkDelete() throws Exception {
+        MyAppUser otherUser = new MyAppUser();
+        otherUser.setUsername("otheruser");
+        otherUser.setEmail("other@example.com");
+        otherUser.setPassword("encodedpassword");
+        otherUser = userRepository.save(otherUser);
+        Task otherUsersTask = new Task();
+        otherUsersTask.setShortDescription("Not mine");
+        otherUsersTask.setUser(otherUser);
+        taskRepository.save(otherUsersTask);
+        
+        mockMvc.perform(delete("/tasks").param("status", "TODO"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(1));
+        
+        assertEquals(1L, jdbcTemplate.queryForObject("select count(*) from tasks where deleted_at is null", Long.class));
+        mockMvc.perform(get("/tasks/{id}", testTask.getId()))
+                .andExpect(status().isNotFound());
+    }
+    
+    @Test
+    @DisplayName("Should reject an empty search or an out-of-range page")
+    @WithMockUser(username = "testuser")
+    void testSearchTasksInvalid() throws Exception {
+        mockMvc.perform(get("/tasks/search").param("q", " "))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/tasks/search").param("q", "test").param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/tasks/search").param("q", "test").param("page", "1000").param("size", "100"))
+                .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    @DisplayName("Should reject an empty prefix or an out-of-range limit")
+    @WithMockUser(username = "testuser")
+    void testSuggestTitlesInvalid() throws Exception {
+        mockMvc.perform(get("/tasks/suggest").param("prefix", " "))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/tasks/suggest").param("prefix", "test").param("limit", "21"))
+                .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    @DisplayName("Should list archived tasks with their description and leave them out of the task list")
+    @WithMockUser(username = "testuser")
+    void testGetArchivedTasks() throws Exception {
+        Task doneTask = new Task();
+        doneTask.setShortDescription("Done long ago");
+        doneTask.setLongDescription("Archived details ".repeat(20));
+        doneTask.setStatus(Task.TaskStatus.DONE);
+        doneTask.setUpdatedAt(LocalDateTime.now().minusDays(60));
+        doneTask.setUser(testUser);
+        taskRepository.saveAndFlush(doneTask);
+        
+        assertEquals(1, taskArchiver.archive());
+        
+        mockMvc.perform(get("/tasks/archive"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(doneTask.getId()))
+                .andExpect(jsonPath("$[0].longDescription").value("Archived details ".repeat(20)))
+                .andExpect(jsonPath("$[0].status").value("DONE"))
+                .andExpect(jsonPath("$[0].archivedAt").exists())
+                .andExpect(jsonPath("$[0].compressedLongDescription").doesNotExist());
+        mockMvc.perform(get("/tasks"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(testTask.getId()));
+        mockMvc.perform(get("/tasks/archive").param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+    
+    @Test
+    @DisplayName("Should export tasks as NDJSON, one task per line")
+    @WithMockUser(username = "testuser")
+    void testExportTasks() throws Exception {
+        Task newerTask = new Task();
+        newerTask.setShortDescription("Newer Task");
+        newerTask.setStatus(Task.TaskStatus.DONE);
+        newerTask.setUser(testUser);
+        taskRepository.save(newerTask);
+        
+        MvcResult result = mockMvc.perform(get("/tasks/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("tasks.ndjson")))
+                .andReturn();
+        
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Newer Task", objectMapper.readTree(lines[0]).get("shortDescription").asText());
+        assertEquals("Test Task", objectMapper.readTree(lines[1]).get("shortDescription").asText());
+        assertFalse(objectMapper.readTree(lines[1]).has("version"));
+    }
+    
+    @Test
+    @DisplayName("Should import NDJSON tasks as new tasks")
+    @WithMockUser(username = "testuser")
+    void testImportTasks() throws Exception {
+        // The import inserts through JDBC, which only sees the user once it is flushed
+        taskRepository.flush();
+        String body = "{\"id\":\"" + testTask.getId() + "\",\"shortDescription\":\"Imported\",\"status\":\"DONE\"}\n"
+                + "\n"
+                + "{\"shortDescription\":\"Imported too\",\"createdAt\":\"2020-01-02T03:04:05\"}\n";
+        
+        mockMvc.perform(post("/tasks/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.imported").value(2));
+        
+        mockMvc.perform(get("/tasks"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].shortDescription").value("Imported"))
+                .andExpect(jsonPath("$[0].status").value("DONE"))
+                .andExpect(jsonPath("$[0].id").value(not(testTask.getId())))
+                .andExpect(jsonPath("$[2].shortDescription").value("Imported too"))
+                .andExpect(jsonPath("$[2].status").value("TODO"));
+    }
+    
+    @Test
+    @DisplayName("Should reject an import with the line of the first invalid task and keep the tasks before it")
+    @WithMockUser(username = "testuser")
+    void testImportTasksInvalid() throws Exception {
+        // The tasks before the invalid line are inserted through JDBC, which only sees the user once it is flushed
+        taskRepository.flush();
+        mockMvc.perform(post("/tasks/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"shortDescription\":\"Fine\"}\n{\"shortDescription\":\" \"}\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(startsWith("Line 2:")))
+                .andExpect(jsonPath("$.message").value(endsWith("(1 task before it imported)")));
+        
+        mockMvc.perform(post("/tasks/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"shortDescription\":\"Fine\"}\n{\"status\":\"SOMEDAY\"}\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(startsWith("Line 2:")));
+    }
+    
     @Test
     @DisplayName("Should return 404 when updating non-existent task")
     @WithMockUser(username = "testuser")
@@ -157,6 +464,34 @@ class TaskControllerTest {
                 .andExpect(status().isNotFound());
     }
     
+    @Test
+    @DisplayName("Should hide a deleted task until it is restored")
+    @WithMockUser(username = "testuser")
+    void testRestoreDeletedTask() throws Exception {
+        mockMvc.perform(delete("/tasks/{id}", testTask.getId()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/tasks/{id}", testTask.getId()))
+                .andExpect(status().isNotFound());
+        // Only marked; the row stays until it is purged
+        taskRepository.flush();
+        assertEquals(1L, jdbcTemplate.queryForObject(
+                "select count(*) from tasks where id = ? and deleted_at is not null", Long.class, testTask.getId()));
+        
+        mockMvc.perform(post("/tasks/{id}/restore", testTask.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.shortDescription").value("Test Task"))
+                .andExpect(jsonPath("$.deletedAt").doesNotExist());
+        mockMvc.perform(get("/tasks"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(testTask.getId()));
+        // Already restored, so nothing changes
+        mockMvc.perform(post("/tasks/{id}/restore", testTask.getId()))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/tasks/{id}/restore", "nonexistent"))
+                .andExpect(status().isNotFound());
+    }
+    
     @Test
     @DisplayName("Should redirect to login without authentication")
     void testUnauthorizedAccess() throws Exception {
@@ -213,7 +548,7 @@ class TaskControllerTest {
     }
     
     @Test
-    @DisplayName("Should create task with long description")
+    @DisplayName("Should create task with long description, stored compressed")
     @WithMockUser(username = "testuser")
     void testCreateTaskWithLongDescription() throws Exception {
         String longDescription = "This is a very long description. ".repeat(50);
@@ -223,10 +558,175 @@ class TaskControllerTest {
         newTask.setLongDescription(longDescription);
         newTask.setStatus(Task.TaskStatus.TODO);
         
-        mockMvc.perform(post("/tasks")
+        String body = mockMvc.perform(post("/tasks")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(objectMapper.writeValueAsString(newTask)))
                 .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.longDescription").value(longDescription))
+                .andExpect(jsonPath("$.compressedLongDescription").doesNotExist())
+                .andReturn().getResponse().getContentAsString();
+        String id = objectMapper.readTree(body).get("id").asText();
+        
+        taskRepository.flush();
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from tasks where id = ? and long_description is null "
+                + "and octet_length(compressed_long_description) < 100", Integer.class, id));
+        mockMvc.perform(get("/tasks/{id}", id))
+                .andExpect(status().isOk())
                 .andExpect(jsonPath("$.longDescription").value(longDescription));
     }
+    
+    @Test
+    @DisplayName("Should return tasks as CBOR when requested")
+    @WithMockUser(username = "testuser")
+    void testGetAllTasksAsCbor() throws Exception {
+        byte[] body = mockMvc.perform(get("/tasks").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+        
+        JsonNode tasks = new CBORMapper().readTree(body);
+        assertEquals(1, tasks.size());
+        assertEquals("Test Task", tasks.get(0).get("shortDescription").asText());
+        assertEquals("TODO", tasks.get(0).get("status").asText());
+    }
+    
+    @Test
+    @DisplayName("Should accept Smile request body and return Smile response")
+    @WithMockUser(username = "testuser")
+    void testCreateTaskWithSmile() throws Exception {
+        SmileMapper smileMapper = new SmileMapper();
+        byte[] requestBody = smileMapper.writeValueAsBytes(Map.of(
+                "shortDescription", "Binary Task",
+                "longDescription", "Sent as Smile",
+                "status", "IN_PROGRESS"));
+        
+        byte[] body = mockMvc.perform(post("/tasks")
+                .contentType("application/x-jackson-smile")
+                .accept("application/x-jackson-smile")
+                .content(requestBody))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+        
+        JsonNode task = smileMapper.readTree(body);
+        assertEquals("Binary Task", task.get("shortDescription").asText());
+        assertEquals("IN_PROGRESS", task.get("status").asText());
+    }
+    
+    @Test
+    @DisplayName("Should send a large task list gzipped to clients that accept it")
+    @WithMockUser(username = "testuser")
+    void testGetAllTasksGzipped() throws Exception {
+        for (int i = 0; i < 30; i++) {
+            Task task = new Task();
+            task.setShortDescription("Bulk Task " + i);
+            task.setLongDescription("A description long enough to push the list past the compression threshold");
+            task.setUser(testUser);
+            taskRepository.save(task);
+        }
+        
+        byte[] body = mockMvc.perform(get("/tasks").header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().stringValues("Vary", hasItem("Accept, Accept-Encoding")))
+                .andReturn().getResponse().getContentAsByteArray();
+        
+        JsonNode tasks = objectMapper.readTree(new GZIPInputStream(new ByteArrayInputStream(body)));
+        assertEquals(31, tasks.size());
+        
+        mockMvc.perform(get("/tasks"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$", hasSize(31)));
+    }
+    
+    @Test
+    @DisplayName("Should refuse task lists in media types it cannot produce")
+    @WithMockUser(username = "testuser")
+    void testGetAllTasksNotAcceptable() throws Exception {
+        mockMvc.perform(get("/tasks").accept(MediaType.TEXT_PLAIN))
+                .andExpect(status().isNotAcceptable());
+    }
+    
+    @Test
+    @DisplayName("Should keep JSON as the default representation")
+    @WithMockUser(username = "testuser")
+    void testDefaultsToJson() throws Exception {
+        mockMvc.perform(get("/tasks").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+    
+    @Test
+    @DisplayName("Should stream task changes to the owner's event stream")
+    @WithMockUser(username = "testuser")
+    void testTaskEventStream() throws Exception {
+        MvcResult result = mockMvc.perform(get("/tasks/events").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        taskEventDispatcher.onTaskChanged(TaskChangedEvent.updated(testTask));
+        taskEventDispatcher.onTaskChanged(TaskChangedEvent.deleted(testTask.getId(), testUser.getId()));
+        
+        String stream = awaitContent(result, "event:task-deleted");
+        String epoch = eventEpoch(stream);
+        assertTrue(stream.contains("id:" + epoch + "-1\nevent:task-updated\ndata:"));
+        assertTrue(stream.contains("\"shortDescription\":\"Test Task\""));
+        assertTrue(stream.contains("id:" + epoch + "-2\nevent:task-deleted\ndata:{\"id\":\"" + testTask.getId() + "\"}"));
+    }
+    
+    @Test
+    @DisplayName("Should replay missed task events after Last-Event-ID")
+    @WithMockUser(username = "testuser")
+    void testTaskEventStreamReplay() throws Exception {
+        MvcResult first = mockMvc.perform(get("/tasks/events"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        taskEventDispatcher.onTaskChanged(TaskChangedEvent.created(testTask));
+        taskEventDispatcher.onTaskChanged(TaskChangedEvent.updated(testTask));
+        String epoch = eventEpoch(awaitContent(first, "event:task-updated"));
+        
+        MvcResult result = mockMvc.perform(get("/tasks/events").header("Last-Event-ID", epoch + "-1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        String stream = awaitContent(result, "event:task-updated");
+        assertFalse(stream.contains("event:task-created"));
+        assertFalse(stream.contains("event:resync"));
+        assertTrue(stream.contains("id:" + epoch + "-2\nevent:task-updated"));
+    }
+    
+    @Test
+    @DisplayName("Should tell a client resuming from an earlier channel's event id to resync")
+    @WithMockUser(username = "testuser")
+    void testTaskEventStreamResyncsOtherEpoch() throws Exception {
+        mockMvc.perform(get("/tasks/events")).andExpect(request().asyncStarted());
+        taskEventDispatcher.onTaskChanged(TaskChangedEvent.created(testTask));
+        
+        // The same sequence number, numbered by a channel that has since been evicted
+        MvcResult result = mockMvc.perform(get("/tasks/events").header("Last-Event-ID", "evicted-1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        String stream = awaitContent(result, "event:resync");
+        assertTrue(stream.contains("event:resync"));
+        assertFalse(stream.contains("event:task-created"));
+    }
+    
+    private String eventEpoch(String stream) {
+        Matcher matcher = Pattern.compile("id:(\\w+)-\\d+\n").matcher(stream);
+        assertTrue(matcher.find(), stream);
+        return matcher.group(1);
+    }
+    
+    private String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString();
+        }
+        return content;
+    }
 }
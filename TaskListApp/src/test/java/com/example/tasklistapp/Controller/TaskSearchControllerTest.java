@@ -0,0 +1,136 @@
+package com.example.tasklistapp.Controller;
+
+import com.example.tasklistapp.Model.MyAppUser;
+import com.example.tasklistapp.Model.MyAppUserRepository;
+import com.example.tasklistapp.Model.Task;
+import com.example.tasklistapp.Model.TaskRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Search and suggestions over HTTP. The indexes are built on threads of their own, which only see
+ * committed tasks, so the context is not {@code @Transactional}; no request waits for a build, so
+ * the first one for each index is answered with 503.
+ */
+@SpringBootTest(properties = {
+        "app.cache.search-index.build-wait=0ms",
+        "app.cache.suggest-index.build-wait=0ms"
+})
+@AutoConfigureMockMvc
+@DisplayName("Task Search Controller Tests")
+class TaskSearchControllerTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private TaskRepository taskRepository;
+    
+    @Autowired
+    private MyAppUserRepository userRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private MyAppUser testUser;
+    private Task testTask;
+    
+    @BeforeEach
+    void setUp() {
+        testUser = new MyAppUser();
+        testUser.setUsername("searchuser");
+        testUser.setEmail("search@example.com");
+        testUser.setPassword("encodedpassword");
+        testUser.setVerified(true);
+        testUser = userRepository.save(testUser);
+        
+        testTask = saveTask("Test Task", "This is a test task");
+    }
+    
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from tasks where user_id = ?", testUser.getId());
+        userRepository.delete(testUser);
+    }
+    
+    @Test
+    @DisplayName("Should find tasks by the words in their title and description once the index is built")
+    @WithMockUser(username = "searchuser")
+    void testSearchTasks() throws Exception {
+        Task otherTask = saveTask("Book flights", "Check the test window first");
+        
+        MvcResult warming = mockMvc.perform(get("/tasks/search").param("q", "TEST")).andReturn();
+        assertEquals(503, warming.getResponse().getStatus());
+        assertEquals("1", warming.getResponse().getHeader(HttpHeaders.RETRY_AFTER));
+        
+        performOnceBuilt(get("/tasks/search").param("q", "TEST"))
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.page").value(0))
+                .andExpect(jsonPath("$.tasks", hasSize(2)))
+                .andExpect(jsonPath("$.tasks[0].id").value(testTask.getId()))
+                .andExpect(jsonPath("$.tasks[1].id").value(otherTask.getId()));
+        
+        mockMvc.perform(get("/tasks/search").param("q", "test flights").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.tasks[0].shortDescription").value("Book flights"));
+    }
+    
+    @Test
+    @DisplayName("Should suggest distinct titles with a word starting with the prefix once the index is built")
+    @WithMockUser(username = "searchuser")
+    void testSuggestTitles() throws Exception {
+        for (String title : new String[]{"Write tests", "Test Task", "Call the tester"}) {
+            saveTask(title, null);
+        }
+        
+        performOnceBuilt(get("/tasks/suggest").param("prefix", "TEST"))
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0]").value("Test Task"))
+                .andExpect(jsonPath("$[1]").value("Call the tester"))
+                .andExpect(jsonPath("$[2]").value("Write tests"));
+        
+        mockMvc.perform(get("/tasks/suggest").param("prefix", "test t").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0]").value("Test Task"));
+    }
+    
+    // Retries the way a client honouring Retry-After would, only sooner
+    private ResultActions performOnceBuilt(RequestBuilder request) throws Exception {
+        for (int attempt = 0; ; attempt++) {
+            ResultActions result = mockMvc.perform(request);
+            if (result.andReturn().getResponse().getStatus() != 503) {
+                return result.andExpect(status().isOk());
+            }
+            assertTrue(attempt < 100, "Index still being built");
+            Thread.sleep(20);
+        }
+    }
+    
+    private Task saveTask(String shortDescription, String longDescription) {
+        Task task = new Task();
+        task.setShortDescription(shortDescription);
+        task.setLongDescription(longDescription);
+        task.setUser(testUser);
+        return taskRepository.save(task);
+    }
+}
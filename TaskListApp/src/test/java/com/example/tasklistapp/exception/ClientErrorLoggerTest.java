@@ -0,0 +1,83 @@
+package com.example.tasklistapp.exception;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Client Error Logger Tests")
+class ClientErrorLoggerTest {
+    
+    private ClientErrorLogger clientErrorLogger;
+    private SimpleMeterRegistry meterRegistry;
+    private ListAppender<ILoggingEvent> appender;
+    private MockHttpServletRequest request;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clientErrorLogger = new ClientErrorLogger();
+        ReflectionTestUtils.setField(clientErrorLogger, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(clientErrorLogger, "sampleRate", 1);
+        ReflectionTestUtils.setField(clientErrorLogger, "logsPerSecond", 3);
+        
+        appender = new ListAppender<>();
+        appender.start();
+        ((Logger) LoggerFactory.getLogger(ClientErrorLogger.class)).addAppender(appender);
+        request = new MockHttpServletRequest("GET", "/tasks/missing");
+    }
+    
+    @AfterEach
+    void tearDown() {
+        ((Logger) LoggerFactory.getLogger(ClientErrorLogger.class)).detachAppender(appender);
+    }
+    
+    @Test
+    @DisplayName("Should create expected domain exceptions without a stack trace")
+    void testDomainExceptionsAreStackless() {
+        assertEquals(0, new ResourceNotFoundException("Task", "id", "1").getStackTrace().length);
+        assertEquals(0, new UnauthorizedException().getStackTrace().length);
+        assertEquals(0, new InvalidRequestException("bad").getStackTrace().length);
+        assertEquals(0, new DuplicateResourceException("taken").getStackTrace().length);
+        assertEquals("Task not found with id: '1'", new ResourceNotFoundException("Task", "id", "1").getMessage());
+    }
+    
+    @Test
+    @DisplayName("Should count every error but log at most the configured number per second")
+    void testRateLimitsLogLines() {
+        for (int i = 0; i < 50; i++) {
+            clientErrorLogger.log(404, new ResourceNotFoundException("Task", "id", i), request);
+        }
+        clientErrorLogger.log(403, new UnauthorizedException(), request);
+        
+        assertEquals(50, clientErrorLogger.getCount(404, ResourceNotFoundException.class));
+        assertEquals(50, meterRegistry.get("http.client.errors")
+                .tag("exception", "ResourceNotFoundException").tag("status", "404").counter().count());
+        assertEquals(1, clientErrorLogger.getCount(403, UnauthorizedException.class));
+        // The limit is per exception type, so the 403 is still logged
+        assertEquals(4, appender.list.size());
+    }
+    
+    @Test
+    @DisplayName("Should log only sampled occurrences and report how many were skipped")
+    void testSamplesLogLines() {
+        ReflectionTestUtils.setField(clientErrorLogger, "sampleRate", 10);
+        
+        for (int i = 0; i < 20; i++) {
+            clientErrorLogger.log(400, new InvalidRequestException("bad " + i), request);
+        }
+        
+        assertEquals(2, appender.list.size());
+        assertTrue(appender.list.get(0).getFormattedMessage().contains("bad 9 (9 similar errors not logged)"));
+        assertEquals(20, clientErrorLogger.getCount(400, InvalidRequestException.class));
+    }
+}
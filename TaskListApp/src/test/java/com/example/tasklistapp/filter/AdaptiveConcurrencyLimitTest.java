@@ -0,0 +1,165 @@
+package com.example.tasklistapp.filter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Adaptive Concurrency Limit Tests")
+class AdaptiveConcurrencyLimitTest {
+    
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+    
+    @Test
+    @DisplayName("Should reject once the limit is reached and admit again after a release")
+    void testRejectsAtLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 100 * MILLIS, 0.9);
+        
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(1, limit.getRejected());
+        
+        limit.release(MILLIS, MILLIS);
+        assertEquals(1, limit.getInFlight());
+        assertTrue(limit.tryAcquire());
+    }
+    
+    @Test
+    @DisplayName("Should grow the limit while fast requests keep it in use")
+    void testIncreasesOnFastRequests() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100, 100 * MILLIS, 0.9);
+        
+        for (int i = 0; i < 200; i++) {
+            while (limit.tryAcquire()) {
+                // fill the limit so every release happens under load
+            }
+            limit.release(MILLIS, i * MILLIS);
+        }
+        
+        assertTrue(limit.getLimit() > 10, "limit should have grown, was " + limit.getLimit());
+    }
+    
+    @Test
+    @DisplayName("Should not grow the limit while it is mostly idle")
+    void testDoesNotIncreaseWhenIdle() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 1, 100, 100 * MILLIS, 0.9);
+        
+        for (int i = 0; i < 200; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(MILLIS, i * MILLIS);
+        }
+        
+        assertEquals(10, limit.getLimit());
+    }
+    
+    @Test
+    @DisplayName("Should back off once per latency interval and never drop below the minimum")
+    void testBacksOffToMinimum() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 5, 100, 100 * MILLIS, 0.5);
+        
+        // A burst of slow responses inside one interval counts as a single signal
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(500 * MILLIS, 1000 * MILLIS + i);
+        }
+        assertEquals(10, limit.getLimit());
+        
+        for (int i = 1; i <= 10; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(500 * MILLIS, 1000 * MILLIS + i * 100 * MILLIS);
+        }
+        assertEquals(5, limit.getLimit());
+    }
+    
+    @Test
+    @DisplayName("Should keep goodput near capacity at twice the sustainable load")
+    void testGoodputHoldsUnderOverload() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 200, 50 * MILLIS, 0.9);
+        
+        SimulationResult limited = simulate(limit);
+        SimulationResult unlimited = simulate(null);
+        
+        // 10 workers at 10ms each sustain 1000 requests/s; offered load is 2000 requests/s
+        assertTrue(limited.goodput() > 900,
+                "goodput with the limiter should stay near capacity, was " + limited.goodput());
+        assertTrue(limited.rejected() > 0);
+        assertTrue(limited.maxAdmittedLatencyNanos() < 1000 * MILLIS);
+        assertTrue(unlimited.goodput() < 100,
+                "without a limiter the queue should grow until every client times out, was " + unlimited.goodput());
+    }
+    
+    private record SimulationResult(double goodput, long rejected, long maxAdmittedLatencyNanos) {
+    }
+    
+    /**
+     * Discrete-event simulation of a server with a fixed worker pool and an unbounded FIFO queue
+     * in front of it, fed by Poisson arrivals at twice its capacity. Requests that take longer
+     * than the client timeout still occupy a worker but do not count towards goodput, which is
+     * measured over the second half of the run once the system has settled.
+     */
+    private SimulationResult simulate(AdaptiveConcurrencyLimit limit) {
+        int workers = 10;
+        long serviceNanos = 10 * MILLIS;
+        long meanInterArrivalNanos = serviceNanos / workers / 2;
+        long clientTimeoutNanos = 1000 * MILLIS;
+        long durationNanos = 20_000 * MILLIS;
+        long measureFromNanos = durationNanos / 2;
+        
+        Random random = new Random(42);
+        PriorityQueue<long[]> completions = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        ArrayDeque<Long> waiting = new ArrayDeque<>();
+        int busy = 0;
+        long goodRequests = 0;
+        long rejected = 0;
+        long maxAdmittedLatency = 0;
+        
+        long nextArrival = 0;
+        while (nextArrival < durationNanos || !completions.isEmpty()) {
+            boolean arrivalFirst = nextArrival < durationNanos
+                    && (completions.isEmpty() || nextArrival <= completions.peek()[0]);
+            
+            if (arrivalFirst) {
+                long now = nextArrival;
+                nextArrival += (long) (-Math.log(1 - random.nextDouble()) * meanInterArrivalNanos);
+                if (limit != null && !limit.tryAcquire()) {
+                    rejected++;
+                    continue;
+                }
+                if (busy < workers) {
+                    busy++;
+                    completions.add(new long[] {now + serviceNanos, now});
+                } else {
+                    waiting.add(now);
+                }
+            } else {
+                long[] completion = completions.poll();
+                long now = completion[0];
+                long latency = now - completion[1];
+                if (limit != null) {
+                    limit.release(latency, now);
+                    maxAdmittedLatency = Math.max(maxAdmittedLatency, latency);
+                }
+                if (latency <= clientTimeoutNanos && now >= measureFromNanos && now < durationNanos) {
+                    goodRequests++;
+                }
+                if (waiting.isEmpty()) {
+                    busy--;
+                } else {
+                    completions.add(new long[] {now + serviceNanos, waiting.poll()});
+                }
+                if (now > 2 * durationNanos) {
+                    break;
+                }
+            }
+        }
+        
+        double measuredSeconds = (double) (durationNanos - measureFromNanos) / TimeUnit.SECONDS.toNanos(1);
+        return new SimulationResult(goodRequests / measuredSeconds, rejected, maxAdmittedLatency);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.tasklistapp.filter;
+
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Concurrency Limit Filter Tests")
+class ConcurrencyLimitFilterTest {
+    
+    private AdaptiveConcurrencyLimit taskLimit;
+    private AdaptiveConcurrencyLimit searchLimit;
+    private AdaptiveConcurrencyLimit authLimit;
+    private AdaptiveConcurrencyLimit staticLimit;
+    private ConcurrencyLimitFilter filter;
+    
+    @BeforeEach
+    void setUp() {
+        long threshold = TimeUnit.SECONDS.toNanos(1);
+        taskLimit = new AdaptiveConcurrencyLimit(1, 1, 1, threshold, 0.9);
+        searchLimit = new AdaptiveConcurrencyLimit(1, 1, 1, threshold, 0.9);
+        authLimit = new AdaptiveConcurrencyLimit(1, 1, 1, threshold, 0.9);
+        staticLimit = new AdaptiveConcurrencyLimit(1, 1, 1, threshold, 0.9);
+        filter = new ConcurrencyLimitFilter(taskLimit, searchLimit, authLimit, staticLimit, 2, Jackson2ObjectMapperBuilder.json().build());
+    }
+    
+    @Test
+    @DisplayName("Should pass requests through and release the slot afterwards")
+    void testAdmitsAndReleases() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        
+        filter.doFilter(new MockHttpServletRequest("GET", "/tasks"), response, chain);
+        
+        assertNotNull(chain.getRequest());
+        assertEquals(200, response.getStatus());
+        assertEquals(0, taskLimit.getInFlight());
+    }
+    
+    @Test
+    @DisplayName("Should shed task requests with 503 and Retry-After when the limit is reached")
+    void testShedsOverLimit() throws Exception {
+        assertTrue(taskLimit.tryAcquire());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        
+        filter.doFilter(new MockHttpServletRequest("POST", "/tasks"), response, chain);
+        
+        assertNull(chain.getRequest());
+        assertEquals(503, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        assertTrue(response.getContentAsString().contains("\"status\":503"));
+        assertEquals(1, taskLimit.getRejected());
+    }
+    
+    @Test
+    @DisplayName("Should keep login and static assets on their own limits")
+    void testSeparateLimitsPerGroup() throws Exception {
+        assertTrue(taskLimit.tryAcquire());
+        
+        MockHttpServletResponse login = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/login"), login, new MockFilterChain());
+        MockHttpServletResponse script = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/js/tasklist.js"), script, new MockFilterChain());
+        
+        assertEquals(200, login.getStatus());
+        assertEquals(200, script.getStatus());
+        assertEquals(0, authLimit.getRejected());
+        assertEquals(0, staticLimit.getRejected());
+    }
+    
+    @Test
+    @DisplayName("Should keep search and suggestions, which may wait for an index build, off the task limit")
+    void testSearchHasItsOwnLimit() throws Exception {
+        MockHttpServletResponse search = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        assertTrue(searchLimit.tryAcquire());
+        
+        filter.doFilter(new MockHttpServletRequest("GET", "/tasks/suggest"), search, chain);
+        MockHttpServletResponse tasks = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/tasks"), tasks, new MockFilterChain());
+        
+        assertEquals(503, search.getStatus());
+        assertEquals(1, searchLimit.getRejected());
+        assertEquals(200, tasks.getStatus());
+        assertEquals(0, taskLimit.getRejected());
+    }
+    
+    @Test
+    @DisplayName("Should never limit the event stream or actuator endpoints")
+    void testExemptPaths() throws Exception {
+        assertTrue(taskLimit.tryAcquire());
+        
+        MockHttpServletResponse events = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/tasks/events"), events, new MockFilterChain());
+        MockHttpServletResponse health = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), health, new MockFilterChain());
+        
+        assertEquals(200, events.getStatus());
+        assertEquals(200, health.getStatus());
+        assertEquals(0, taskLimit.getRejected());
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.tasklistapp.jdbc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Asserts the exact number of JDBC statements an action executes on the calling thread. MockMvc
+ * runs requests on the test thread, so this covers a whole request including lazy loads during
+ * serialization. Budgets are exact on purpose: fewer statements should lower the budget too.
+ */
+public final class QueryBudget {
+    
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+    
+    private QueryBudget() {
+    }
+    
+    public static SqlStatementStats.Snapshot assertStatements(int expected, Action action) throws Exception {
+        SqlStatementStats.Snapshot before = SqlStatementStats.snapshot();
+        action.run();
+        SqlStatementStats.Snapshot used = SqlStatementStats.snapshot().minus(before);
+        assertEquals(expected, used.statements(),
+                () -> "Expected exactly " + expected + " SQL statements but " + used.statements() + " were executed");
+        return used;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.tasklistapp.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Single Flight Tests")
+class SingleFlightTest {
+    
+    private SingleFlight<Long, String> singleFlight;
+    
+    @BeforeEach
+    void setUp() {
+        singleFlight = new SingleFlight<>();
+    }
+    
+    @Test
+    @DisplayName("Should share one execution between concurrent callers for the same key")
+    void testConcurrentCallsShareExecution() throws Exception {
+        int callers = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+                loads.incrementAndGet();
+                loaderStarted.countDown();
+                awaitQuietly(release);
+                return "tasks";
+            })));
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+            
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.execute(1L, () -> {
+                    loads.incrementAndGet();
+                    return "unexpected";
+                })));
+            }
+            while (singleFlight.getJoins() < callers - 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            
+            for (Future<String> result : results) {
+                assertEquals("tasks", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        assertEquals(1, loads.get());
+        assertEquals(1, singleFlight.getExecutions());
+        assertEquals(callers - 1, singleFlight.getJoins());
+        assertEquals(7.0 / 8.0, singleFlight.getCoalescingRatio(), 0.0001);
+    }
+    
+    @Test
+    @DisplayName("Should start a new execution after the in-flight call is forgotten")
+    void testForgetDetachesInFlightCall() throws Exception {
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread first = new Thread(() -> singleFlight.execute(1L, () -> {
+            loaderStarted.countDown();
+            awaitQuietly(release);
+            return "before write";
+        }));
+        first.start();
+        assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+        
+        singleFlight.forget(1L);
+        String result = singleFlight.execute(1L, () -> "after write");
+        
+        release.countDown();
+        first.join(5000);
+        assertEquals("after write", result);
+        assertEquals(2, singleFlight.getExecutions());
+        assertEquals(0, singleFlight.getJoins());
+    }
+    
+    @Test
+    @DisplayName("Should propagate the loader failure to every caller and not retain it")
+    void testFailureIsNotRetained() {
+        assertThrows(IllegalStateException.class, () -> singleFlight.execute(1L, () -> {
+            throw new IllegalStateException("database unavailable");
+        }));
+        
+        assertEquals("recovered", singleFlight.execute(1L, () -> "recovered"));
+    }
+    
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
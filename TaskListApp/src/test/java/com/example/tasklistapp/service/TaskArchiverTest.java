@@ -0,0 +1,122 @@
+package com.example.tasklistapp.service;
+
+import com.example.tasklistapp.Model.ArchivedTask;
+import com.example.tasklistapp.Model.MyAppUser;
+import com.example.tasklistapp.Model.MyAppUserRepository;
+import com.example.tasklistapp.Model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Archival across several batches. The context is not {@code @Transactional}, so each batch commits
+ * and the caches see the change the way they would in production.
+ */
+@SpringBootTest(properties = {
+        "app.archive.enabled=false",
+        "app.archive.batch-size=3"
+})
+@DisplayName("Task Archiver Tests")
+class TaskArchiverTest {
+    
+    private static final LocalDateTime NOW = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    
+    @Autowired
+    private TaskArchiver taskArchiver;
+    
+    @Autowired
+    private TaskService taskService;
+    
+    @Autowired
+    private TaskBatchWriter taskBatchWriter;
+    
+    @Autowired
+    private MyAppUserRepository userRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private MyAppUser user;
+    private final List<Task> oldDone = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        user = new MyAppUser();
+        user.setUsername("archiveuser");
+        user.setEmail("archive@example.com");
+        user.setPassword("encodedpassword");
+        user.setVerified(true);
+        user = userRepository.save(user);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Task task = newTask("Old done " + i, Task.TaskStatus.DONE, NOW.minusDays(40 + i));
+            task.setLongDescription(i % 2 == 0 ? null : "Notes on old task " + i + " ".repeat(i * 250));
+            oldDone.add(task);
+            tasks.add(task);
+        }
+        tasks.add(newTask("Recently done", Task.TaskStatus.DONE, NOW.minusDays(2)));
+        tasks.add(newTask("Old but open", Task.TaskStatus.TODO, NOW.minusDays(90)));
+        tasks.add(newTask("Old in progress", Task.TaskStatus.IN_PROGRESS, NOW.minusDays(91)));
+        taskBatchWriter.insert(user.getId(), tasks);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from archived_tasks where user_id = ?", user.getId());
+        jdbcTemplate.update("delete from tasks where user_id = ?", user.getId());
+        userRepository.delete(user);
+    }
+    
+    @Test
+    @DisplayName("Should move old completed tasks to the archive and nothing else")
+    void testArchivesOldCompletedTasks() {
+        // Read first, so the cached list and task have to be dropped by the archival
+        assertEquals(10, taskService.getAllTasksForUser(user.getId()).size());
+        assertTrue(taskService.getTaskById(oldDone.get(0).getId()).isPresent());
+        
+        assertEquals(7, taskArchiver.archive(NOW.minusDays(30)));
+        
+        List<Task> remaining = taskService.getAllTasksForUser(user.getId());
+        assertEquals(List.of("Recently done", "Old but open", "Old in progress"),
+                remaining.stream().map(Task::getShortDescription).toList());
+        assertTrue(taskService.getTaskById(oldDone.get(0).getId()).isEmpty());
+        
+        List<ArchivedTask> archived = taskArchiver.getArchivedTasks(user.getId(), 0, 10);
+        assertEquals(7, archived.size());
+        for (int i = 0; i < 7; i++) {
+            Task original = oldDone.get(i);
+            ArchivedTask archivedTask = archived.get(i);
+            assertEquals(original.getId(), archivedTask.getId());
+            assertEquals(original.getShortDescription(), archivedTask.getShortDescription());
+            assertEquals(original.getLongDescription(), archivedTask.getLongDescription());
+            assertEquals(original.getCreatedAt(), archivedTask.getCreatedAt());
+            assertEquals(original.getUpdatedAt(), archivedTask.getUpdatedAt());
+        }
+        // Padding compresses well
+        assertTrue(archived.get(5).getCompressedLongDescription().length < archived.get(5).getLongDescription().length() / 4);
+        assertEquals(List.of("Old done 2", "Old done 3"), taskArchiver.getArchivedTasks(user.getId(), 1, 2).stream()
+                .map(ArchivedTask::getShortDescription).toList());
+        
+        assertEquals(0, taskArchiver.archive(NOW.minusDays(30)));
+    }
+    
+    private static Task newTask(String shortDescription, Task.TaskStatus status, LocalDateTime updatedAt) {
+        Task task = new Task();
+        task.setShortDescription(shortDescription);
+        task.setStatus(status);
+        task.setCreatedAt(updatedAt.minusDays(1));
+        task.setUpdatedAt(updatedAt);
+        return task;
+    }
+}
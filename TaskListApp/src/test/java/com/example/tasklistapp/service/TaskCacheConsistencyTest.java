@@ -0,0 +1,199 @@
+package com.example.tasklistapp.service;
+
+import com.example.tasklistapp.Model.MyAppUser;
+import com.example.tasklistapp.Model.MyAppUserRepository;
+import com.example.tasklistapp.Model.Task;
+import com.example.tasklistapp.Model.TaskRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Races writers against readers through {@link TaskService} and then checks that what the
+ * second-level, id and response caches serve matches the database row for row. Not {@code @Transactional}:
+ * every call has to commit for the caches to be involved at all.
+ */
+@SpringBootTest
+@DisplayName("Task Cache Consistency Tests")
+class TaskCacheConsistencyTest {
+    
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int WRITES_PER_WRITER = 150;
+    
+    @Autowired
+    private TaskService taskService;
+    
+    @Autowired
+    private TaskRepository taskRepository;
+    
+    @Autowired
+    private MyAppUserRepository userRepository;
+    
+    @Autowired
+    private TaskListResponseCache taskListResponseCache;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private MyAppUser user;
+    private final List<String> taskIds = new CopyOnWriteArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        user = new MyAppUser();
+        user.setUsername("cacheuser");
+        user.setEmail("cache@example.com");
+        user.setPassword("encodedpassword");
+        user.setVerified(true);
+        user = userRepository.save(user);
+        
+        for (int i = 0; i < 20; i++) {
+            taskIds.add(taskService.createTask(newTask("Task " + i), user).getId());
+        }
+    }
+    
+    @AfterEach
+    void tearDown() {
+        taskRepository.deleteAllByUserId(user.getId());
+        userRepository.delete(user);
+    }
+    
+    @Test
+    @DisplayName("Should serve exactly the committed state after concurrent reads and writes")
+    void testConcurrentReadsAndWrites() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<?>> writers = new ArrayList<>();
+        List<Future<?>> readers = new ArrayList<>();
+        try {
+            for (int w = 0; w < WRITERS; w++) {
+                int writer = w;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < WRITES_PER_WRITER; i++) {
+                        write(writer, i);
+                    }
+                }));
+            }
+            for (int r = 0; r < READERS; r++) {
+                readers.add(executor.submit(() -> {
+                    while (writing.get()) {
+                        List<Task> tasks = taskService.getAllTasksForUser(user.getId());
+                        assertEquals(tasks.size(), new HashSet<>(tasks.stream().map(Task::getId).toList()).size());
+                        taskService.getTaskById(taskIds.get(ThreadLocalRandom.current().nextInt(taskIds.size())));
+                        encodedTaskIds();
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            writing.set(false);
+            executor.shutdownNow();
+        }
+        
+        assertCachesMatchDatabase();
+    }
+    
+    @Test
+    @DisplayName("Should serve the committed state after set-based status changes and deletes")
+    void testBulkOperations() {
+        taskService.updateTask(taskIds.get(0), newTask("Started"), user.getId());
+        assertCachesMatchDatabase();
+        
+        assertEquals(20, taskService.updateStatusForUser(user.getId(), Task.TaskStatus.TODO, Task.TaskStatus.DONE));
+        assertCachesMatchDatabase();
+        assertTrue(taskService.getAllTasksForUser(user.getId()).stream().allMatch(task -> task.getStatus() == Task.TaskStatus.DONE));
+        
+        Task reopened = newTask("Reopened");
+        reopened.setStatus(Task.TaskStatus.IN_PROGRESS);
+        taskService.updateTask(taskIds.get(1), reopened, user.getId());
+        assertEquals(19, taskService.deleteTasksByStatus(user.getId(), Task.TaskStatus.DONE));
+        assertCachesMatchDatabase();
+        assertEquals(List.of(taskIds.get(1)), encodedTaskIds());
+    }
+    
+    private void assertCachesMatchDatabase() {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "select id, short_description, status from tasks where user_id = ? and deleted_at is null "
+                        + "order by created_at desc, id desc",
+                user.getId());
+        List<Task> cached = taskService.getAllTasksForUser(user.getId());
+        
+        assertEquals(rows.stream().map(row -> row.get("ID")).toList(), cached.stream().map(Task::getId).toList());
+        for (int i = 0; i < rows.size(); i++) {
+            Task byId = taskService.getTaskById(cached.get(i).getId()).orElseThrow();
+            assertEquals(rows.get(i).get("SHORT_DESCRIPTION"), cached.get(i).getShortDescription());
+            assertEquals(rows.get(i).get("SHORT_DESCRIPTION"), byId.getShortDescription());
+            assertEquals(rows.get(i).get("STATUS"), byId.getStatus().name());
+        }
+        assertEquals(rows.size(), taskService.countTasksForUser(user.getId()));
+        assertEquals(rows.stream().map(row -> row.get("ID")).toList(), encodedTaskIds());
+    }
+    
+    private List<String> encodedTaskIds() {
+        TaskListResponseCache.Shape json = new TaskListResponseCache.Shape(null, MediaType.APPLICATION_JSON, false);
+        byte[] body = taskListResponseCache.get(user.getId(), json, () -> taskService.getAllTasksForUser(user.getId())).bytes();
+        try {
+            List<String> ids = new ArrayList<>();
+            objectMapper.readTree(body).forEach(task -> ids.add(task.get("id").asText()));
+            return ids;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void write(int writer, int iteration) {
+        String id = taskIds.get(ThreadLocalRandom.current().nextInt(taskIds.size()));
+        try {
+            switch (iteration % 3) {
+                case 0 -> taskIds.add(taskService.createTask(newTask("Created " + writer + "-" + iteration), user).getId());
+                case 1 -> {
+                    Task update = newTask("Updated " + writer + "-" + iteration);
+                    update.setStatus(Task.TaskStatus.values()[iteration % Task.TaskStatus.values().length]);
+                    taskService.updateTask(id, update, user.getId());
+                }
+                default -> taskService.deleteTask(id, user.getId());
+            }
+        } catch (RuntimeException e) {
+            // Another writer deleted or changed the same task first; losing that race is expected
+        }
+    }
+    
+    private static Task newTask(String shortDescription) {
+        Task task = new Task();
+        task.setShortDescription(shortDescription);
+        task.setLongDescription("Consistency check");
+        return task;
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.tasklistapp.service;
+
+import com.example.tasklistapp.Model.MyAppUser;
+import com.example.tasklistapp.Model.MyAppUserRepository;
+import com.example.tasklistapp.Model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Long descriptions stored compressed, and the migration of those stored before. The context is not
+ * {@code @Transactional}, so each write commits the way it would in production.
+ */
+@SpringBootTest(properties = {
+        "app.description-compression.migrate-on-start=false",
+        "app.description-compression.batch-size=2"
+})
+@RecordApplicationEvents
+@DisplayName("Task Description Compressor Tests")
+class TaskDescriptionCompressorTest {
+    
+    private static final String LOG = "2024-05-01 12:00:00 INFO  [http-nio-8080-exec-1] Request handled in 12 ms\n".repeat(40);
+    
+    @Autowired
+    private TaskDescriptionCompressor taskDescriptionCompressor;
+    
+    @Autowired
+    private TaskService taskService;
+    
+    @Autowired
+    private TaskBatchWriter taskBatchWriter;
+    
+    @Autowired
+    private MyAppUserRepository userRepository;
+    
+    @Autowired
+    private TaskListResponseCache taskListResponseCache;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ApplicationEvents events;
+    
+    private record Row(String longDescription, byte[] compressedLongDescription, long version) {
+    }
+    
+    private MyAppUser user;
+    
+    @BeforeEach
+    void setUp() {
+        user = new MyAppUser();
+        user.setUsername("compressuser");
+        user.setEmail("compress@example.com");
+        user.setPassword("encodedpassword");
+        user.setVerified(true);
+        user = userRepository.save(user);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from tasks where user_id = ?", user.getId());
+        userRepository.delete(user);
+    }
+    
+    @Test
+    @DisplayName("Should store only long descriptions that shrink compressed, and read them back whole")
+    void testStoresLongDescriptionsCompressed() {
+        String incompressible = randomHan(2000);
+        Task log = newTask("Log", LOG);
+        Task note = newTask("Note", "Short note");
+        Task han = newTask("Han", incompressible);
+        taskBatchWriter.insert(user.getId(), List.of(log, note, han));
+        Task created = taskService.createTask(newTask("Created", LOG + "end"), user);
+        
+        Row logRow = row(log.getId());
+        assertNull(logRow.longDescription());
+        assertTrue(logRow.compressedLongDescription().length < LOG.length() / 10);
+        assertEquals("Short note", row(note.getId()).longDescription());
+        assertNull(row(note.getId()).compressedLongDescription());
+        assertEquals(incompressible, row(han.getId()).longDescription());
+        assertNull(row(created.getId()).longDescription());
+        
+        assertEquals(LOG, taskService.getTaskById(log.getId()).orElseThrow().getLongDescription());
+        assertEquals(LOG + "end", taskService.getTaskById(created.getId()).orElseThrow().getLongDescription());
+        assertEquals(incompressible, taskService.getTaskById(han.getId()).orElseThrow().getLongDescription());
+        Task stored = taskService.getTaskById(log.getId()).orElseThrow();
+        assertEquals(LOG.substring(0, 101), stored.getLongDescriptionPrefix(101));
+        assertEquals("Short note", taskService.getTaskById(note.getId()).orElseThrow().getLongDescriptionPrefix(101));
+        // The search index is built from the stored columns, not the entities
+        assertEquals(List.of("Created", "Log"), taskService.searchTasks(user.getId(), "handled", 0, 10).getTasks().stream()
+                .map(Task::getShortDescription).sorted().toList());
+    }
+    
+    @Test
+    @DisplayName("Should compress the long descriptions stored before, across batches")
+    void testMigratesUncompressedRows() {
+        List<Task> tasks = List.of(newTask("Old 0", LOG + 0), newTask("Old 1", LOG + 1), newTask("Old 2", LOG + 2),
+                newTask("Short", "Short note"), newTask("Han", randomHan(2000)));
+        taskBatchWriter.insert(user.getId(), tasks);
+        // Stored the way they were before compression
+        for (Task task : tasks) {
+            jdbcTemplate.update("update tasks set long_description = ?, compressed_long_description = null where id = ?",
+                    task.getLongDescription(), task.getId());
+        }
+        assertEquals(LOG + 0, taskService.getTaskById(tasks.get(0).getId()).orElseThrow().getLongDescription());
+        TaskListResponseCache.Shape shape = taskListResponseCache.shapeFor(null, null, null).orElseThrow();
+        AtomicInteger listLoads = new AtomicInteger();
+        taskListResponseCache.get(user.getId(), shape, () -> {
+            listLoads.incrementAndGet();
+            return tasks;
+        });
+        events.clear();
+        
+        assertEquals(3, taskDescriptionCompressor.compress());
+        
+        // The text is unchanged, so the indexes and clients are left alone; only the list responses carry versions
+        assertEquals(0, events.stream(TaskChangedEvent.class).count());
+        taskListResponseCache.get(user.getId(), shape, () -> {
+            listLoads.incrementAndGet();
+            return tasks;
+        });
+        assertEquals(2, listLoads.get());
+        
+        for (int i = 0; i < 3; i++) {
+            Row row = row(tasks.get(i).getId());
+            assertNull(row.longDescription());
+            assertNotNull(row.compressedLongDescription());
+            assertEquals(1L, row.version());
+            // Cached copies were dropped along with their old version
+            Task task = taskService.getTaskById(tasks.get(i).getId()).orElseThrow();
+            assertEquals(LOG + i, task.getLongDescription());
+            assertEquals(1L, task.getVersion());
+        }
+        assertEquals("Short note", row(tasks.get(3).getId()).longDescription());
+        assertEquals(tasks.get(4).getLongDescription(), row(tasks.get(4).getId()).longDescription());
+        assertEquals(0, taskDescriptionCompressor.compress());
+    }
+    
+    private Row row(String taskId) {
+        return jdbcTemplate.queryForObject("select long_description, compressed_long_description, version "
+                + "from tasks where id = ?", (row, n) -> new Row(row.getString(1), row.getBytes(2), row.getLong(3)), taskId);
+    }
+    
+    private static Task newTask(String shortDescription, String longDescription) {
+        Task task = new Task();
+        task.setShortDescription(shortDescription);
+        task.setLongDescription(longDescription);
+        return task;
+    }
+    
+    // Three bytes and about fourteen bits per character, so it grows when compressed
+    private static String randomHan(int length) {
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append((char) (0x4E00 + random.nextInt(0x5000)));
+        }
+        return text.toString();
+    }
+}
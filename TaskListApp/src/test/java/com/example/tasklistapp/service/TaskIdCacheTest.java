@@ -0,0 +1,57 @@
+package com.example.tasklistapp.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Task Id Cache Tests")
+class TaskIdCacheTest {
+    
+    private final TaskIdCache cache = new TaskIdCache(DataSize.ofMegabytes(1));
+    
+    @Test
+    @DisplayName("Should load once and serve the cached ids afterwards")
+    void testCachesLoadedIds() {
+        AtomicInteger loads = new AtomicInteger();
+        
+        cache.get(1L, () -> List.of("a", "b" + loads.incrementAndGet()));
+        List<String> ids = cache.get(1L, () -> List.of("c" + loads.incrementAndGet()));
+        
+        assertEquals(List.of("a", "b1"), ids);
+        assertEquals(1, loads.get());
+    }
+    
+    @Test
+    @DisplayName("Should not keep ids loaded by a read that overlapped an invalidation")
+    void testDropsIdsLoadedAcrossInvalidation() {
+        // The read queried before the write committed, the invalidation lands before the read stores
+        List<String> stale = cache.get(1L, () -> {
+            cache.invalidate(1L);
+            return List.of("stale");
+        });
+        List<String> fresh = cache.get(1L, () -> List.of("fresh"));
+        
+        assertEquals(List.of("stale"), stale);
+        assertEquals(List.of("fresh"), fresh);
+    }
+    
+    @Test
+    @DisplayName("Should stay within the configured size by evicting")
+    void testBoundedBySize() {
+        List<String> ids = IntStream.range(0, 100).mapToObj(i -> "id-" + i).toList();
+        for (long user = 0; user < 1000; user++) {
+            cache.get(user, () -> ids);
+        }
+        cache.getCache().cleanUp();
+        
+        long weight = cache.getCache().policy().eviction().orElseThrow().weightedSize().orElseThrow();
+        assertTrue(weight <= DataSize.ofMegabytes(1).toBytes());
+        assertTrue(cache.getCache().estimatedSize() < 1000);
+    }
+}
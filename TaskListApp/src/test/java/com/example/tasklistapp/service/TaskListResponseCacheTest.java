@@ -0,0 +1,120 @@
+package com.example.tasklistapp.service;
+
+import com.example.tasklistapp.Model.Task;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Task List Response Cache Tests")
+class TaskListResponseCacheTest {
+    
+    private static final MediaType CBOR = new MediaType("application", "cbor");
+    
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final TaskListResponseCache cache = new TaskListResponseCache(
+            DataSize.ofMegabytes(1), DataSize.ofKilobytes(2),
+            new MappingJackson2HttpMessageConverter(objectMapper),
+            new MappingJackson2CborHttpMessageConverter(new CBORMapper().registerModule(new JavaTimeModule())),
+            new MappingJackson2SmileHttpMessageConverter());
+    
+    private final TaskListResponseCache.Shape json = new TaskListResponseCache.Shape(null, MediaType.APPLICATION_JSON, false);
+    
+    @Test
+    @DisplayName("Should pick the preferred supported encoding and note whether gzip is accepted")
+    void testShapeFromHeaders() {
+        assertEquals(json, cache.shapeFor(null, null, null).orElseThrow());
+        assertEquals(json, cache.shapeFor(null, "*/*", "identity").orElseThrow());
+        assertEquals(new TaskListResponseCache.Shape("t1", CBOR, true),
+                cache.shapeFor("t1", "application/json;q=0.5, application/cbor", "br, gzip;q=0.8").orElseThrow());
+        assertFalse(cache.shapeFor(null, "application/json", "gzip;q=0").orElseThrow().gzip());
+        assertTrue(cache.shapeFor(null, "text/html", null).isEmpty());
+        assertTrue(cache.shapeFor(null, "not a media type", null).isEmpty());
+    }
+    
+    @Test
+    @DisplayName("Should encode once and serve the same bytes until invalidated")
+    void testServesCachedBytesUntilInvalidated() throws IOException {
+        AtomicInteger loads = new AtomicInteger();
+        
+        byte[] first = cache.get(1L, json, () -> tasks(loads.incrementAndGet())).bytes();
+        byte[] second = cache.get(1L, json, () -> tasks(loads.incrementAndGet())).bytes();
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals("Task 0", objectMapper.readTree(first).get(0).get("shortDescription").asText());
+        
+        cache.invalidate(1L);
+        JsonNode reloaded = objectMapper.readTree(cache.get(1L, json, () -> tasks(loads.incrementAndGet())).bytes());
+        assertEquals(2, loads.get());
+        assertEquals(2, reloaded.size());
+        assertEquals(1, cache.getCache().stats().hitCount());
+        assertEquals(2, cache.getCache().stats().missCount());
+    }
+    
+    @Test
+    @DisplayName("Should not serve a body loaded by a read that overlapped an invalidation")
+    void testDropsBodyLoadedAcrossInvalidation() throws IOException {
+        cache.get(1L, json, () -> {
+            cache.invalidate(1L);
+            return tasks(1);
+        });
+        JsonNode fresh = objectMapper.readTree(cache.get(1L, json, () -> tasks(3)).bytes());
+        
+        assertEquals(3, fresh.size());
+    }
+    
+    @Test
+    @DisplayName("Should store large bodies gzipped for clients that accept it")
+    void testCompressesLargeBodies() throws IOException {
+        TaskListResponseCache.Shape gzip = new TaskListResponseCache.Shape(null, MediaType.APPLICATION_JSON, true);
+        
+        TaskListResponseCache.Body small = cache.get(1L, gzip, () -> tasks(1));
+        TaskListResponseCache.Body large = cache.get(2L, gzip, () -> tasks(100));
+        
+        assertFalse(small.gzipped());
+        assertTrue(large.gzipped());
+        byte[] inflated = new GZIPInputStream(new ByteArrayInputStream(large.bytes())).readAllBytes();
+        assertEquals(100, objectMapper.readTree(inflated).size());
+        assertTrue(large.bytes().length < inflated.length / 4);
+    }
+    
+    @Test
+    @DisplayName("Should stay within the configured size by evicting")
+    void testBoundedBySize() {
+        List<Task> tasks = tasks(20);
+        for (long user = 0; user < 1000; user++) {
+            cache.get(user, json, () -> tasks);
+        }
+        cache.getCache().cleanUp();
+        
+        long weight = cache.getCache().policy().eviction().orElseThrow().weightedSize().orElseThrow();
+        assertTrue(weight <= DataSize.ofMegabytes(1).toBytes());
+        assertTrue(cache.getCache().estimatedSize() < 1000);
+    }
+    
+    private static List<Task> tasks(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            Task task = new Task();
+            task.setId("task-" + i);
+            task.setShortDescription("Task " + i);
+            task.setLongDescription("Description of task " + i);
+            return task;
+        }).toList();
+    }
+}
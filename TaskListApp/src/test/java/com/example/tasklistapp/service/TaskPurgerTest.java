@@ -0,0 +1,154 @@
+package com.example.tasklistapp.service;
+
+import com.example.tasklistapp.Model.MyAppUser;
+import com.example.tasklistapp.Model.MyAppUserRepository;
+import com.example.tasklistapp.Model.Task;
+import com.example.tasklistapp.exception.ResourceNotFoundException;
+import com.example.tasklistapp.filter.AdaptiveConcurrencyLimit;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Soft deletes and their purge, with the purger driven by hand. The context is not
+ * {@code @Transactional}, so each write commits the way it would in production.
+ */
+@SpringBootTest(properties = {
+        "app.soft-delete.purge-enabled=false",
+        "app.soft-delete.purge-batch-size=2",
+        "app.soft-delete.quiet-in-flight=1"
+})
+@DisplayName("Task Purger Tests")
+class TaskPurgerTest {
+    
+    @Autowired
+    private TaskPurger taskPurger;
+    
+    @Autowired
+    private TaskService taskService;
+    
+    @Autowired
+    private TaskBatchWriter taskBatchWriter;
+    
+    @Autowired
+    private MyAppUserRepository userRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    @Autowired
+    private AdaptiveConcurrencyLimit taskConcurrencyLimit;
+    
+    private MyAppUser user;
+    private final List<String> ids = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        user = new MyAppUser();
+        user.setUsername("purgeuser");
+        user.setEmail("purge@example.com");
+        user.setPassword("encodedpassword");
+        user.setVerified(true);
+        user = userRepository.save(user);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Task task = new Task();
+            task.setShortDescription("Task " + i);
+            tasks.add(task);
+            ids.add(task.getId());
+        }
+        taskBatchWriter.insert(user.getId(), tasks);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from tasks where user_id = ?", user.getId());
+        userRepository.delete(user);
+    }
+    
+    @Test
+    @DisplayName("Should purge only tasks deleted before the cutoff, in batches")
+    void testPurgesDeletedTasks() {
+        assertEquals(8, taskService.getAllTasksForUser(user.getId()).size());
+        for (int i = 0; i < 5; i++) {
+            taskService.deleteTask(ids.get(i), user.getId());
+        }
+        LocalDateTime cutoff = LocalDateTime.now();
+        taskService.deleteTask(ids.get(5), user.getId());
+        
+        // Marked, not removed, and left out of every read
+        assertEquals(8L, rowCount());
+        assertEquals(Set.copyOf(ids.subList(6, 8)), liveIds());
+        assertTrue(taskService.getTaskById(ids.get(0)).isEmpty());
+        assertTrue(entityManagerFactory.getCache().contains(Task.class, ids.get(0)));
+        
+        assertEquals(5, taskPurger.purge(cutoff, cutoff.minusHours(1)));
+        
+        assertEquals(3L, rowCount());
+        assertFalse(entityManagerFactory.getCache().contains(Task.class, ids.get(0)));
+        assertEquals(0, taskPurger.purge(cutoff, cutoff.minusHours(1)));
+        // Deleted after the cutoff, so still within its undo window
+        assertEquals("Task 5", taskService.restoreTask(ids.get(5), user.getId()).task().getShortDescription());
+        assertEquals(Set.copyOf(ids.subList(5, 8)), liveIds());
+    }
+    
+    @Test
+    @DisplayName("Should only purge overdue tasks while task requests are in flight")
+    void testDefersPurgeWhileBusy() {
+        taskService.deleteTask(ids.get(0), user.getId());
+        taskService.deleteTask(ids.get(1), user.getId());
+        backdateDelete(ids.get(0), LocalDateTime.now().minusHours(2));
+        LocalDateTime now = LocalDateTime.now();
+        
+        assertTrue(taskConcurrencyLimit.tryAcquire());
+        try {
+            assertEquals(1, taskPurger.purge(now, now.minusHours(1)));
+        } finally {
+            taskConcurrencyLimit.release(0, System.nanoTime());
+        }
+        assertEquals(7L, rowCount());
+        
+        assertEquals(1, taskPurger.purge(now, now.minusHours(1)));
+        assertEquals(6L, rowCount());
+    }
+    
+    @Test
+    @DisplayName("Should not restore a task once its undo window has passed")
+    void testRestoreOnlyWithinUndoWindow() {
+        taskService.deleteTask(ids.get(0), user.getId());
+        backdateDelete(ids.get(0), LocalDateTime.now().minusHours(1));
+        
+        assertThrows(ResourceNotFoundException.class, () -> taskService.restoreTask(ids.get(0), user.getId()));
+        assertEquals(7, taskService.getAllTasksForUser(user.getId()).size());
+    }
+    
+    private void backdateDelete(String taskId, LocalDateTime deletedAt) {
+        jdbcTemplate.update("update tasks set deleted_at = ? where id = ?", Timestamp.valueOf(deletedAt), taskId);
+        entityManagerFactory.getCache().evict(Task.class, taskId);
+    }
+    
+    private long rowCount() {
+        return jdbcTemplate.queryForObject("select count(*) from tasks where user_id = ?", Long.class, user.getId());
+    }
+    
+    private Set<String> liveIds() {
+        return taskService.getAllTasksForUser(user.getId()).stream().map(Task::getId).collect(Collectors.toSet());
+    }
+}
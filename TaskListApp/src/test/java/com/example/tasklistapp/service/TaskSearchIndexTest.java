@@ -0,0 +1,209 @@
+package com.example.tasklistapp.service;
+
+import com.example.tasklistapp.Model.TaskText;
+import com.example.tasklistapp.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static com.example.tasklistapp.service.UserIndexFixture.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Task Search Index Tests")
+class TaskSearchIndexTest {
+    
+    private final TaskSearchIndex index = new TaskSearchIndex(DataSize.ofMegabytes(8), Duration.ofSeconds(10));
+    private final UserIndexFixture fixture = new UserIndexFixture();
+    
+    @Test
+    @DisplayName("Should split text into distinct lower-case terms of letters and digits")
+    void testTerms() {
+        assertEquals(Set.of("fix", "the", "login", "bug", "v2", "größe"),
+                TaskSearchIndex.terms("Fix the LOGIN-bug (v2), a größe fix"));
+        assertEquals(Set.of("the"), TaskSearchIndex.terms("a the"));
+        assertEquals(TaskSearchIndex.MAX_TERM_LENGTH, TaskSearchIndex.terms("x".repeat(100)).iterator().next().length());
+    }
+    
+    @Test
+    @DisplayName("Should only match tasks containing every term and rank title matches first")
+    void testRanksMatches() {
+        fixture.stored.add(text("1", "Quarterly report", "Send it to the team", 0, 0));
+        fixture.stored.add(text("2", "Call the dentist", "About the quarterly report, once it is done", 0, 1));
+        fixture.stored.add(text("3", "Quarterly budget", null, 0, 2));
+        
+        TaskSearchIndex.Result result = search("REPORT quarterly", 0, 10);
+        
+        assertEquals(2, result.total());
+        assertEquals(List.of("1", "2"), result.ids());
+        assertEquals(List.of("3", "1", "2"), search("quarterly", 0, 10).ids());
+        assertEquals(0, search("quarterly dentist invoice", 0, 10).total());
+        assertEquals(0, search("a", 0, 10).total());
+    }
+    
+    @Test
+    @DisplayName("Should page through the ranked matches")
+    void testPaginates() {
+        for (int i = 0; i < 25; i++) {
+            fixture.stored.add(text("t" + i, "Weekly task", "shared words", 0, i));
+        }
+        
+        TaskSearchIndex.Result first = search("shared", 0, 10);
+        TaskSearchIndex.Result last = search("shared", 20, 10);
+        
+        assertEquals(25, first.total());
+        // Equal scores go to the task updated last
+        assertEquals("t24", first.ids().get(0));
+        assertEquals(List.of("t4", "t3", "t2", "t1", "t0"), last.ids());
+        assertEquals(List.of(), search("shared", 30, 10).ids());
+        assertEquals(25, search("shared", 0, 0).total());
+    }
+    
+    @Test
+    @DisplayName("Should keep the index up to date from task events without rebuilding it")
+    void testAppliesEvents() {
+        fixture.stored.add(text("1", "Write release notes", null, 0, 0));
+        fixture.stored.add(text("2", "Fix login bug", null, 0, 0));
+        search("release", 0, 10);
+        
+        index.apply(TaskChangedEvent.created(task("3", "Draft release plan", 0, 1)));
+        index.apply(TaskChangedEvent.updated(task("1", "Write onboarding docs", 1, 2)));
+        index.apply(TaskChangedEvent.deleted("2", USER_ID));
+        
+        assertEquals(List.of("3"), search("release", 0, 10).ids());
+        assertEquals(List.of("1"), search("onboarding", 0, 10).ids());
+        assertEquals(0, search("login", 0, 10).total());
+        assertEquals(1, fixture.builds.get());
+    }
+    
+    @Test
+    @DisplayName("Should not let an older state of a task replace a newer one")
+    void testIgnoresOlderState() {
+        fixture.stored.add(text("1", "Newest title", null, 3, 5));
+        search("newest", 0, 10);
+        
+        index.apply(TaskChangedEvent.updated(task("1", "Older title", 2, 9)));
+        index.apply(TaskChangedEvent.updated(task("1", "Same version older time", 3, 4)));
+        
+        assertEquals(List.of("1"), search("newest", 0, 10).ids());
+        assertEquals(0, search("older", 0, 10).total());
+    }
+    
+    @Test
+    @DisplayName("Should apply changes committed while the index was being built")
+    void testAppliesEventsDuringBuild() {
+        fixture.stored.add(text("1", "Plan team offsite", null, 0, 0));
+        
+        TaskSearchIndex.Result result = index.search(USER_ID, "team", 0, 10, sink -> {
+            fixture.stored.forEach(sink);
+            // Committed after its row was read
+            index.apply(TaskChangedEvent.updated(task("1", "Plan team dinner", 1, 1)));
+        });
+        
+        assertEquals(1, result.total());
+        assertEquals(List.of("1"), search("dinner", 0, 10).ids());
+        assertEquals(0, search("offsite", 0, 10).total());
+        assertEquals(0, fixture.builds.get());
+    }
+    
+    @Test
+    @DisplayName("Should read the tasks of a bulk change again without rebuilding the index")
+    void testReindexesBulkChange() {
+        fixture.stored.add(text("1", "Book travel", null, 0, 0));
+        fixture.stored.add(text("2", "Travel insurance", null, 0, 0));
+        search("travel", 0, 10);
+        // Task 2 was deleted and task 3 imported
+        List<TaskText> changed = List.of(text("1", "Book travel", null, 1, 5), text("3", "Imported travel plans", null, 0, 5));
+        
+        index.reindex(USER_ID, List.of("1", "2", "3"), changed::forEach).join();
+        
+        assertEquals(Set.of("1", "3"), Set.copyOf(search("travel", 0, 10).ids()));
+        assertEquals(0, search("insurance", 0, 10).total());
+        assertEquals(1, fixture.builds.get());
+    }
+    
+    @Test
+    @DisplayName("Should answer with 503 while a slow build goes on, and serve the index it built")
+    void testAnswersWhileBuilding() {
+        TaskSearchIndex slow = new TaskSearchIndex(DataSize.ofMegabytes(8), Duration.ofMillis(50));
+        CountDownLatch loaded = new CountDownLatch(1);
+        fixture.stored.add(text("1", "Quarterly report", null, 0, 0));
+        Consumer<Consumer<TaskText>> loader = sink -> {
+            fixture.builds.incrementAndGet();
+            try {
+                loaded.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            fixture.stored.forEach(sink);
+        };
+        
+        ServiceUnavailableException warming = assertThrows(ServiceUnavailableException.class,
+                () -> slow.search(USER_ID, "report", 0, 10, loader));
+        assertEquals(1, warming.getRetryAfterSeconds());
+        assertThrows(ServiceUnavailableException.class, () -> slow.search(USER_ID, "report", 0, 10, loader));
+        loaded.countDown();
+        
+        TaskSearchIndex.Result result = null;
+        for (int attempt = 0; result == null; attempt++) {
+            try {
+                result = slow.search(USER_ID, "report", 0, 10, loader);
+            } catch (ServiceUnavailableException e) {
+                assertTrue(attempt < 100, "Still building");
+            }
+        }
+        assertEquals(List.of("1"), result.ids());
+        assertEquals(1, fixture.builds.get());
+    }
+    
+    @Test
+    @DisplayName("Should not build an index too large for the cache again for every search")
+    void testDoesNotRebuildOversizedIndex() {
+        TaskSearchIndex small = new TaskSearchIndex(DataSize.ofBytes(100), Duration.ofSeconds(10));
+        fixture.stored.add(text("1", "Quarterly report", null, 0, 0));
+        fixture.stored.add(text("2", "Annual report", null, 0, 1));
+        
+        assertEquals(2, small.search(USER_ID, "report", 0, 10, fixture.loader()).total());
+        ServiceUnavailableException oversized = assertThrows(ServiceUnavailableException.class,
+                () -> small.search(USER_ID, "report", 0, 10, fixture.loader()));
+        
+        assertTrue(oversized.getRetryAfterSeconds() > 60, String.valueOf(oversized.getRetryAfterSeconds()));
+        assertEquals(1, fixture.builds.get());
+    }
+    
+    @Test
+    @DisplayName("Should give the same results after most tasks were reindexed or removed")
+    void testCompactsRetiredTasks() {
+        for (int i = 0; i < 200; i++) {
+            fixture.stored.add(text("t" + i, "Task " + i, i % 2 == 0 ? "even" : "odd", 0, i));
+        }
+        search("even", 0, 10);
+        
+        for (int i = 0; i < 200; i++) {
+            if (i % 4 == 0) {
+                index.apply(TaskChangedEvent.deleted("t" + i, USER_ID));
+            } else {
+                index.apply(TaskChangedEvent.updated(task("t" + i, "Task " + i, 1, 1000 + i)));
+                index.apply(TaskChangedEvent.updated(task("t" + i, "Task " + i + " even", 2, 2000 + i)));
+            }
+        }
+        
+        TaskSearchIndex.Result result = search("even task", 0, 200);
+        assertEquals(150, result.total());
+        assertEquals(150, Set.copyOf(result.ids()).size());
+        assertTrue(result.ids().contains("t199"));
+        assertFalse(result.ids().contains("t196"));
+        assertEquals(0, search("odd", 0, 10).total());
+        assertEquals(1, fixture.builds.get());
+    }
+    
+    private TaskSearchIndex.Result search(String query, int offset, int limit) {
+        return index.search(USER_ID, query, offset, limit, fixture.loader());
+    }
+}
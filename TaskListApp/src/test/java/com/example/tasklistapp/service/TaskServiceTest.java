@@ -3,14 +3,20 @@ package com.example.tasklistapp.service;
 import com.example.tasklistapp.Model.MyAppUser;
 import com.example.tasklistapp.Model.Task;
 import com.example.tasklistapp.Model.TaskRepository;
+import com.example.tasklistapp.dto.TaskPatch;
+import com.example.tasklistapp.exception.PreconditionFailedException;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.util.unit.DataSize;
 
 import java.util.Arrays;
 import java.util.List;
@@ -18,6 +24,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +34,24 @@ class TaskServiceTest {
     @Mock
     private TaskRepository taskRepository;
     
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Spy
+    private TaskIdCache taskIdCache = new TaskIdCache(DataSize.ofMegabytes(1));
+    
+    @Mock
+    private TaskListResponseCache taskListResponseCache;
+    
+    @Spy
+    private TaskWriteBehind taskWriteBehind = new TaskWriteBehind();
+    
+    @Mock
+    private TaskSearchIndex taskSearchIndex;
+    
+    @Mock
+    private TaskSuggestIndex taskSuggestIndex;
+    
     @InjectMocks
     private TaskService taskService;
     
@@ -56,15 +81,35 @@ class TaskServiceTest {
         task2.setShortDescription("Another Task");
         task2.setUser(testUser);
         
-        List<Task> expectedTasks = Arrays.asList(testTask, task2);
-        when(taskRepository.findByUserIdOrderByCreatedAtDesc(testUser.getId()))
-            .thenReturn(expectedTasks);
+        List<String> ids = Arrays.asList("task123", "task456");
+        when(taskRepository.findIdsByUserId(testUser.getId())).thenReturn(ids);
+        when(taskRepository.findAllInOrder(ids)).thenReturn(Arrays.asList(testTask, task2));
         
         List<Task> actualTasks = taskService.getAllTasksForUser(testUser.getId());
         
         assertEquals(2, actualTasks.size());
         assertEquals("Test Task", actualTasks.get(0).getShortDescription());
-        verify(taskRepository).findByUserIdOrderByCreatedAtDesc(testUser.getId());
+        verify(taskRepository).findIdsByUserId(testUser.getId());
+    }
+    
+    @Test
+    @DisplayName("Should serve repeated list reads from the id cache until a change is committed, then drop the encoded responses")
+    void testTaskIdsCachedUntilChange() {
+        List<String> ids = List.of("task123");
+        when(taskRepository.findIdsByUserId(testUser.getId())).thenReturn(ids);
+        when(taskRepository.findAllInOrder(ids)).thenReturn(List.of(testTask));
+        
+        taskService.getAllTasksForUser(testUser.getId());
+        taskService.getAllTasksForUser(testUser.getId());
+        verify(taskRepository, times(1)).findIdsByUserId(testUser.getId());
+        
+        taskService.onTaskChanged(TaskChangedEvent.deleted("task123", testUser.getId()));
+        taskService.getAllTasksForUser(testUser.getId());
+        verify(taskRepository, times(2)).findIdsByUserId(testUser.getId());
+        
+        InOrder invalidation = inOrder(taskIdCache, taskListResponseCache);
+        invalidation.verify(taskIdCache).invalidate(testUser.getId());
+        invalidation.verify(taskListResponseCache).invalidate(testUser.getId());
     }
     
     @Test
@@ -102,6 +147,8 @@ class TaskServiceTest {
         assertNotNull(createdTask);
         assertEquals(testUser, createdTask.getUser());
         verify(taskRepository).save(testTask);
+        verify(eventPublisher).publishEvent(argThat((TaskChangedEvent event) ->
+            event.getType() == TaskChangedEvent.Type.CREATED && event.getTaskId().equals("task123")));
     }
     
     @Test
@@ -113,7 +160,7 @@ class TaskServiceTest {
         updatedData.setStatus(Task.TaskStatus.IN_PROGRESS);
         
         when(taskRepository.findById("task123")).thenReturn(Optional.of(testTask));
-        when(taskRepository.save(any(Task.class))).thenReturn(testTask);
+        when(taskRepository.saveAndFlush(any(Task.class))).thenReturn(testTask);
         
         Task result = taskService.updateTask("task123", updatedData, testUser.getId());
         
@@ -121,9 +168,57 @@ class TaskServiceTest {
         assertEquals("Updated Task", result.getShortDescription());
         assertEquals("Updated description", result.getLongDescription());
         assertEquals(Task.TaskStatus.IN_PROGRESS, result.getStatus());
-        verify(taskRepository).save(testTask);
+        verify(taskRepository).saveAndFlush(testTask);
+        verify(eventPublisher).publishEvent(argThat((TaskChangedEvent event) ->
+            event.getType() == TaskChangedEvent.Type.UPDATED && event.getUserId().equals(1L)));
     }
     
+    @Test
+    @DisplayName("Should patch only the fields that are set")
+    void testPatchTask() {
+        testTask.setVersion(3L);
+        TaskPatch patch = new TaskPatch();
+        patch.setStatus(Task.TaskStatus.DONE);
+        
+        when(taskRepository.findById("task123")).thenReturn(Optional.of(testTask));
+        when(taskRepository.saveAndFlush(any(Task.class))).thenReturn(testTask);
+        
+        VersionedTask result = taskService.patchTask("task123", patch, testUser.getId(), List.of("3"));
+        
+        assertEquals(Task.TaskStatus.DONE, result.task().getStatus());
+        assertEquals("Test Task", result.task().getShortDescription());
+        assertEquals("This is a test task description", result.task().getLongDescription());
+        assertEquals("3", result.versionTag());
+    }
+    
+    @Test
+    @DisplayName("Should reject an update made against another version")
+    void testUpdateTaskVersionMismatch() {
+        testTask.setVersion(4L);
+        TaskPatch patch = new TaskPatch();
+        patch.setStatus(Task.TaskStatus.DONE);
+        
+        when(taskRepository.findById("task123")).thenReturn(Optional.of(testTask));
+        
+        assertThrows(PreconditionFailedException.class,
+                () -> taskService.patchTask("task123", patch, testUser.getId(), List.of("3")));
+        assertEquals(Task.TaskStatus.TODO, testTask.getStatus());
+        verify(taskRepository, never()).saveAndFlush(any(Task.class));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+    
+    @Test
+    @DisplayName("Should mark the task as deleted and publish an event")
+    void testDeleteTaskPublishesEvent() {
+        when(taskRepository.findById("task123")).thenReturn(Optional.of(testTask));
+        
+        taskService.deleteTask("task123", testUser.getId());
+        
+        verify(taskRepository).save(argThat(Task::isDeleted));
+        verify(taskRepository, never()).deleteById(any());
+        verify(eventPublisher).publishEvent(argThat((TaskChangedEvent event) ->
+            event.getType() == TaskChangedEvent.Type.DELETED && event.getTask() == null));
+    }
 
     @Test
     @DisplayName("Should check if task is owned by user")
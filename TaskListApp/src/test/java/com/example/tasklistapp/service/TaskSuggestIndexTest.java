@@ -0,0 +1,137 @@
+package com.example.tasklistapp.service;
+
+import com.example.tasklistapp.Model.TaskText;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.example.tasklistapp.service.UserIndexFixture.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Task Suggest Index Tests")
+class TaskSuggestIndexTest {
+    
+    private final TaskSuggestIndex index = new TaskSuggestIndex(DataSize.ofMegabytes(8), Duration.ofSeconds(10));
+    private final UserIndexFixture fixture = new UserIndexFixture();
+    
+    @Test
+    @DisplayName("Should suggest each distinct title once for a prefix of the title or one of its words")
+    void testSuggestsWordPrefixes() {
+        fixture.stored.add(title("1", "Fix login bug", 0, 0));
+        fixture.stored.add(title("2", "Fix login bug", 0, 0));
+        fixture.stored.add(title("3", "Book flights", 0, 0));
+        fixture.stored.add(title("4", "Re-login after bugfix", 0, 0));
+        
+        assertEquals(List.of("Re-login after bugfix", "Fix login bug"), suggest("LOG"));
+        assertEquals(List.of("Fix login bug"), suggest("login b"));
+        assertEquals(List.of("Fix login bug", "Re-login after bugfix"), suggest("bug"));
+        assertEquals(List.of("Book flights"), suggest("  boo"));
+        assertEquals(List.of(), suggest("ogin"));
+        assertEquals(List.of(), suggest(" "));
+        assertEquals(List.of("Book flights"), index.suggest(USER_ID, "b", 1, sink -> fail("Already built")));
+        assertEquals(1, fixture.builds.get());
+    }
+    
+    @Test
+    @DisplayName("Should keep the index up to date from task events without rebuilding it")
+    void testAppliesEvents() {
+        fixture.stored.add(title("1", "Write release notes", 0, 0));
+        fixture.stored.add(title("2", "Fix login bug", 0, 0));
+        fixture.stored.add(title("3", "Fix login bug", 0, 0));
+        suggest("x");
+        
+        index.apply(TaskChangedEvent.created(task("4", "Draft release plan", 0, 1)));
+        index.apply(TaskChangedEvent.updated(task("1", "Write onboarding docs", 1, 2)));
+        index.apply(TaskChangedEvent.deleted("2", USER_ID));
+        
+        assertEquals(List.of("Draft release plan"), suggest("rel"));
+        assertEquals(List.of("Write onboarding docs"), suggest("write"));
+        // Still the title of another task
+        assertEquals(List.of("Fix login bug"), suggest("fix"));
+        index.apply(TaskChangedEvent.deleted("3", USER_ID));
+        assertEquals(List.of(), suggest("fix"));
+        assertEquals(1, fixture.builds.get());
+    }
+    
+    @Test
+    @DisplayName("Should not let an older state of a task replace a newer one")
+    void testIgnoresOlderState() {
+        fixture.stored.add(title("1", "Newest title", 3, 5));
+        suggest("x");
+        
+        index.apply(TaskChangedEvent.updated(task("1", "Older title", 2, 9)));
+        index.apply(TaskChangedEvent.updated(task("1", "Same version older time", 3, 4)));
+        
+        assertEquals(List.of("Newest title"), suggest("new"));
+        assertEquals(List.of(), suggest("old"));
+        assertEquals(List.of(), suggest("same"));
+    }
+    
+    @Test
+    @DisplayName("Should apply changes committed while the index was being built")
+    void testAppliesEventsDuringBuild() {
+        fixture.stored.add(title("1", "Plan team offsite", 0, 0));
+        
+        List<String> suggestions = index.suggest(USER_ID, "plan", 10, sink -> {
+            fixture.stored.forEach(sink);
+            // Committed after its row was read
+            index.apply(TaskChangedEvent.updated(task("1", "Plan team dinner", 1, 1)));
+        });
+        
+        assertEquals(List.of("Plan team dinner"), suggestions);
+        assertEquals(List.of(), suggest("offsite"));
+        assertEquals(0, fixture.builds.get());
+    }
+    
+    @Test
+    @DisplayName("Should read the tasks of a bulk change again without rebuilding the index")
+    void testReindexesBulkChange() {
+        fixture.stored.add(title("1", "Book travel", 0, 0));
+        fixture.stored.add(title("2", "Travel insurance", 0, 0));
+        suggest("travel");
+        // Task 2 was deleted and task 3 imported
+        List<TaskText> changed = List.of(title("3", "Imported travel plans", 0, 5));
+        
+        index.reindex(USER_ID, List.of("2", "3"), changed::forEach).join();
+        
+        assertEquals(List.of("Book travel", "Imported travel plans"), suggest("travel"));
+        assertEquals(1, fixture.builds.get());
+    }
+    
+    @Test
+    @DisplayName("Should give the same suggestions after most titles were changed or removed")
+    void testMergesAndRenumbers() {
+        for (int i = 0; i < 500; i++) {
+            fixture.stored.add(title("t" + i, "Task " + i, 0, i));
+        }
+        suggest("x");
+        
+        // Most titles are retired, so the titles are renumbered
+        for (int i = 0; i < 500; i++) {
+            if (i % 5 == 0) {
+                index.apply(TaskChangedEvent.updated(task("t" + i, "Renamed " + i, 1, 1000 + i)));
+            } else {
+                index.apply(TaskChangedEvent.deleted("t" + i, USER_ID));
+            }
+            if (i < 100) {
+                index.apply(TaskChangedEvent.created(task("n" + i, "New " + i, 0, 2000 + i)));
+            }
+        }
+        
+        assertEquals(List.of(), index.suggest(USER_ID, "task", 20, sink -> fail("Already built")));
+        assertEquals(List.of("Renamed 10", "Renamed 100", "Renamed 105"),
+                index.suggest(USER_ID, "renamed 1", 3, sink -> fail("Already built")));
+        assertEquals(List.of("New 99"), suggest("new 99"));
+        assertEquals(List.of("Renamed 495"), suggest("renamed 495"));
+        assertEquals(List.of(), suggest("renamed 496"));
+        assertEquals(20, suggest("4").size());
+        assertEquals(1, fixture.builds.get());
+    }
+    
+    private List<String> suggest(String prefix) {
+        return index.suggest(USER_ID, prefix, 20, fixture.loader());
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.tasklistapp.service;
+
+import com.example.tasklistapp.Model.MyAppUser;
+import com.example.tasklistapp.Model.MyAppUserRepository;
+import com.example.tasklistapp.Model.Task;
+import com.example.tasklistapp.exception.InvalidRequestException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Export and import across several fetches and batches. The context is not {@code @Transactional},
+ * so each imported batch really commits.
+ */
+@SpringBootTest(properties = {
+        "app.transfer.fetch-size=7",
+        "app.transfer.batch-size=5"
+})
+@AutoConfigureMockMvc
+@DisplayName("Task Transfer Tests")
+class TaskTransferTest {
+    
+    private static final int TASKS = 23;
+    
+    @Autowired
+    private TaskTransfer taskTransfer;
+    
+    @Autowired
+    private TaskService taskService;
+    
+    @Autowired
+    private TaskBatchWriter taskBatchWriter;
+    
+    @Autowired
+    private MyAppUserRepository userRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    private MyAppUser source;
+    private MyAppUser target;
+    
+    @BeforeEach
+    void setUp() {
+        source = saveUser("transfersource");
+        target = saveUser("transfertarget");
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            Task task = new Task();
+            task.setShortDescription("Task " + i);
+            task.setLongDescription(i % 2 == 0 ? null : "Details of task " + i);
+            task.setStatus(Task.TaskStatus.values()[i % Task.TaskStatus.values().length]);
+            task.setCreatedAt(start.plusMinutes(i));
+            task.setUpdatedAt(start.plusMinutes(i));
+            tasks.add(task);
+        }
+        taskBatchWriter.insert(source.getId(), tasks);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from tasks where user_id in (?, ?)", source.getId(), target.getId());
+        userRepository.delete(source);
+        userRepository.delete(target);
+    }
+    
+    @Test
+    @DisplayName("Should export every task in list order and import them as an equal list")
+    void testRoundTrip() throws Exception {
+        // Read once so the cached list has to be invalidated by the import
+        assertTrue(taskService.getAllTasksForUser(target.getId()).isEmpty());
+        
+        ByteArrayOutputStream exported = new ByteArrayOutputStream();
+        assertEquals(TASKS, taskTransfer.export(source.getId(), exported));
+        String ndjson = exported.toString(StandardCharsets.UTF_8);
+        assertEquals(TASKS, ndjson.lines().count());
+        
+        assertEquals(TASKS, taskTransfer.importTasks(target.getId(), new ByteArrayInputStream(exported.toByteArray())));
+        
+        List<Task> original = taskService.getAllTasksForUser(source.getId());
+        List<Task> imported = taskService.getAllTasksForUser(target.getId());
+        assertEquals(TASKS, imported.size());
+        assertEquals("Task " + (TASKS - 1), imported.get(0).getShortDescription());
+        for (int i = 0; i < TASKS; i++) {
+            Task expected = original.get(i);
+            Task actual = imported.get(i);
+            assertNotEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getShortDescription(), actual.getShortDescription());
+            assertEquals(expected.getLongDescription(), actual.getLongDescription());
+            assertEquals(expected.getStatus(), actual.getStatus());
+            assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+            assertEquals(expected.getUpdatedAt(), actual.getUpdatedAt());
+        }
+    }
+    
+    @Test
+    @DisplayName("Should keep the tasks before an invalid line, across committed batches")
+    void testInvalidLineKeepsTasksBeforeIt() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 12; i++) {
+            ndjson.append("{\"shortDescription\":\"Imported ").append(i).append("\"}\n");
+        }
+        ndjson.append("{\"shortDescription\":\"\"}\n");
+        ndjson.append("{\"shortDescription\":\"Never read\"}\n");
+        // Read once so the cached list has to be invalidated by every committed batch
+        assertTrue(taskService.getAllTasksForUser(target.getId()).isEmpty());
+        
+        InvalidRequestException e = assertThrows(InvalidRequestException.class, () -> taskTransfer.importTasks(
+                target.getId(), new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8))));
+        
+        assertTrue(e.getMessage().startsWith("Line 13:"), e.getMessage());
+        assertTrue(e.getMessage().endsWith("(12 tasks before it imported)"), e.getMessage());
+        assertEquals(12L, jdbcTemplate.queryForObject(
+                "select count(*) from tasks where user_id = ?", Long.class, target.getId()));
+        List<Task> imported = taskService.getAllTasksForUser(target.getId());
+        assertEquals(12, imported.size());
+        assertTrue(imported.stream().noneMatch(task -> task.getShortDescription().equals("Never read")));
+    }
+    
+    @Test
+    @DisplayName("Should tell the user's event streams to resync once per import, not once per batch")
+    @WithMockUser(username = "transfertarget")
+    void testImportResyncsOnce() throws Exception {
+        MvcResult events = mockMvc.perform(get("/tasks/events")).andExpect(request().asyncStarted()).andReturn();
+        ByteArrayOutputStream exported = new ByteArrayOutputStream();
+        taskTransfer.export(source.getId(), exported);
+        
+        assertEquals(TASKS, taskTransfer.importTasks(target.getId(), new ByteArrayInputStream(exported.toByteArray())));
+        
+        // The resync is the last event, so once it has arrived so has everything sent before it
+        long deadline = System.currentTimeMillis() + 5000;
+        String stream = events.getResponse().getContentAsString();
+        while (!stream.contains("event:resync") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            stream = events.getResponse().getContentAsString();
+        }
+        assertEquals(1, stream.split("event:resync", -1).length - 1, stream);
+    }
+    
+    private MyAppUser saveUser(String username) {
+        MyAppUser user = new MyAppUser();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("encodedpassword");
+        user.setVerified(true);
+        return userRepository.save(user);
+    }
+}
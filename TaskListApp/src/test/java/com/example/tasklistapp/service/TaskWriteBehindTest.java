@@ -0,0 +1,341 @@
+package com.example.tasklistapp.service;
+
+import com.example.tasklistapp.Model.MyAppUser;
+import com.example.tasklistapp.Model.MyAppUserRepository;
+import com.example.tasklistapp.Model.Task;
+import com.example.tasklistapp.Model.TaskRepository;
+import com.example.tasklistapp.TaskListAppApplication;
+import com.example.tasklistapp.dto.TaskPatch;
+import com.example.tasklistapp.exception.PreconditionFailedException;
+import com.example.tasklistapp.exception.ResourceNotFoundException;
+import com.example.tasklistapp.jdbc.SqlStatementStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Write-behind against a real database. The window is long enough that nothing is flushed unless
+ * a test asks for it, and the context is not {@code @Transactional} so every flush commits.
+ */
+@SpringBootTest(properties = {
+        "app.write-behind.enabled=true",
+        "app.write-behind.window=1h"
+})
+@DisplayName("Task Write-Behind Tests")
+class TaskWriteBehindTest {
+    
+    private static final Task.TaskStatus[] STATUSES = Task.TaskStatus.values();
+    
+    @Autowired
+    private TaskService taskService;
+    
+    @Autowired
+    private TaskWriteBehind taskWriteBehind;
+    
+    @Autowired
+    private TaskRepository taskRepository;
+    
+    @Autowired
+    private MyAppUserRepository userRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private MyAppUser user;
+    private Task task;
+    
+    @BeforeEach
+    void setUp() {
+        user = new MyAppUser();
+        user.setUsername("writebehinduser");
+        user.setEmail("writebehind@example.com");
+        user.setPassword("encodedpassword");
+        user.setVerified(true);
+        user = userRepository.save(user);
+        task = taskService.createTask(newTask("Toggle me", Task.TaskStatus.TODO), user);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        taskWriteBehind.flush();
+        taskRepository.deleteAllByUserId(user.getId());
+        userRepository.delete(user);
+    }
+    
+    @Test
+    @DisplayName("Should coalesce rapid updates into one row write and serve the buffered state meanwhile")
+    void testCoalescesRapidUpdates() {
+        long commitsBefore = SqlStatementStats.getWriteCommits();
+        long rowsBefore = SqlStatementStats.getRowsWritten();
+        
+        for (int i = 1; i <= 9; i++) {
+            taskService.updateTask(task.getId(), newTask("Toggle me", STATUSES[i % STATUSES.length]), user.getId());
+        }
+        taskService.updateTask(task.getId(), newTask("Toggled", Task.TaskStatus.DONE), user.getId());
+
+        assertEquals(Task.TaskStatus.TODO, storedStatus());
+        assertEquals(commitsBefore, SqlStatementStats.getWriteCommits());
+        assertEquals(Task.TaskStatus.DONE, taskService.getTaskById(task.getId()).orElseThrow().getStatus());
+        assertEquals("Toggled", taskService.getAllTasksForUser(user.getId()).get(0).getShortDescription());
+        assertEquals(List.of(task.getId()), ids(taskService.getTasksByStatus(user.getId(), Task.TaskStatus.DONE)));
+        assertTrue(taskService.getTasksByStatus(user.getId(), Task.TaskStatus.TODO).isEmpty());
+        
+        assertEquals(1, taskWriteBehind.flush());
+        assertEquals(Task.TaskStatus.DONE, storedStatus());
+        assertEquals(commitsBefore + 1, SqlStatementStats.getWriteCommits());
+        assertEquals(rowsBefore + 1, SqlStatementStats.getRowsWritten());
+        assertEquals(0, taskWriteBehind.getPendingCount());
+        assertEquals(Task.TaskStatus.DONE, taskService.getTaskById(task.getId()).orElseThrow().getStatus());
+    }
+    
+    @Test
+    @DisplayName("Should drop the buffered update of a deleted task")
+    void testDiscardsUpdateOfDeletedTask() {
+        Task other = taskService.createTask(newTask("Keep me", Task.TaskStatus.TODO), user);
+        taskService.updateTask(task.getId(), newTask("Gone", Task.TaskStatus.DONE), user.getId());
+        taskService.updateTask(other.getId(), newTask("Kept", Task.TaskStatus.IN_PROGRESS), user.getId());
+        
+        taskService.deleteTask(task.getId(), user.getId());
+        
+        assertEquals(1, taskWriteBehind.getPendingCount());
+        assertEquals(1, taskWriteBehind.flush());
+        assertEquals("Kept", jdbcTemplate.queryForObject(
+                "select short_description from tasks where id = ?", String.class, other.getId()));
+    }
+    
+    @Test
+    @DisplayName("Should write the rest of the batch when one of its tasks was deleted behind its back")
+    void testSkipsTasksDeletedBehindItsBack() {
+        Task other = taskService.createTask(newTask("Keep me", Task.TaskStatus.TODO), user);
+        taskService.updateTask(task.getId(), newTask("Gone", Task.TaskStatus.DONE), user.getId());
+        taskService.updateTask(other.getId(), newTask("Kept", Task.TaskStatus.IN_PROGRESS), user.getId());
+        // Deleted without going through TaskService, so the buffered update is not discarded
+        jdbcTemplate.update("delete from tasks where id = ?", task.getId());
+        long rowsBefore = SqlStatementStats.getRowsWritten();
+        
+        assertEquals(2, taskWriteBehind.flush());
+        assertEquals(0, taskWriteBehind.getPendingCount());
+        assertEquals(rowsBefore + 1, SqlStatementStats.getRowsWritten());
+        assertEquals("Kept", jdbcTemplate.queryForObject(
+                "select short_description from tasks where id = ?", String.class, other.getId()));
+    }
+    
+    @Test
+    @DisplayName("Should merge buffered patches of different fields")
+    void testMergesPatches() {
+        TaskPatch status = new TaskPatch();
+        status.setStatus(Task.TaskStatus.DONE);
+        TaskPatch title = new TaskPatch();
+        title.setShortDescription("Renamed");
+        
+        taskService.patchTask(task.getId(), status, user.getId(), null);
+        VersionedTask buffered = taskService.patchTask(task.getId(), title, user.getId(), null);
+        
+        assertEquals("Renamed", buffered.task().getShortDescription());
+        assertEquals(Task.TaskStatus.DONE, buffered.task().getStatus());
+        assertTrue(buffered.versionTag().startsWith("0+"));
+        assertEquals(1, taskWriteBehind.flush());
+        assertEquals(Task.TaskStatus.DONE, storedStatus());
+        assertEquals("Renamed", jdbcTemplate.queryForObject(
+                "select short_description from tasks where id = ?", String.class, task.getId()));
+    }
+    
+    @Test
+    @DisplayName("Should overlay a buffered update on a compressed description without compressing it again")
+    void testOverlayKeepsCompressedDescription() {
+        Task notes = newTask("Notes", Task.TaskStatus.TODO);
+        notes.setLongDescription("Step done, next step pending. ".repeat(100));
+        notes = taskService.createTask(notes, user);
+        assertNotNull(notes.getCompressedLongDescription());
+        TaskPatch status = new TaskPatch();
+        status.setStatus(Task.TaskStatus.DONE);
+        
+        Task buffered = taskWriteBehind.buffer(notes, status).task();
+        
+        assertSame(notes.getCompressedLongDescription(), buffered.getCompressedLongDescription());
+        assertEquals(notes.getLongDescription(), buffered.getLongDescription());
+        assertEquals(Task.TaskStatus.DONE, buffered.getStatus());
+    }
+    
+    @Test
+    @DisplayName("Should write a conditional update through, together with the buffered one it was made against")
+    void testConditionalUpdateWritesThrough() {
+        TaskPatch status = new TaskPatch();
+        status.setStatus(Task.TaskStatus.IN_PROGRESS);
+        String tag = taskService.patchTask(task.getId(), status, user.getId(), null).versionTag();
+        TaskPatch title = new TaskPatch();
+        title.setShortDescription("Renamed");
+        
+        assertThrows(PreconditionFailedException.class,
+                () -> taskService.patchTask(task.getId(), title, user.getId(), List.of("0")));
+        assertEquals(1, taskWriteBehind.getPendingCount());
+        
+        VersionedTask written = taskService.patchTask(task.getId(), title, user.getId(), List.of(tag));
+        
+        assertEquals("1", written.versionTag());
+        assertEquals(0, taskWriteBehind.getPendingCount());
+        assertEquals(Task.TaskStatus.IN_PROGRESS, storedStatus());
+        assertEquals("Renamed", jdbcTemplate.queryForObject(
+                "select short_description from tasks where id = ?", String.class, task.getId()));
+    }
+    
+    @Test
+    @DisplayName("Should keep accepting the tag of a buffered update once it has been written")
+    void testTagOfFlushedUpdateStillMatches() {
+        TaskPatch status = new TaskPatch();
+        status.setStatus(Task.TaskStatus.IN_PROGRESS);
+        String tag = taskService.patchTask(task.getId(), status, user.getId(), null).versionTag();
+        assertEquals(1, taskWriteBehind.flush());
+        TaskPatch title = new TaskPatch();
+        title.setShortDescription("Renamed");
+        
+        VersionedTask written = taskService.patchTask(task.getId(), title, user.getId(), List.of(tag));
+        
+        assertEquals("2", written.versionTag());
+        assertEquals("Renamed", jdbcTemplate.queryForObject(
+                "select short_description from tasks where id = ?", String.class, task.getId()));
+        // The task has changed since, so the tag no longer names it
+        assertThrows(PreconditionFailedException.class,
+                () -> taskService.patchTask(task.getId(), status, user.getId(), List.of(tag)));
+    }
+    
+    @Test
+    @DisplayName("Should answer an empty patch with the task as it is, without writing it")
+    void testEmptyPatchWritesNothing() {
+        TaskPatch status = new TaskPatch();
+        status.setStatus(Task.TaskStatus.DONE);
+        String tag = taskService.patchTask(task.getId(), status, user.getId(), null).versionTag();
+        long commitsBefore = SqlStatementStats.getWriteCommits();
+        
+        VersionedTask unchanged = taskService.patchTask(task.getId(), new TaskPatch(), user.getId(), List.of(tag));
+        
+        assertEquals(tag, unchanged.versionTag());
+        assertEquals(Task.TaskStatus.DONE, unchanged.task().getStatus());
+        assertEquals(1, taskWriteBehind.getPendingCount());
+        assertEquals(commitsBefore, SqlStatementStats.getWriteCommits());
+        assertThrows(PreconditionFailedException.class,
+                () -> taskService.patchTask(task.getId(), new TaskPatch(), user.getId(), List.of("0")));
+    }
+    
+    @Test
+    @DisplayName("Should apply set-based status changes to the buffered state")
+    void testBulkUpdateSeesBufferedUpdates() {
+        Task other = taskService.createTask(newTask("Keep me", Task.TaskStatus.TODO), user);
+        taskService.updateTask(task.getId(), newTask("Started", Task.TaskStatus.IN_PROGRESS), user.getId());
+        
+        assertEquals(1, taskService.updateStatusForUser(user.getId(), Task.TaskStatus.IN_PROGRESS, Task.TaskStatus.DONE));
+        
+        assertEquals(0, taskWriteBehind.getPendingCount());
+        assertEquals(Task.TaskStatus.DONE, storedStatus());
+        assertEquals("Started", jdbcTemplate.queryForObject(
+                "select short_description from tasks where id = ?", String.class, task.getId()));
+        assertEquals("TODO", jdbcTemplate.queryForObject(
+                "select status from tasks where id = ?", String.class, other.getId()));
+    }
+    
+    @Test
+    @DisplayName("Should not remove a task with a buffered update, nor buffer one while it is being removed")
+    void testRemovalRacesUpdate() throws Exception {
+        Task other = taskService.createTask(newTask("Busy", Task.TaskStatus.DONE), user);
+        taskService.updateTask(other.getId(), newTask("Reopened", Task.TaskStatus.TODO), user.getId());
+        assertEquals(List.of(), taskWriteBehind.removeUnlessPending(List.of(other.getId()), id -> id, ids -> {
+            throw new AssertionError("Removed a task with a buffered update");
+        }));
+        
+        CountDownLatch checked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<List<String>> removal = CompletableFuture.supplyAsync(() ->
+                taskWriteBehind.removeUnlessPending(List.of(task.getId()), id -> id, ids -> {
+                    checked.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    ids.forEach(id -> jdbcTemplate.update("delete from tasks where id = ?", id));
+                    return ids;
+                }));
+        assertTrue(checked.await(10, TimeUnit.SECONDS));
+        // Reads the task, which still exists, and then has to wait for the removal to commit
+        CompletableFuture<Task> update = CompletableFuture.supplyAsync(() ->
+                taskService.updateTask(task.getId(), newTask("Reopened", Task.TaskStatus.TODO), user.getId()));
+        Thread.sleep(200);
+        assertFalse(update.isDone());
+        
+        release.countDown();
+        assertEquals(List.of(task.getId()), removal.get(10, TimeUnit.SECONDS));
+        CompletionException failure = assertThrows(CompletionException.class, update::join);
+        assertInstanceOf(ResourceNotFoundException.class, failure.getCause());
+        assertFalse(taskWriteBehind.isPending(task.getId()));
+    }
+    
+    @Test
+    @DisplayName("Should write buffered updates before the application shuts down")
+    void testFlushesOnShutdown() throws Exception {
+        // A database that outlives the application context, so the result can be checked after it closed
+        String url = "jdbc:h2:mem:writebehindshutdown;DB_CLOSE_DELAY=-1";
+        String taskId;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TaskListAppApplication.class).run(
+                "--spring.datasource.url=" + url,
+                "--server.port=0",
+                "--app.warmup.enabled=false",
+                "--app.write-behind.enabled=true",
+                "--app.write-behind.window=1h")) {
+            MyAppUser owner = new MyAppUser();
+            owner.setUsername("shutdownuser");
+            owner.setEmail("shutdown@example.com");
+            owner.setPassword("encodedpassword");
+            owner = context.getBean(MyAppUserRepository.class).save(owner);
+            
+            TaskService service = context.getBean(TaskService.class);
+            taskId = service.createTask(newTask("Before shutdown", Task.TaskStatus.TODO), owner).getId();
+            service.updateTask(taskId, newTask("After shutdown", Task.TaskStatus.DONE), owner.getId());
+        }
+        
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            try (ResultSet row = statement.executeQuery(
+                    "select short_description, status from tasks where id = '" + taskId + "'")) {
+                assertTrue(row.next());
+                assertEquals("After shutdown", row.getString(1));
+                assertEquals("DONE", row.getString(2));
+            }
+            statement.execute("shutdown");
+        }
+    }
+    
+    private Task.TaskStatus storedStatus() {
+        return Task.TaskStatus.valueOf(jdbcTemplate.queryForObject(
+                "select status from tasks where id = ?", String.class, task.getId()));
+    }
+    
+    private static List<String> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+    
+    private static Task newTask(String shortDescription, Task.TaskStatus status) {
+        Task task = new Task();
+        task.setShortDescription(shortDescription);
+        task.setLongDescription("Write-behind check");
+        task.setStatus(status);
+        return task;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.tasklistapp.service;
+
+import com.example.tasklistapp.Model.MyAppUser;
+import com.example.tasklistapp.Model.Task;
+import com.example.tasklistapp.Model.TaskText;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * The stored tasks of one user for the per-user index tests, and a loader over them that counts
+ * the builds it was called for.
+ */
+final class UserIndexFixture {
+    
+    static final Long USER_ID = 1L;
+    static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 0, 0);
+    
+    final List<TaskText> stored = new ArrayList<>();
+    final AtomicInteger builds = new AtomicInteger();
+    
+    Consumer<Consumer<TaskText>> loader() {
+        return sink -> {
+            builds.incrementAndGet();
+            stored.forEach(sink);
+        };
+    }
+    
+    static TaskText text(String id, String shortDescription, String longDescription, long version, int minute) {
+        return new TaskText(id, shortDescription, longDescription, version, T0.plusMinutes(minute));
+    }
+    
+    static TaskText title(String id, String shortDescription, long version, int minute) {
+        return new TaskText(id, shortDescription, version, T0.plusMinutes(minute));
+    }
+    
+    static Task task(String id, String shortDescription, long version, int minute) {
+        MyAppUser user = new MyAppUser();
+        user.setId(USER_ID);
+        Task task = new Task();
+        task.setId(id);
+        task.setShortDescription(shortDescription);
+        task.setVersion(version);
+        task.setUpdatedAt(T0.plusMinutes(minute));
+        task.setUser(user);
+        return task;
+    }
+}
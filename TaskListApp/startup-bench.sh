@@ -0,0 +1,68 @@
+#!/bin/bash
+# ============================================
+# Startup Benchmark (Linux/Mac)
+# Measures time-to-first-request: from launching the JVM until GET /req/login answers 200.
+# Compares the plain fat jar, the faststart profile, and the faststart profile with an AppCDS archive.
+# Usage: ./startup-bench.sh [runs]   (default 5 runs per variant, median reported)
+# ============================================
+
+RUNS=${1:-5}
+PORT=18080
+JAR=tasklistapp-0.0.1-SNAPSHOT.jar
+EXTRACTED=target/faststart
+
+if [ ! -f "target/$JAR" ]; then
+    echo "ERROR: JAR file not found!"
+    echo "Please run: ./mvnw clean package -DskipTests"
+    exit 1
+fi
+
+# Same steps as the "faststart" Dockerfile target: unpacked classpath, then a training run that dumps the archive
+echo "Preparing AppCDS archive in $EXTRACTED..."
+rm -rf "$EXTRACTED"
+java -Djarmode=tools -jar "target/$JAR" extract --destination "$EXTRACTED" > /dev/null || exit 1
+(cd "$EXTRACTED" && java -XX:ArchiveClassesAtExit=app.jsa -Dspring.context.exit=onRefresh \
+    -Dspring.profiles.active=faststart -jar "$JAR" > training.log 2>&1)
+if [ ! -f "$EXTRACTED/app.jsa" ]; then
+    echo "ERROR: training run did not produce $EXTRACTED/app.jsa, see $EXTRACTED/training.log"
+    exit 1
+fi
+
+# Prints milliseconds from launch to the first successful response
+time_to_first_request() {
+    local dir=$1
+    shift
+    local start=$(date +%s%N)
+    (cd "$dir" && exec java "$@" --server.port=$PORT > /dev/null 2>&1) &
+    local pid=$!
+    until curl -s -o /dev/null -f "http://localhost:$PORT/req/login"; do
+        if ! kill -0 $pid 2> /dev/null; then
+            echo "failed"
+            return
+        fi
+        sleep 0.02
+    done
+    echo $(( ($(date +%s%N) - start) / 1000000 ))
+    kill $pid
+    wait $pid 2> /dev/null
+}
+
+median() {
+    sort -n | awk '{ values[NR] = $1 } END { print values[int((NR + 1) / 2)] }'
+}
+
+run_variant() {
+    local label=$1
+    shift
+    local results=()
+    for i in $(seq 1 $RUNS); do
+        results+=($(time_to_first_request "$@"))
+    done
+    printf "%-24s median %6s ms   runs: %s\n" "$label" "$(printf '%s\n' "${results[@]}" | median)" "${results[*]}"
+}
+
+echo ""
+echo "Time to first request, $RUNS runs each:"
+run_variant "fat jar" target -jar "$JAR"
+run_variant "faststart" target -jar "$JAR" --spring.profiles.active=faststart
+run_variant "faststart + AppCDS" "$EXTRACTED" -XX:SharedArchiveFile=app.jsa -jar "$JAR" --spring.profiles.active=faststart